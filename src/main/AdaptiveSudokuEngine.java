@@ -0,0 +1,182 @@
+package main;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An engine that sends every puzzle to the engine that has been fastest on puzzles like it.
+ * <p>
+ * Puzzles are sorted in buckets by their {@link PuzzleFeatures}: the empty cells left after propagation, the
+ * average candidate entropy per empty cell and the share of bivalue cells. Every bucket keeps an exponentially
+ * weighted moving average of the solve time of each engine, fed by the solves it routes (and by timings recorded
+ * elsewhere, through {@link #record(PuzzleFeatures, String, long)}). Each engine is tried
+ * {@value #MIN_SAMPLES} times in a bucket before the bucket picks the fastest one, and one solve in
+ * {@value #EXPLORATION_PERIOD} still goes to another engine so the averages follow changes in the workload.
+ * </p>
+ * <p>
+ * This replaces routing on the givens count, as {@link SudokuSolverProcedural} does: the givens count says little
+ * about how hard a puzzle is once singles were propagated.
+ * </p>
+ * <p>
+ * The engines should agree on the outcome of every puzzle, or the outcome depends on the timings. That's why the
+ * procedural solver isn't one of the default engines: it rejects puzzles with fewer than 17 givens as invalid, where
+ * the others answer that they have multiple solutions.
+ * </p>
+ */
+public class AdaptiveSudokuEngine implements SudokuEngine {
+
+    static final int MIN_SAMPLES = 3;
+
+    static final int EXPLORATION_PERIOD = 32;
+
+    private static final double SMOOTHING = 0.2;
+
+    private static final int EMPTY_CELL_BUCKETS = 7;
+
+    private static final int ENTROPY_BUCKETS = 4;
+
+    /**
+     * Bucket 0 is for the puzzles solved or refuted by propagation alone; the others combine the three features.
+     */
+    static final int BUCKETS = 1 + EMPTY_CELL_BUCKETS * ENTROPY_BUCKETS * 2;
+
+    private final String[] names;
+
+    private final SudokuEngine[] engines;
+
+    private final AtomicLongArray averageNanos;
+
+    private final AtomicIntegerArray samples;
+
+    private final AtomicIntegerArray routed = new AtomicIntegerArray(BUCKETS);
+
+    /**
+     * Chooses between the propagation and search engine, with and without nogood learning, and the SAT engine.
+     */
+    public AdaptiveSudokuEngine() {
+        this(defaultEngines());
+    }
+
+    /**
+     * @param engines the engines to choose from, by name
+     */
+    public AdaptiveSudokuEngine(Map<String, SudokuEngine> engines) {
+        if (engines.isEmpty()) throw new IllegalArgumentException("At least one engine is needed.");
+        this.names = engines.keySet().toArray(new String[0]);
+        this.engines = engines.values().toArray(new SudokuEngine[0]);
+        this.averageNanos = new AtomicLongArray(BUCKETS * this.engines.length);
+        this.samples = new AtomicIntegerArray(BUCKETS * this.engines.length);
+    }
+
+    private static Map<String, SudokuEngine> defaultEngines() {
+        Map<String, SudokuEngine> engines = new LinkedHashMap<>();
+        engines.put(SudokuSolverBacktracking.ENGINE_NAME, SudokuEngine.BACKTRACKING);
+        engines.put(SudokuSolverBacktracking.ENGINE_NAME + "-plain",
+                grid -> new SudokuSolverBacktracking(grid, false).solve());
+        engines.put(SudokuSolverSat.ENGINE_NAME, SudokuEngine.SAT);
+        return engines;
+    }
+
+    @Override
+    public int[][] solve(int[][] grid) throws IllegalArgumentException {
+        int bucket = bucketOf(PuzzleFeatures.of(grid));
+        int engine = route(bucket);
+        long start = System.nanoTime();
+        try {
+            return engines[engine].solve(grid);
+        } finally {
+            record(bucket, engine, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Tells where the next puzzle with these features would be sent, without routing it: the routing itself counts
+     * the puzzles of every bucket to explore the other engines now and then.
+     * @return the name of the engine the next puzzle with these features would be sent to
+     */
+    public String peek(PuzzleFeatures features) {
+        int bucket = bucketOf(features);
+        return names[choose(bucket, routed.get(bucket) + 1)];
+    }
+
+    /**
+     * Records the time an engine took on a puzzle, as if the puzzle had been routed to it.
+     * @throws IllegalArgumentException when there is no engine with that name
+     */
+    public void record(PuzzleFeatures features, String engineName, long nanos) throws IllegalArgumentException {
+        int engine = Arrays.asList(names).indexOf(engineName);
+        if (engine < 0) throw new IllegalArgumentException("Unknown engine '" + engineName + "'.");
+        record(bucketOf(features), engine, nanos);
+    }
+
+    /**
+     * @return the moving average of the engine's solve time on puzzles with these features, in nanoseconds, or -1
+     * when the engine wasn't timed on such puzzles yet
+     */
+    public double getAverageNanos(PuzzleFeatures features, String engineName) {
+        int engine = Arrays.asList(names).indexOf(engineName);
+        if (engine < 0) throw new IllegalArgumentException("Unknown engine '" + engineName + "'.");
+        int slot = bucketOf(features) * engines.length + engine;
+        return samples.get(slot) == 0 ? -1 : Double.longBitsToDouble(averageNanos.get(slot));
+    }
+
+    static int bucketOf(PuzzleFeatures features) {
+        int emptyCells = features.getEmptyCells();
+        if (features.isContradiction() || emptyCells == 0) return 0;
+        int emptyCellBucket = Math.min(emptyCells / 10, EMPTY_CELL_BUCKETS - 1);
+        double entropyPerCell = features.getEntropy() / emptyCells;
+        int entropyBucket = entropyPerCell < 1.4 ? 0 : entropyPerCell < 1.7 ? 1 : entropyPerCell < 2.0 ? 2 : 3;
+        int bivalueBucket = features.getBivalueCells() * 3 >= emptyCells ? 1 : 0;
+        return 1 + (emptyCellBucket * ENTROPY_BUCKETS + entropyBucket) * 2 + bivalueBucket;
+    }
+
+    private int route(int bucket) {
+        int leastSampled = leastSampled(bucket);
+        if (samples.get(bucket * engines.length + leastSampled) < MIN_SAMPLES) return leastSampled;
+        return choose(bucket, routed.incrementAndGet(bucket));
+    }
+
+    /**
+     * @param count the number of the puzzle among those routed in the bucket once every engine was sampled
+     */
+    private int choose(int bucket, int count) {
+        int first = bucket * engines.length;
+        int leastSampled = leastSampled(bucket);
+        if (samples.get(first + leastSampled) < MIN_SAMPLES) return leastSampled;
+        int fastest = 0;
+        for (int engine = 1; engine < engines.length; engine += 1) {
+            if (Double.longBitsToDouble(averageNanos.get(first + engine))
+                    < Double.longBitsToDouble(averageNanos.get(first + fastest))) {
+                fastest = engine;
+            }
+        }
+        if (engines.length > 1 && count % EXPLORATION_PERIOD == 0) {
+            // rotate through the other engines
+            return (fastest + 1 + count / EXPLORATION_PERIOD % (engines.length - 1)) % engines.length;
+        }
+        return fastest;
+    }
+
+    private int leastSampled(int bucket) {
+        int first = bucket * engines.length;
+        int leastSampled = 0;
+        for (int engine = 1; engine < engines.length; engine += 1) {
+            if (samples.get(first + engine) < samples.get(first + leastSampled)) leastSampled = engine;
+        }
+        return leastSampled;
+    }
+
+    private void record(int bucket, int engine, long nanos) {
+        int slot = bucket * engines.length + engine;
+        while (true) {
+            long bits = averageNanos.get(slot);
+            double average = Double.longBitsToDouble(bits);
+            double updated = samples.get(slot) == 0 ? nanos : average + SMOOTHING * (nanos - average);
+            if (averageNanos.compareAndSet(slot, bits, Double.doubleToRawLongBits(updated))) break;
+        }
+        samples.incrementAndGet(slot);
+    }
+}
@@ -0,0 +1,92 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class AdaptiveSudokuEngineTest {
+
+    private final int[][] hardPuzzle = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+
+    private final int[][] hardPuzzleSolution = PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION);
+
+    @Test
+    public void testFeaturesAreMeasuredAfterPropagation() {
+        PuzzleFeatures features = PuzzleFeatures.of(hardPuzzle);
+        assertFalse(features.isContradiction());
+        assertTrue(features.getEmptyCells() > 0 && features.getEmptyCells() <= 81 - 24);
+        assertTrue(features.getBivalueCells() <= features.getEmptyCells());
+        assertTrue(features.getEntropy() >= features.getEmptyCells());
+        assertEquals(0, PuzzleFeatures.of(hardPuzzleSolution).getEmptyCells());
+    }
+
+    @Test
+    public void testEveryEngineSolvesTheSamePuzzle() {
+        AdaptiveSudokuEngine engine = new AdaptiveSudokuEngine();
+        for (int run = 0; run < 3 * AdaptiveSudokuEngine.MIN_SAMPLES; run += 1) {
+            assertArrayEquals(hardPuzzleSolution, engine.solve(hardPuzzle));
+        }
+    }
+
+    @Test
+    public void testPuzzlesGoToTheFastestEngineOnceItIsKnown() {
+        String[] lastRun = new String[1];
+        Map<String, SudokuEngine> engines = new LinkedHashMap<>();
+        engines.put("slow", grid -> {
+            lastRun[0] = "slow";
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return hardPuzzleSolution;
+        });
+        engines.put("fast", grid -> {
+            lastRun[0] = "fast";
+            return hardPuzzleSolution;
+        });
+        AdaptiveSudokuEngine engine = new AdaptiveSudokuEngine(engines);
+        PuzzleFeatures features = PuzzleFeatures.of(hardPuzzle);
+        for (int sample = 0; sample < AdaptiveSudokuEngine.MIN_SAMPLES; sample += 1) {
+            engine.record(features, "slow", 5_000_000);
+            engine.record(features, "fast", 100_000);
+        }
+        assertEquals(100_000, engine.getAverageNanos(features, "fast"), 1e-6);
+        int fast = 0;
+        for (int run = 0; run < AdaptiveSudokuEngine.EXPLORATION_PERIOD; run += 1) {
+            String next = engine.peek(features);
+            assertEquals(next, engine.peek(features));
+            engine.solve(hardPuzzle);
+            assertEquals(next, lastRun[0]);
+            if (next.equals("fast")) fast += 1;
+        }
+        assertEquals(AdaptiveSudokuEngine.EXPLORATION_PERIOD - 1, fast);
+    }
+
+    @Test
+    public void testEveryDefaultEngineGivesTheSameOutcome() {
+        int[][] sparsePuzzle = PuzzleText.parse(
+                "12.......34.......5..............................................................");
+        AdaptiveSudokuEngine engine = new AdaptiveSudokuEngine();
+        for (int run = 0; run < 3 * AdaptiveSudokuEngine.MIN_SAMPLES; run += 1) {
+            try {
+                engine.solve(sparsePuzzle);
+                fail("Expected the sparse puzzle to be rejected.");
+            } catch (IllegalArgumentException e) {
+                assertEquals(SolveOutcome.MULTIPLE_SOLUTIONS, SolveOutcome.of(e));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsolvablePuzzleIsRejected() {
+        int[][] unsolvable = new int[9][];
+        for (int rowIndex = 0; rowIndex < 9; rowIndex += 1) {
+            unsolvable[rowIndex] = hardPuzzle[rowIndex].clone();
+        }
+        unsolvable[0][0] = 9;
+        new AdaptiveSudokuEngine().solve(unsolvable);
+    }
+}
@@ -0,0 +1,89 @@
+package main;
+
+/**
+ * Precomputed sudoku geometry shared by the bitmask based engines. Cells are numbered from 0 to 80 row by row, units
+ * from 0 to 26: rows first (0 to 8), then columns (9 to 17), then quadrants (18 to 26). Candidate masks use bit
+ * {@code digit - 1} for every digit.
+ */
+final class BoardGeometry {
+
+    static final int SIZE = 9;
+
+    static final int CELLS = 81;
+
+    static final int UNITS = 27;
+
+    static final int ALL_DIGITS = 0x1FF;
+
+    static final int[] ROW_OF = new int[CELLS];
+
+    static final int[] COLUMN_OF = new int[CELLS];
+
+    static final int[] QUADRANT_OF = new int[CELLS];
+
+    /**
+     * The 9 cells of every unit.
+     */
+    static final int[][] UNIT_CELLS = new int[UNITS][SIZE];
+
+    /**
+     * The 3 units (row, column and quadrant) of every cell.
+     */
+    static final int[][] CELL_UNITS = new int[CELLS][3];
+
+    /**
+     * The 20 cells that share a unit with every cell.
+     */
+    static final int[][] PEERS = new int[CELLS][20];
+
+    static {
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            ROW_OF[cell] = cell / SIZE;
+            COLUMN_OF[cell] = cell % SIZE;
+            QUADRANT_OF[cell] = ROW_OF[cell] / 3 * 3 + COLUMN_OF[cell] / 3;
+            CELL_UNITS[cell][0] = ROW_OF[cell];
+            CELL_UNITS[cell][1] = SIZE + COLUMN_OF[cell];
+            CELL_UNITS[cell][2] = 2 * SIZE + QUADRANT_OF[cell];
+        }
+        for (int index = 0; index < SIZE; index += 1) {
+            for (int position = 0; position < SIZE; position += 1) {
+                UNIT_CELLS[index][position] = index * SIZE + position;
+                UNIT_CELLS[SIZE + index][position] = position * SIZE + index;
+                UNIT_CELLS[2 * SIZE + index][position] =
+                        (index / 3 * 3 + position / 3) * SIZE + index % 3 * 3 + position % 3;
+            }
+        }
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            int count = 0;
+            for (int other = 0; other < CELLS; other += 1) {
+                if (other != cell && (ROW_OF[other] == ROW_OF[cell] || COLUMN_OF[other] == COLUMN_OF[cell]
+                        || QUADRANT_OF[other] == QUADRANT_OF[cell])) {
+                    PEERS[cell][count++] = other;
+                }
+            }
+        }
+    }
+
+    private BoardGeometry() {
+    }
+
+    /**
+     * @param grid a validated 9x9 grid
+     * @return the grid's values, cell by cell
+     */
+    static int[] toCells(int[][] grid) {
+        int[] cells = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            cells[cell] = grid[cell / SIZE][cell % SIZE];
+        }
+        return cells;
+    }
+
+    static int[][] toGrid(int[] cells) {
+        int[][] grid = new int[SIZE][SIZE];
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            grid[cell / SIZE][cell % SIZE] = cells[cell];
+        }
+        return grid;
+    }
+}
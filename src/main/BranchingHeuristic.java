@@ -0,0 +1,102 @@
+package main;
+
+import java.util.Locale;
+
+/**
+ * How a search engine branches once propagation is stuck: which empty cell it guesses, and in which order it tries
+ * the cell's digits.
+ * <p>
+ * Every cell selection picks a cell with the minimum remaining values (the fewest candidates), they only differ in
+ * how ties are broken: by scan order, by degree (the most empty peers, so the guess constrains the most cells) or by
+ * bivalue peers (the most peers left with two candidates, which the guess is the most likely to turn into singles).
+ * The digits are tried in ascending order, least constraining first (the digit the fewest empty peers still have as
+ * a candidate, so the guess removes the fewest candidates) or by frequency (the digit whose guesses backtracked the
+ * least often, from the per digit backtrack counters of the engine's {@link SolverMetrics}, across solves).
+ * </p>
+ * <p>
+ * A heuristic is written {@code cellSelection/digitOrder} in lower case with dashes, e.g.
+ * {@code degree/least-constraining}, so it can be passed around as a string and used as part of an engine name in
+ * {@link SolverMetrics}. {@link #DEFAULT} is the order the engines always used.
+ * </p>
+ */
+public final class BranchingHeuristic {
+
+    public enum CellSelection {
+        MINIMUM_REMAINING_VALUES,
+        DEGREE,
+        BIVALUE
+    }
+
+    public enum DigitOrder {
+        ASCENDING,
+        LEAST_CONSTRAINING,
+        FREQUENCY
+    }
+
+    public static final BranchingHeuristic DEFAULT =
+            new BranchingHeuristic(CellSelection.MINIMUM_REMAINING_VALUES, DigitOrder.ASCENDING);
+
+    private final CellSelection cellSelection;
+
+    private final DigitOrder digitOrder;
+
+    /**
+     * @throws IllegalArgumentException when either part is {@code null}
+     */
+    public BranchingHeuristic(CellSelection cellSelection, DigitOrder digitOrder) throws IllegalArgumentException {
+        if (cellSelection == null || digitOrder == null) {
+            throw new IllegalArgumentException("A cell selection and a digit order are required.");
+        }
+        this.cellSelection = cellSelection;
+        this.digitOrder = digitOrder;
+    }
+
+    /**
+     * @param text a heuristic written {@code cellSelection/digitOrder}, e.g. {@code bivalue/frequency}
+     * @return the heuristic
+     * @throws IllegalArgumentException when the text isn't a heuristic
+     */
+    public static BranchingHeuristic parse(String text) throws IllegalArgumentException {
+        String[] parts = text == null ? new String[0] : text.trim().split("/", -1);
+        if (parts.length != 2) throw new IllegalArgumentException("Invalid branching heuristic '" + text + "'.");
+        try {
+            return new BranchingHeuristic(CellSelection.valueOf(constantName(parts[0])),
+                    DigitOrder.valueOf(constantName(parts[1])));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid branching heuristic '" + text + "'.", e);
+        }
+    }
+
+    private static String constantName(String name) {
+        return name.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+    }
+
+    private static String displayName(Enum<?> constant) {
+        return constant.name().replace('_', '-').toLowerCase(Locale.ROOT);
+    }
+
+    public CellSelection getCellSelection() {
+        return cellSelection;
+    }
+
+    public DigitOrder getDigitOrder() {
+        return digitOrder;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof BranchingHeuristic)) return false;
+        BranchingHeuristic heuristic = (BranchingHeuristic) other;
+        return cellSelection == heuristic.cellSelection && digitOrder == heuristic.digitOrder;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * cellSelection.hashCode() + digitOrder.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return displayName(cellSelection) + "/" + displayName(digitOrder);
+    }
+}
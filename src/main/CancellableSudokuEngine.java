@@ -0,0 +1,68 @@
+package main;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A {@link SudokuEngine} that can be told to give up, so several of them can race on the same puzzle in a
+ * {@link PortfolioSudokuEngine}.
+ */
+@FunctionalInterface
+public interface CancellableSudokuEngine {
+
+    /**
+     * The propagation and depth-first search engine ({@link SudokuSolverBacktracking}), with nogood learning.
+     */
+    CancellableSudokuEngine BACKTRACKING = (grid, token) -> {
+        SudokuSolverBacktracking solver = new SudokuSolverBacktracking(grid);
+        solver.setCancellationToken(token);
+        return solver.solve();
+    };
+
+    /**
+     * The SAT engine ({@link SudokuSolverSat}), with its embedded CDCL solver.
+     */
+    CancellableSudokuEngine SAT = (grid, token) -> {
+        SudokuSolverSat solver = new SudokuSolverSat(grid);
+        solver.setCancellationToken(token);
+        return solver.solve();
+    };
+
+    /**
+     * The propagation and depth-first search engine with a random branching order and restarts, seeded differently
+     * for every puzzle. It is unlucky on different puzzles than the deterministic search.
+     */
+    CancellableSudokuEngine RANDOMIZED_RESTARTS = (grid, token) -> {
+        SudokuSolverBacktracking solver = new SudokuSolverBacktracking(grid);
+        solver.setCancellationToken(token);
+        solver.setRandomRestarts(ThreadLocalRandom.current().nextLong());
+        return solver.solve();
+    };
+
+    /**
+     * @param branching how the search picks its guesses
+     * @param metrics the metrics the searches report to and the frequency digit order learns from across solves, or
+     * {@code null} to report nothing
+     * @return the propagation and depth-first search engine ({@link SudokuSolverBacktracking}), with nogood learning
+     * and the given branching heuristic, so engines branching differently can race in a portfolio
+     * @throws IllegalArgumentException when the heuristic is {@code null}
+     */
+    static CancellableSudokuEngine backtracking(BranchingHeuristic branching, SolverMetrics metrics)
+            throws IllegalArgumentException {
+        if (branching == null) throw new IllegalArgumentException("A branching heuristic is required.");
+        return (grid, token) -> {
+            SudokuSolverBacktracking solver = new SudokuSolverBacktracking(grid, true, null, metrics);
+            solver.setCancellationToken(token);
+            solver.setBranchingHeuristic(branching);
+            return solver.solve();
+        };
+    }
+
+    /**
+     * @param grid the puzzle grid
+     * @param token the token that tells the engine to give up
+     * @return the solved grid
+     * @throws IllegalArgumentException when the puzzle is invalid, unsolvable or has multiple solutions
+     * @throws SolveCancelledException when the token was cancelled before the engine was done
+     */
+    int[][] solve(int[][] grid, CancellationToken token) throws IllegalArgumentException, SolveCancelledException;
+}
@@ -0,0 +1,29 @@
+package main;
+
+/**
+ * A flag shared by the engines racing on the same puzzle: once it is cancelled, every engine watching it gives up
+ * at its next check and throws a {@link SolveCancelledException}.
+ * <p>
+ * The engines check it once per conflict ({@link SudokuSolverSat}) or every few search nodes
+ * ({@link SudokuSolverBacktracking}), so a cancelled engine stops within microseconds.
+ * </p>
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @throws SolveCancelledException when the token was cancelled
+     */
+    public void throwIfCancelled() throws SolveCancelledException {
+        if (cancelled) throw new SolveCancelledException();
+    }
+}
@@ -0,0 +1,32 @@
+package main;
+
+/**
+ * The unit scans the mask based solvers spend their time in: recomputing the candidates of every cell from the
+ * placed digits, and counting in how many cells of a unit every digit can go.
+ * <p>
+ * Digit counts are packed in a {@code long}, 4 bits per digit (digit {@code d} at bits {@code 4 * (d - 1)}), which
+ * is enough since a unit has 9 cells. {@link CandidateKernels} has a scalar implementation and a SWAR (SIMD within a
+ * register) one, and picks the one to use at startup.
+ * </p>
+ */
+interface CandidateKernel {
+
+    /**
+     * Sets the candidates of every empty cell to the digits none of its peers holds, and of every filled cell to 0.
+     * @param values the digit of every cell, 0 for empty cells
+     * @param candidates the candidate masks to fill
+     */
+    void recomputeCandidates(int[] values, int[] candidates);
+
+    /**
+     * @return for every digit, the number of cells of the unit that have it as a candidate, packed 4 bits per digit
+     */
+    long countDigits(int[] candidates, int unit);
+
+    /**
+     * @param counts digit counts, as returned by {@link #countDigits(int[], int)}
+     * @param count a count, from 0 to 9
+     * @return the mask of the digits counted exactly {@code count} times
+     */
+    int digitsWithCount(long counts, int count);
+}
@@ -0,0 +1,67 @@
+package main;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A benchmark of the {@link CandidateKernel} implementations: {@code CandidateKernelBenchmark [iterations]}.
+ * <p>
+ * Every kernel recomputes the candidates of the {@link SolverBenchmark} puzzles, counts the digits of the 27 units and
+ * looks for missing digits and hidden singles in them, {@code iterations} times after the same number of warm-up
+ * runs. Like {@link SolverBenchmark} the numbers are rough, but enough to check the SWAR kernel pays off on this
+ * machine; {@code -Dsudoku.kernel=scalar} switches the solvers back to the scalar kernel if it doesn't.
+ * </p>
+ */
+public class CandidateKernelBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 200_000;
+
+    private static long checksum;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+        Map<String, CandidateKernel> kernels = new LinkedHashMap<>();
+        kernels.put("scalar", CandidateKernels.SCALAR);
+        kernels.put("swar", CandidateKernels.SWAR);
+        String[] puzzles = {
+                SudokuLoadGenerator.DEFAULT_PUZZLE,
+                "006100008080090030200005400400001800030070040007900003008400006020050080100002500",
+                "400000805030000000000700000020000060000080400000010000000603070500200000104000000"
+        };
+        int[][] values = new int[puzzles.length][];
+        for (int index = 0; index < puzzles.length; index += 1) {
+            values[index] = BoardGeometry.toCells(PuzzleText.parse(puzzles[index]));
+        }
+        System.out.printf("%-8s %14s%n", "kernel", "ns/board");
+        for (Map.Entry<String, CandidateKernel> kernel : kernels.entrySet()) {
+            double nanos = measure(kernel.getValue(), values, iterations);
+            System.out.printf("%-8s %14.1f%n", kernel.getKey(), nanos);
+        }
+        if (checksum == 42) System.out.println();
+    }
+
+    /**
+     * @return the mean time to recompute and scan a board, in nanoseconds
+     */
+    static double measure(CandidateKernel kernel, int[][] boards, int iterations) {
+        int[] candidates = new int[BoardGeometry.CELLS];
+        for (int iteration = 0; iteration < iterations; iteration += 1) {
+            checksum += scan(kernel, boards[iteration % boards.length], candidates);
+        }
+        long start = System.nanoTime();
+        for (int iteration = 0; iteration < iterations; iteration += 1) {
+            checksum += scan(kernel, boards[iteration % boards.length], candidates);
+        }
+        return (System.nanoTime() - start) / (double) iterations;
+    }
+
+    private static int scan(CandidateKernel kernel, int[] values, int[] candidates) {
+        kernel.recomputeCandidates(values, candidates);
+        int found = 0;
+        for (int unit = 0; unit < BoardGeometry.UNITS; unit += 1) {
+            long counts = kernel.countDigits(candidates, unit);
+            found += kernel.digitsWithCount(counts, 0) + kernel.digitsWithCount(counts, 1);
+        }
+        return found;
+    }
+}
@@ -0,0 +1,142 @@
+package main;
+
+import static main.BoardGeometry.ALL_DIGITS;
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.COLUMN_OF;
+import static main.BoardGeometry.PEERS;
+import static main.BoardGeometry.QUADRANT_OF;
+import static main.BoardGeometry.ROW_OF;
+import static main.BoardGeometry.SIZE;
+import static main.BoardGeometry.UNIT_CELLS;
+
+/**
+ * The {@link CandidateKernel} implementations.
+ * <p>
+ * The project targets JDK 11, where the Vector API ({@code jdk.incubator.vector}) doesn't exist, so the data parallel
+ * kernel is written with plain {@code long} arithmetic instead (SWAR): a unit's 9 digit counters are 9 lanes of 4
+ * bits in one register, every cell adds its spread candidate mask to all of them in a single addition, and the lanes
+ * holding a given count are found with a few masks and an add, without looking at the lanes one by one. The scalar
+ * kernel does the same work one cell and one digit at a time, the way the stream based helpers of
+ * {@link SudokuSolverProcedural} do.
+ * </p>
+ * <p>
+ * {@link #ACTIVE} is chosen once, from the {@value #KERNEL_PROPERTY} system property: {@code scalar} or {@code swar}
+ * (the default). Any other value falls back to the scalar kernel.
+ * </p>
+ */
+final class CandidateKernels {
+
+    static final String KERNEL_PROPERTY = "sudoku.kernel";
+
+    static final CandidateKernel SCALAR = new ScalarKernel();
+
+    static final CandidateKernel SWAR = new SwarKernel();
+
+    static final CandidateKernel ACTIVE = select(System.getProperty(KERNEL_PROPERTY, "swar"));
+
+    private CandidateKernels() {
+    }
+
+    static CandidateKernel select(String name) {
+        return "swar".equalsIgnoreCase(name) ? SWAR : SCALAR;
+    }
+
+    private static final class ScalarKernel implements CandidateKernel {
+
+        @Override
+        public void recomputeCandidates(int[] values, int[] candidates) {
+            for (int cell = 0; cell < CELLS; cell += 1) {
+                if (values[cell] != 0) {
+                    candidates[cell] = 0;
+                    continue;
+                }
+                int mask = ALL_DIGITS;
+                for (int peer : PEERS[cell]) {
+                    if (values[peer] != 0) mask &= ~(1 << (values[peer] - 1));
+                }
+                candidates[cell] = mask;
+            }
+        }
+
+        @Override
+        public long countDigits(int[] candidates, int unit) {
+            long counts = 0L;
+            for (int digit = 0; digit < SIZE; digit += 1) {
+                long count = 0;
+                for (int cell : UNIT_CELLS[unit]) {
+                    if ((candidates[cell] & 1 << digit) != 0) count += 1;
+                }
+                counts |= count << 4 * digit;
+            }
+            return counts;
+        }
+
+        @Override
+        public int digitsWithCount(long counts, int count) {
+            int digits = 0;
+            for (int digit = 0; digit < SIZE; digit += 1) {
+                if ((counts >>> 4 * digit & 0xF) == count) digits |= 1 << digit;
+            }
+            return digits;
+        }
+    }
+
+    private static final class SwarKernel implements CandidateKernel {
+
+        private static final long LANE_ONES = 0x111111111L;
+
+        private static final long LANE_LOW_BITS = 0x777777777L;
+
+        private static final long LANE_HIGH_BITS = 0x888888888L;
+
+        /**
+         * Every candidate mask spread over the 4 bits lanes: bit {@code d} of the mask becomes 1 in lane {@code d}.
+         */
+        private static final long[] SPREAD = new long[ALL_DIGITS + 1];
+
+        static {
+            for (int mask = 0; mask <= ALL_DIGITS; mask += 1) {
+                for (int digit = 0; digit < SIZE; digit += 1) {
+                    if ((mask & 1 << digit) != 0) SPREAD[mask] |= 1L << 4 * digit;
+                }
+            }
+        }
+
+        @Override
+        public void recomputeCandidates(int[] values, int[] candidates) {
+            int[] placed = new int[3 * SIZE];
+            for (int cell = 0; cell < CELLS; cell += 1) {
+                int bit = values[cell] == 0 ? 0 : 1 << (values[cell] - 1);
+                placed[ROW_OF[cell]] |= bit;
+                placed[SIZE + COLUMN_OF[cell]] |= bit;
+                placed[2 * SIZE + QUADRANT_OF[cell]] |= bit;
+            }
+            for (int cell = 0; cell < CELLS; cell += 1) {
+                int free = ALL_DIGITS & ~(placed[ROW_OF[cell]] | placed[SIZE + COLUMN_OF[cell]]
+                        | placed[2 * SIZE + QUADRANT_OF[cell]]);
+                // all ones when the cell is empty, all zeros when it's filled
+                candidates[cell] = free & ((values[cell] | -values[cell]) >> 31 ^ -1);
+            }
+        }
+
+        @Override
+        public long countDigits(int[] candidates, int unit) {
+            int[] cells = UNIT_CELLS[unit];
+            return SPREAD[candidates[cells[0]]] + SPREAD[candidates[cells[1]]] + SPREAD[candidates[cells[2]]]
+                    + SPREAD[candidates[cells[3]]] + SPREAD[candidates[cells[4]]] + SPREAD[candidates[cells[5]]]
+                    + SPREAD[candidates[cells[6]]] + SPREAD[candidates[cells[7]]] + SPREAD[candidates[cells[8]]];
+        }
+
+        @Override
+        public int digitsWithCount(long counts, int count) {
+            // lanes equal to count become 0, then every non zero lane gets its high bit set
+            long difference = counts ^ LANE_ONES * count;
+            long nonZero = ((difference & LANE_LOW_BITS) + LANE_LOW_BITS | difference) & LANE_HIGH_BITS;
+            int digits = 0;
+            for (long equal = ~nonZero & LANE_HIGH_BITS; equal != 0; equal &= equal - 1) {
+                digits |= 1 << (Long.numberOfTrailingZeros(equal) >>> 2);
+            }
+            return digits;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CandidateKernelsTest {
+
+    @Test
+    public void testKernelsAgreeOnRandomCandidates() {
+        Random random = new Random(7);
+        int[] candidates = new int[BoardGeometry.CELLS];
+        for (int round = 0; round < 200; round += 1) {
+            for (int cell = 0; cell < BoardGeometry.CELLS; cell += 1) {
+                candidates[cell] = random.nextInt(BoardGeometry.ALL_DIGITS + 1);
+            }
+            for (int unit = 0; unit < BoardGeometry.UNITS; unit += 1) {
+                long counts = CandidateKernels.SCALAR.countDigits(candidates, unit);
+                assertEquals(counts, CandidateKernels.SWAR.countDigits(candidates, unit));
+                for (int count = 0; count <= BoardGeometry.SIZE; count += 1) {
+                    assertEquals(CandidateKernels.SCALAR.digitsWithCount(counts, count),
+                            CandidateKernels.SWAR.digitsWithCount(counts, count));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRecomputedCandidates() {
+        int[] values = BoardGeometry.toCells(PuzzleText.parse(SudokuLoadGenerator.DEFAULT_PUZZLE));
+        int[] scalar = new int[BoardGeometry.CELLS];
+        int[] swar = new int[BoardGeometry.CELLS];
+        CandidateKernels.SCALAR.recomputeCandidates(values, scalar);
+        CandidateKernels.SWAR.recomputeCandidates(values, swar);
+        assertArrayEquals(scalar, swar);
+        for (int cell = 0; cell < BoardGeometry.CELLS; cell += 1) {
+            if (values[cell] != 0) assertEquals(0, swar[cell]);
+        }
+        long firstRow = CandidateKernels.SWAR.countDigits(new int[] {0b11, 0b10, 0, 0, 0, 0, 0, 0, 0b10}, 0);
+        assertEquals(0b1, CandidateKernels.SWAR.digitsWithCount(firstRow, 1));
+        assertEquals(0b10, CandidateKernels.SWAR.digitsWithCount(firstRow, 3));
+        assertEquals(CandidateKernels.SCALAR, CandidateKernels.select("scalar"));
+        assertEquals(CandidateKernels.SWAR, CandidateKernels.select("SWAR"));
+    }
+}
@@ -0,0 +1,385 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A small, dependency free CDCL (conflict driven clause learning) SAT solver, used by {@link SudokuSolverSat}.
+ * <p>
+ * Variables are numbered from 1, literals are encoded as {@code variable << 1 | sign} where sign 1 means negated.
+ * It implements the usual pieces: two watched literals per clause for unit propagation, first UIP conflict analysis
+ * with clause learning and non-chronological backjumping, VSIDS-like variable activities, phase saving and Luby
+ * restarts. Clauses can be added between calls to {@link #solve()}, which is how callers block a found model.
+ * </p>
+ * <p>
+ * A {@link CancellationToken} can be attached; it is checked after every conflict.
+ * </p>
+ */
+final class CdclSolver {
+
+    private static final int RESTART_UNIT = 64;
+
+    private static final double ACTIVITY_DECAY = 0.95;
+
+    private final int variables;
+
+    private final List<int[]> clauses = new ArrayList<>();
+
+    private final IntList[] watches;
+
+    private final byte[] values;
+
+    private final int[] levels;
+
+    private final int[] reasons;
+
+    private final boolean[] savedPhases;
+
+    private final double[] activities;
+
+    private double activityIncrement = 1.0;
+
+    private final int[] trail;
+
+    private int trailSize;
+
+    private int propagationHead;
+
+    private final IntList levelStarts = new IntList();
+
+    private final boolean[] seen;
+
+    private boolean inconsistent;
+
+    private long conflicts;
+
+    private long decisions;
+
+    private long propagations;
+
+    private CancellationToken cancellationToken;
+
+    CdclSolver(int variables) {
+        this.variables = variables;
+        this.watches = new IntList[2 * variables + 2];
+        for (int literal = 0; literal < watches.length; literal += 1) {
+            watches[literal] = new IntList();
+        }
+        this.values = new byte[variables + 1];
+        this.levels = new int[variables + 1];
+        this.reasons = new int[variables + 1];
+        this.savedPhases = new boolean[variables + 1];
+        this.activities = new double[variables + 1];
+        this.trail = new int[variables + 1];
+        this.seen = new boolean[variables + 1];
+    }
+
+    static int literal(int variable, boolean positive) {
+        return variable << 1 | (positive ? 0 : 1);
+    }
+
+    private static int variableOf(int literal) {
+        return literal >>> 1;
+    }
+
+    /**
+     * @return 1 when the literal is true, -1 when it is false and 0 when its variable isn't assigned
+     */
+    private int valueOf(int literal) {
+        int value = values[literal >>> 1];
+        return (literal & 1) == 0 ? value : -value;
+    }
+
+    /**
+     * @param variable a variable number
+     * @return the variable's value in the last model found
+     */
+    boolean isTrue(int variable) {
+        return values[variable] > 0;
+    }
+
+    long getConflicts() {
+        return conflicts;
+    }
+
+    long getDecisions() {
+        return decisions;
+    }
+
+    void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    long getPropagations() {
+        return propagations;
+    }
+
+    /**
+     * Adds a clause. It can be called before the first {@link #solve()} or between calls.
+     * @param literals the clause literals, which are copied
+     */
+    void addClause(int... literals) {
+        if (inconsistent) return;
+        backtrackTo(0);
+        int[] clause = new int[literals.length];
+        int size = 0;
+        for (int literal : literals) {
+            int value = valueOf(literal);
+            if (value > 0) return;
+            if (value == 0) clause[size++] = literal;
+        }
+        if (size == 0) {
+            inconsistent = true;
+        } else if (size == 1) {
+            enqueue(clause[0], -1);
+            if (propagate() >= 0) inconsistent = true;
+        } else {
+            attach(Arrays.copyOf(clause, size));
+        }
+    }
+
+    private int attach(int[] clause) {
+        int index = clauses.size();
+        clauses.add(clause);
+        watches[clause[0]].add(index);
+        watches[clause[1]].add(index);
+        return index;
+    }
+
+    private void enqueue(int literal, int reason) {
+        int variable = variableOf(literal);
+        values[variable] = (byte) ((literal & 1) == 0 ? 1 : -1);
+        levels[variable] = levelStarts.size();
+        reasons[variable] = reason;
+        trail[trailSize++] = literal;
+    }
+
+    /**
+     * Propagates every assignment in the trail that wasn't propagated yet.
+     * @return the index of a conflicting clause, or -1 when there is no conflict
+     */
+    private int propagate() {
+        while (propagationHead < trailSize) {
+            int falseLiteral = trail[propagationHead++] ^ 1;
+            propagations += 1;
+            IntList watchList = watches[falseLiteral];
+            int kept = 0;
+            int size = watchList.size;
+            for (int position = 0; position < size; position += 1) {
+                int clauseIndex = watchList.items[position];
+                int[] clause = clauses.get(clauseIndex);
+                if (clause[0] == falseLiteral) {
+                    clause[0] = clause[1];
+                    clause[1] = falseLiteral;
+                }
+                if (valueOf(clause[0]) > 0) {
+                    watchList.items[kept++] = clauseIndex;
+                    continue;
+                }
+                boolean moved = false;
+                for (int candidate = 2; candidate < clause.length; candidate += 1) {
+                    if (valueOf(clause[candidate]) >= 0) {
+                        clause[1] = clause[candidate];
+                        clause[candidate] = falseLiteral;
+                        watches[clause[1]].add(clauseIndex);
+                        moved = true;
+                        break;
+                    }
+                }
+                if (moved) continue;
+                watchList.items[kept++] = clauseIndex;
+                if (valueOf(clause[0]) < 0) {
+                    while (++position < size) {
+                        watchList.items[kept++] = watchList.items[position];
+                    }
+                    watchList.size = kept;
+                    propagationHead = trailSize;
+                    return clauseIndex;
+                }
+                enqueue(clause[0], clauseIndex);
+            }
+            watchList.size = kept;
+        }
+        return -1;
+    }
+
+    /**
+     * First UIP conflict analysis. The learnt clause's asserting literal is stored first and a literal of the
+     * backjump level second, so the clause can be watched right away.
+     */
+    private int[] analyze(int conflictIndex) {
+        IntList learnt = new IntList();
+        learnt.add(0);
+        int pathCount = 0;
+        int currentLevel = levelStarts.size();
+        int trailIndex = trailSize - 1;
+        int literal = -1;
+        int[] clause = clauses.get(conflictIndex);
+        while (true) {
+            for (int position = literal < 0 ? 0 : 1; position < clause.length; position += 1) {
+                int variable = variableOf(clause[position]);
+                if (seen[variable] || levels[variable] == 0) continue;
+                seen[variable] = true;
+                bumpActivity(variable);
+                if (levels[variable] == currentLevel) {
+                    pathCount += 1;
+                } else {
+                    learnt.add(clause[position]);
+                }
+            }
+            while (!seen[variableOf(trail[trailIndex])]) trailIndex -= 1;
+            literal = trail[trailIndex];
+            trailIndex -= 1;
+            seen[variableOf(literal)] = false;
+            pathCount -= 1;
+            if (pathCount == 0) break;
+            clause = clauses.get(reasons[variableOf(literal)]);
+        }
+        learnt.items[0] = literal ^ 1;
+        int backjumpPosition = 1;
+        for (int position = 1; position < learnt.size; position += 1) {
+            seen[variableOf(learnt.items[position])] = false;
+            if (levels[variableOf(learnt.items[position])] > levels[variableOf(learnt.items[backjumpPosition])]) {
+                backjumpPosition = position;
+            }
+        }
+        if (learnt.size > 1) {
+            int swap = learnt.items[1];
+            learnt.items[1] = learnt.items[backjumpPosition];
+            learnt.items[backjumpPosition] = swap;
+        }
+        activityIncrement /= ACTIVITY_DECAY;
+        return Arrays.copyOf(learnt.items, learnt.size);
+    }
+
+    private void bumpActivity(int variable) {
+        activities[variable] += activityIncrement;
+        if (activities[variable] > 1e100) {
+            for (int index = 1; index <= variables; index += 1) {
+                activities[index] *= 1e-100;
+            }
+            activityIncrement *= 1e-100;
+        }
+    }
+
+    private void backtrackTo(int level) {
+        if (levelStarts.size() <= level) return;
+        int start = levelStarts.items[level];
+        for (int index = trailSize - 1; index >= start; index -= 1) {
+            int variable = variableOf(trail[index]);
+            savedPhases[variable] = values[variable] > 0;
+            values[variable] = 0;
+            reasons[variable] = -1;
+        }
+        trailSize = start;
+        propagationHead = start;
+        levelStarts.size = level;
+    }
+
+    private int pickBranchVariable() {
+        int best = 0;
+        double bestActivity = -1;
+        for (int variable = 1; variable <= variables; variable += 1) {
+            if (values[variable] == 0 && activities[variable] > bestActivity) {
+                best = variable;
+                bestActivity = activities[variable];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Searches for a model of the clauses added so far.
+     * @return {@code true} if the clauses are satisfiable, the model is then available through {@link #isTrue(int)}
+     * @throws SolveCancelledException when the cancellation token was cancelled during the search
+     */
+    boolean solve() {
+        if (inconsistent) return false;
+        backtrackTo(0);
+        if (propagate() >= 0) {
+            inconsistent = true;
+            return false;
+        }
+        int restart = 0;
+        while (true) {
+            int result = search(RESTART_UNIT * luby(restart++));
+            if (result != 0) return result > 0;
+        }
+    }
+
+    /**
+     * @return 1 when a model was found, -1 when the clauses are unsatisfiable and 0 when the conflict budget ran out
+     */
+    private int search(long conflictBudget) {
+        long conflictsAtStart = conflicts;
+        while (true) {
+            int conflictIndex = propagate();
+            if (conflictIndex >= 0) {
+                conflicts += 1;
+                if (cancellationToken != null && cancellationToken.isCancelled()) {
+                    backtrackTo(0);
+                    throw new SolveCancelledException();
+                }
+                if (levelStarts.size() == 0) {
+                    inconsistent = true;
+                    return -1;
+                }
+                int[] learnt = analyze(conflictIndex);
+                backtrackTo(learnt.length == 1 ? 0 : levels[variableOf(learnt[1])]);
+                if (learnt.length == 1) {
+                    enqueue(learnt[0], -1);
+                } else {
+                    enqueue(learnt[0], attach(learnt));
+                }
+            } else {
+                if (conflicts - conflictsAtStart >= conflictBudget) {
+                    backtrackTo(0);
+                    return 0;
+                }
+                int variable = pickBranchVariable();
+                if (variable == 0) return 1;
+                decisions += 1;
+                levelStarts.add(trailSize);
+                enqueue(literal(variable, savedPhases[variable]), -1);
+            }
+        }
+    }
+
+    /**
+     * The Luby restart sequence, starting at index 0: 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ...
+     */
+    static long luby(int index) {
+        int size = 1;
+        int sequence = 0;
+        while (size < index + 1) {
+            sequence += 1;
+            size = 2 * size + 1;
+        }
+        while (size - 1 != index) {
+            size = (size - 1) >> 1;
+            sequence -= 1;
+            index %= size;
+        }
+        return 1L << sequence;
+    }
+
+    /**
+     * A growable list of primitive ints, so watch lists don't box.
+     */
+    static final class IntList {
+
+        int[] items = new int[4];
+
+        int size;
+
+        void add(int value) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
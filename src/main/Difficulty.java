@@ -0,0 +1,48 @@
+package main;
+
+/**
+ * The difficulty of a puzzle, by the cheapest tier of {@link SudokuSolverProcedural} methods that solves it without
+ * guessing. A puzzle solved by any of the logical tiers has a unique solution, since every deduction is forced.
+ */
+public enum Difficulty {
+    /**
+     * Naked singles only.
+     */
+    EASY,
+    /**
+     * Naked and hidden singles.
+     */
+    MEDIUM,
+    /**
+     * Singles, naked and hidden pairs and digit templates.
+     */
+    HARD,
+    /**
+     * Puzzles the logical methods get stuck on, which need a search.
+     */
+    VERY_HARD;
+
+    /**
+     * @param grid a puzzle grid, which isn't modified
+     * @return the difficulty of the puzzle
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle, or the logical methods find it unsolvable
+     */
+    public static Difficulty of(int[][] grid) throws IllegalArgumentException {
+        return of(grid, VERY_HARD);
+    }
+
+    /**
+     * Rates a puzzle without trying the methods harder than a ceiling.
+     * @param grid a puzzle grid, which isn't modified
+     * @param ceiling the hardest difficulty worth telling apart
+     * @return the difficulty of the puzzle, or the difficulty right above the ceiling when the puzzle is harder
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle, or the logical methods find it unsolvable
+     */
+    static Difficulty of(int[][] grid, Difficulty ceiling) throws IllegalArgumentException {
+        int[][] copy = new int[grid.length][];
+        for (int rowIndex = 0; rowIndex < grid.length; rowIndex += 1) {
+            copy[rowIndex] = grid[rowIndex] == null ? null : grid[rowIndex].clone();
+        }
+        return new SudokuSolverProcedural(copy).rateDifficulty(ceiling);
+    }
+}
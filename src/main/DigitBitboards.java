@@ -0,0 +1,136 @@
+package main;
+
+import static main.BoardGeometry.ALL_DIGITS;
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.SIZE;
+import static main.BoardGeometry.UNITS;
+import static main.BoardGeometry.UNIT_CELLS;
+
+/**
+ * The transposed view of the candidate masks: for every digit, an 81 bits bitboard of the cells that can still hold
+ * it (placed cells keep their own digit). A bitboard is two longs, cells 0 to 63 in the low one and cells 64 to 80 in
+ * the high one.
+ * <p>
+ * With the bitboards of the units, "where can this digit go in this unit" is an AND and a popcount per long, which is
+ * what hidden singles, locked candidates, fish and templates are made of. The owner keeps the bitboards in sync by
+ * calling {@link #remove(int, int)} and {@link #add(int, int)} with every candidate mask change.
+ * </p>
+ */
+final class DigitBitboards {
+
+    static final long LOW_CELLS = -1L;
+
+    static final long HIGH_CELLS = (1L << (CELLS - Long.SIZE)) - 1;
+
+    static final long[] UNIT_LOW = new long[UNITS];
+
+    static final long[] UNIT_HIGH = new long[UNITS];
+
+    static {
+        for (int unit = 0; unit < UNITS; unit += 1) {
+            for (int cell : UNIT_CELLS[unit]) {
+                if (cell < Long.SIZE) {
+                    UNIT_LOW[unit] |= 1L << cell;
+                } else {
+                    UNIT_HIGH[unit] |= 1L << (cell - Long.SIZE);
+                }
+            }
+        }
+    }
+
+    /**
+     * The cells of every digit (index {@code digit - 1}), cells 0 to 63.
+     */
+    final long[] low = new long[SIZE];
+
+    /**
+     * The cells of every digit (index {@code digit - 1}), cells 64 to 80.
+     */
+    final long[] high = new long[SIZE];
+
+    /**
+     * @param candidates the candidate mask of every cell
+     * @return the bitboards of those candidates
+     */
+    static DigitBitboards of(int[] candidates) {
+        DigitBitboards bitboards = new DigitBitboards();
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            bitboards.add(cell, candidates[cell]);
+        }
+        return bitboards;
+    }
+
+    /**
+     * Makes every digit a candidate of every cell.
+     */
+    void fill() {
+        for (int digit = 0; digit < SIZE; digit += 1) {
+            low[digit] = LOW_CELLS;
+            high[digit] = HIGH_CELLS;
+        }
+    }
+
+    /**
+     * Adds the digits of a mask to the candidates of a cell.
+     */
+    void add(int cell, int digits) {
+        if (cell < Long.SIZE) {
+            long bit = 1L << cell;
+            for (int remaining = digits & ALL_DIGITS; remaining != 0; remaining &= remaining - 1) {
+                low[Integer.numberOfTrailingZeros(remaining)] |= bit;
+            }
+        } else {
+            long bit = 1L << (cell - Long.SIZE);
+            for (int remaining = digits & ALL_DIGITS; remaining != 0; remaining &= remaining - 1) {
+                high[Integer.numberOfTrailingZeros(remaining)] |= bit;
+            }
+        }
+    }
+
+    /**
+     * Removes the digits of a mask from the candidates of a cell.
+     */
+    void remove(int cell, int digits) {
+        if (cell < Long.SIZE) {
+            long bit = ~(1L << cell);
+            for (int remaining = digits & ALL_DIGITS; remaining != 0; remaining &= remaining - 1) {
+                low[Integer.numberOfTrailingZeros(remaining)] &= bit;
+            }
+        } else {
+            long bit = ~(1L << (cell - Long.SIZE));
+            for (int remaining = digits & ALL_DIGITS; remaining != 0; remaining &= remaining - 1) {
+                high[Integer.numberOfTrailingZeros(remaining)] &= bit;
+            }
+        }
+    }
+
+    boolean contains(int cell, int digit) {
+        return cell < Long.SIZE
+                ? (low[digit - 1] & 1L << cell) != 0
+                : (high[digit - 1] & 1L << (cell - Long.SIZE)) != 0;
+    }
+
+    /**
+     * @return in how many cells of the unit the digit can go
+     */
+    int countInUnit(int digit, int unit) {
+        return Long.bitCount(low[digit - 1] & UNIT_LOW[unit]) + Long.bitCount(high[digit - 1] & UNIT_HIGH[unit]);
+    }
+
+    /**
+     * @return the first cell of the unit where the digit can go, or -1 when there is none
+     */
+    int firstCellInUnit(int digit, int unit) {
+        long lowCells = low[digit - 1] & UNIT_LOW[unit];
+        if (lowCells != 0) return Long.numberOfTrailingZeros(lowCells);
+        long highCells = high[digit - 1] & UNIT_HIGH[unit];
+        return highCells != 0 ? Long.SIZE + Long.numberOfTrailingZeros(highCells) : -1;
+    }
+
+    /**
+     * @return the number of cells where the digit can go on the whole board
+     */
+    int count(int digit) {
+        return Long.bitCount(low[digit - 1]) + Long.bitCount(high[digit - 1]);
+    }
+}
@@ -0,0 +1,45 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class DigitBitboardsTest {
+
+    @Test
+    public void testUnitMasksCoverEveryCellThreeTimes() {
+        for (int cell = 0; cell < BoardGeometry.CELLS; cell += 1) {
+            int units = 0;
+            for (int unit = 0; unit < BoardGeometry.UNITS; unit += 1) {
+                long mask = cell < Long.SIZE ? DigitBitboards.UNIT_LOW[unit] : DigitBitboards.UNIT_HIGH[unit];
+                if ((mask & 1L << (cell % Long.SIZE)) != 0) units += 1;
+            }
+            assertEquals(3, units);
+        }
+    }
+
+    @Test
+    public void testBitboardsFollowCandidateChanges() {
+        int[] candidates = new int[BoardGeometry.CELLS];
+        candidates[40] = 0b000010000;
+        candidates[41] = 0b000011000;
+        candidates[80] = 0b100010000;
+        DigitBitboards bitboards = DigitBitboards.of(candidates);
+        int rowOfCell40 = 4;
+        int quadrantOfCell80 = 2 * BoardGeometry.SIZE + 8;
+        assertEquals(2, bitboards.countInUnit(5, rowOfCell40));
+        assertEquals(40, bitboards.firstCellInUnit(5, rowOfCell40));
+        assertEquals(80, bitboards.firstCellInUnit(9, quadrantOfCell80));
+        assertEquals(3, bitboards.count(5));
+
+        bitboards.remove(40, 0b000010000);
+        bitboards.remove(80, 0b100000000);
+        assertFalse(bitboards.contains(40, 5));
+        assertEquals(41, bitboards.firstCellInUnit(5, rowOfCell40));
+        assertEquals(-1, bitboards.firstCellInUnit(9, quadrantOfCell80));
+
+        bitboards.add(80, 0b100000000);
+        assertTrue(bitboards.contains(80, 9));
+        assertEquals(1, bitboards.countInUnit(9, quadrantOfCell80));
+    }
+}
@@ -0,0 +1,155 @@
+package main;
+
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.SIZE;
+
+/**
+ * Template (pattern overlay) deductions. A digit can occupy the board in exactly 46656 ways, one cell per row,
+ * column and quadrant; these templates are precomputed once, as 81 bits bitsets, in two flat {@code long} arrays.
+ * <p>
+ * For every digit, the templates that fit the board (every cell is a candidate or holds the digit, every cell holding
+ * the digit is covered) are filtered with two AND-and-compare per template, no branching on the board. A cell that
+ * no surviving template covers can't hold the digit, and a cell that every surviving template covers must hold it.
+ * This sees through any combination of single digit techniques (locked candidates, X-wings, swordfish, ...) at once.
+ * </p>
+ * <p>
+ * The templates are ordered by the columns of their first three rows, so they come in 162 blocks of 288 templates
+ * sharing the same cells in the top band; a block whose top band doesn't fit is skipped as a whole, which skips most
+ * of the table once the board fills up.
+ * </p>
+ */
+final class DigitTemplates {
+
+    static final int TEMPLATES = 46656;
+
+    private static final int BLOCKS = 9 * 6 * 3;
+
+    private static final int BLOCK = TEMPLATES / BLOCKS;
+
+    private static final long TOP_BAND = (1L << 3 * SIZE) - 1;
+
+    private DigitTemplates() {
+    }
+
+    /**
+     * The table is only built the first time templates are used.
+     */
+    private static final class Table {
+
+        static final long[] LOW = new long[TEMPLATES];
+
+        static final long[] HIGH = new long[TEMPLATES];
+
+        /**
+         * The top band cells of the templates of every block.
+         */
+        static final long[] BLOCK_TOP_BAND = new long[BLOCKS];
+
+        static {
+            int[] columns = new int[SIZE];
+            int count = enumerate(0, 0, 0, columns, 0);
+            if (count != TEMPLATES) throw new IllegalStateException("Expected " + TEMPLATES + " templates.");
+            for (int block = 0; block < BLOCKS; block += 1) {
+                BLOCK_TOP_BAND[block] = LOW[block * BLOCK] & TOP_BAND;
+            }
+        }
+
+        /**
+         * Lists the templates row by row, in increasing order of the column of every row.
+         * @return the number of templates listed so far
+         */
+        private static int enumerate(int row, int usedColumns, int usedStacks, int[] columns, int count) {
+            if (row == SIZE) {
+                for (int templateRow = 0; templateRow < SIZE; templateRow += 1) {
+                    int cell = templateRow * SIZE + columns[templateRow];
+                    if (cell < Long.SIZE) {
+                        LOW[count] |= 1L << cell;
+                    } else {
+                        HIGH[count] |= 1L << (cell - Long.SIZE);
+                    }
+                }
+                return count + 1;
+            }
+            if (row % 3 == 0) usedStacks = 0;
+            for (int column = 0; column < SIZE; column += 1) {
+                if ((usedColumns & 1 << column) != 0 || (usedStacks & 1 << column / 3) != 0) continue;
+                columns[row] = column;
+                count = enumerate(row + 1, usedColumns | 1 << column, usedStacks | 1 << column / 3, columns, count);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Applies the template deductions of every digit.
+     * @param values the digit of every cell, 0 for empty cells
+     * @param candidates the candidate mask of every cell, updated in place: removed candidates are cleared and a
+     * forced digit becomes the only candidate of its cell (the caller places it as a naked single)
+     * @return the number of candidates removed, or -1 when a digit has no template left (the board has no solution)
+     */
+    static int apply(int[] values, int[] candidates) {
+        long[] templatesLow = Table.LOW;
+        long[] templatesHigh = Table.HIGH;
+        long[] blockTopBands = Table.BLOCK_TOP_BAND;
+        int removed = 0;
+        for (int digit = 1; digit <= SIZE; digit += 1) {
+            int bit = 1 << (digit - 1);
+            long allowedLow = 0L;
+            long allowedHigh = 0L;
+            long placedLow = 0L;
+            long placedHigh = 0L;
+            for (int cell = 0; cell < CELLS; cell += 1) {
+                boolean placed = values[cell] == digit;
+                boolean allowed = placed || values[cell] == 0 && (candidates[cell] & bit) != 0;
+                if (cell < Long.SIZE) {
+                    if (allowed) allowedLow |= 1L << cell;
+                    if (placed) placedLow |= 1L << cell;
+                } else {
+                    if (allowed) allowedHigh |= 1L << (cell - Long.SIZE);
+                    if (placed) placedHigh |= 1L << (cell - Long.SIZE);
+                }
+            }
+            long unionLow = 0L;
+            long unionHigh = 0L;
+            long intersectionLow = -1L;
+            long intersectionHigh = -1L;
+            long forbiddenLow = ~allowedLow;
+            long forbiddenHigh = ~allowedHigh;
+            for (int block = 0; block < BLOCKS; block += 1) {
+                long topBand = blockTopBands[block];
+                if ((topBand & forbiddenLow) != 0 || (placedLow & TOP_BAND & ~topBand) != 0) continue;
+                int end = (block + 1) * BLOCK;
+                for (int template = block * BLOCK; template < end; template += 1) {
+                    long low = templatesLow[template];
+                    long high = templatesHigh[template];
+                    if ((low & forbiddenLow | high & forbiddenHigh) != 0
+                            || (placedLow & ~low | placedHigh & ~high) != 0) {
+                        continue;
+                    }
+                    unionLow |= low;
+                    unionHigh |= high;
+                    intersectionLow &= low;
+                    intersectionHigh &= high;
+                }
+            }
+            if ((unionLow | unionHigh) == 0) return -1;
+            for (int cell = 0; cell < CELLS; cell += 1) {
+                if (values[cell] != 0 || (candidates[cell] & bit) == 0) continue;
+                boolean covered = cell < Long.SIZE
+                        ? (unionLow & 1L << cell) != 0
+                        : (unionHigh & 1L << (cell - Long.SIZE)) != 0;
+                boolean forced = cell < Long.SIZE
+                        ? (intersectionLow & 1L << cell) != 0
+                        : (intersectionHigh & 1L << (cell - Long.SIZE)) != 0;
+                if (!covered) {
+                    candidates[cell] &= ~bit;
+                    removed += 1;
+                } else if (forced && candidates[cell] != bit) {
+                    removed += Integer.bitCount(candidates[cell] & ~bit);
+                    candidates[cell] = bit;
+                }
+            }
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,49 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class DigitTemplatesTest {
+
+    private static final String HARD_PUZZLE =
+            "400000805030000000000700000020000060000080400000010000000603070500200000104000000";
+
+    @Test
+    public void testEmptyBoardKeepsEveryCandidate() {
+        int[] values = new int[BoardGeometry.CELLS];
+        int[] candidates = new int[BoardGeometry.CELLS];
+        Arrays.fill(candidates, BoardGeometry.ALL_DIGITS);
+        assertEquals(0, DigitTemplates.apply(values, candidates));
+    }
+
+    @Test
+    public void testDeductionsKeepTheSolution() {
+        int[][] grid = PuzzleText.parse(HARD_PUZZLE);
+        int[] solution = BoardGeometry.toCells(new SudokuSolverSat(grid).solve());
+        int[] candidates = new SudokuSolverBacktracking(grid, false).propagatedCandidates();
+        int[] values = new int[BoardGeometry.CELLS];
+        for (int cell = 0; cell < BoardGeometry.CELLS; cell += 1) {
+            if (Integer.bitCount(candidates[cell]) == 1) {
+                values[cell] = Integer.numberOfTrailingZeros(candidates[cell]) + 1;
+            }
+        }
+        int removed = DigitTemplates.apply(values, candidates);
+        assertTrue(removed > 0);
+        for (int cell = 0; cell < BoardGeometry.CELLS; cell += 1) {
+            assertTrue((candidates[cell] & 1 << (solution[cell] - 1)) != 0);
+        }
+    }
+
+    @Test
+    public void testDigitWithoutTemplateIsAContradiction() {
+        int[] values = new int[BoardGeometry.CELLS];
+        int[] candidates = new int[BoardGeometry.CELLS];
+        Arrays.fill(candidates, BoardGeometry.ALL_DIGITS);
+        for (int column = 0; column < BoardGeometry.SIZE; column += 1) {
+            candidates[column] &= ~1;
+        }
+        assertEquals(-1, DigitTemplates.apply(values, candidates));
+    }
+}
@@ -0,0 +1,60 @@
+package main;
+
+/**
+ * The latency summary of one engine, as shown over JMX.
+ */
+public final class EngineLatency {
+
+    private static final double NANOS_PER_MILLISECOND = 1_000_000.0;
+
+    private final String engine;
+
+    private final long count;
+
+    private final double p50Millis;
+
+    private final double p99Millis;
+
+    private final double p999Millis;
+
+    private final double maxMillis;
+
+    EngineLatency(String engine, LatencyHistogram histogram) {
+        this.engine = engine;
+        this.count = histogram.getCount();
+        this.p50Millis = histogram.percentileNanos(50) / NANOS_PER_MILLISECOND;
+        this.p99Millis = histogram.percentileNanos(99) / NANOS_PER_MILLISECOND;
+        this.p999Millis = histogram.percentileNanos(99.9) / NANOS_PER_MILLISECOND;
+        this.maxMillis = histogram.getMaxNanos() / NANOS_PER_MILLISECOND;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getP999Millis() {
+        return p999Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d solves, p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms", engine, count,
+                p50Millis, p99Millis, p999Millis, maxMillis);
+    }
+}
@@ -0,0 +1,105 @@
+package main;
+
+import static main.BoardGeometry.COLUMN_OF;
+import static main.BoardGeometry.ROW_OF;
+import static main.BoardGeometry.SIZE;
+
+/**
+ * The next logical step of a puzzle, as found by {@link HintFinder}: either a digit to place, or candidates to remove,
+ * and the technique and cells that justify it.
+ */
+public final class Hint {
+
+    private final SolvingTechnique technique;
+
+    private final int[] cells;
+
+    private final int digit;
+
+    /**
+     * The removed candidates, as {@code cell * 9 + digit - 1}.
+     */
+    private final int[] eliminations;
+
+    private Hint(SolvingTechnique technique, int[] cells, int digit, int[] eliminations) {
+        this.technique = technique;
+        this.cells = cells;
+        this.digit = digit;
+        this.eliminations = eliminations;
+    }
+
+    static Hint placement(SolvingTechnique technique, int cell, int digit) {
+        return new Hint(technique, new int[] {cell}, digit, new int[0]);
+    }
+
+    static Hint elimination(SolvingTechnique technique, int[] cells, int[] eliminations) {
+        return new Hint(technique, cells, 0, eliminations);
+    }
+
+    public SolvingTechnique getTechnique() {
+        return technique;
+    }
+
+    /**
+     * @return {@code true} when the hint places a digit, {@code false} when it removes candidates
+     */
+    public boolean isPlacement() {
+        return digit != 0;
+    }
+
+    /**
+     * @return the digit to place in the only cell of the hint, or 0 for an elimination
+     */
+    public int getDigit() {
+        return digit;
+    }
+
+    /**
+     * @return the cells the technique works on, as {@code {rowIndex, columnIndex}} pairs
+     */
+    public int[][] getCells() {
+        int[][] positions = new int[cells.length][];
+        for (int index = 0; index < cells.length; index += 1) {
+            positions[index] = new int[] {ROW_OF[cells[index]], COLUMN_OF[cells[index]]};
+        }
+        return positions;
+    }
+
+    /**
+     * @return the candidates to remove, as {@code {rowIndex, columnIndex, digit}} triples
+     */
+    public int[][] getEliminations() {
+        int[][] removed = new int[eliminations.length][];
+        for (int index = 0; index < eliminations.length; index += 1) {
+            int cell = eliminations[index] / SIZE;
+            removed[index] = new int[] {ROW_OF[cell], COLUMN_OF[cell], eliminations[index] % SIZE + 1};
+        }
+        return removed;
+    }
+
+    /**
+     * @return a one line description, e.g. {@code HIDDEN_SINGLE place 6 at (0, 2)} or
+     * {@code NAKED_PAIR cells (1, 1) (1, 4) remove 3 at (1, 2), 7 at (1, 6)}
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(technique.name());
+        if (isPlacement()) {
+            return text.append(" place ").append(digit).append(" at ").append(position(cells[0])).toString();
+        }
+        text.append(" cells");
+        for (int cell : cells) {
+            text.append(' ').append(position(cell));
+        }
+        text.append(" remove ");
+        for (int index = 0; index < eliminations.length; index += 1) {
+            if (index > 0) text.append(", ");
+            text.append(eliminations[index] % SIZE + 1).append(" at ").append(position(eliminations[index] / SIZE));
+        }
+        return text.toString();
+    }
+
+    private static String position(int cell) {
+        return "(" + ROW_OF[cell] + ", " + COLUMN_OF[cell] + ")";
+    }
+}
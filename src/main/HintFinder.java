@@ -0,0 +1,185 @@
+package main;
+
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.SIZE;
+import static main.BoardGeometry.UNITS;
+import static main.BoardGeometry.UNIT_CELLS;
+
+import java.util.Arrays;
+
+/**
+ * Finds the next logical step of a puzzle without solving it.
+ * <p>
+ * The candidates of every cell are the digits none of its peers holds, and the techniques are tried from the
+ * cheapest to the most expensive: naked singles, hidden singles, naked pairs, hidden pairs and digit templates. The
+ * first one that places a digit or removes a candidate is the hint. There is never any search, so the cost of a hint
+ * is bounded by one pass of every technique over the grid, the templates being by far the most expensive.
+ * </p>
+ * <p>
+ * The finder keeps no state between calls. A caller that follows elimination hints passes the candidates removed so
+ * far back, in the format of {@link Hint#getEliminations()}, otherwise the same elimination would come back.
+ * </p>
+ */
+public final class HintFinder {
+
+    private static final CandidateKernel KERNEL = CandidateKernels.ACTIVE;
+
+    private HintFinder() {
+    }
+
+    /**
+     * @param grid the puzzle grid, which isn't modified
+     * @return the next step, or {@code null} when the grid is full or none of the techniques applies
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle, or has an empty cell or a unit digit with
+     * no candidate left
+     */
+    public static Hint nextHint(int[][] grid) throws IllegalArgumentException {
+        return nextHint(grid, new int[0][]);
+    }
+
+    /**
+     * @param grid the puzzle grid, which isn't modified
+     * @param eliminated the candidates already removed by earlier hints, as {@code {rowIndex, columnIndex, digit}}
+     * triples
+     * @return the next step, or {@code null} when the grid is full or none of the techniques applies
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle, an eliminated candidate is out of range, or
+     * there is an empty cell or a unit digit with no candidate left
+     */
+    public static Hint nextHint(int[][] grid, int[][] eliminated) throws IllegalArgumentException {
+        PuzzleValidator.validate(grid);
+        int[] values = BoardGeometry.toCells(grid);
+        int[] candidates = new int[CELLS];
+        KERNEL.recomputeCandidates(values, candidates);
+        for (int[] elimination : eliminated) {
+            if (elimination.length != 3 || elimination[0] < 0 || elimination[0] >= SIZE || elimination[1] < 0
+                    || elimination[1] >= SIZE || elimination[2] < 1 || elimination[2] > SIZE) {
+                throw new IllegalArgumentException("Invalid elimination " + Arrays.toString(elimination) + ".");
+            }
+            candidates[elimination[0] * SIZE + elimination[1]] &= ~(1 << (elimination[2] - 1));
+        }
+        Hint hint = findNakedSingle(values, candidates);
+        if (hint == null) hint = findHiddenSingle(values, candidates);
+        if (hint == null) hint = findNakedPair(candidates);
+        if (hint == null) hint = findHiddenPair(candidates);
+        if (hint == null) hint = findTemplateElimination(values, candidates);
+        return hint;
+    }
+
+    private static Hint findNakedSingle(int[] values, int[] candidates) {
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (values[cell] != 0) continue;
+            int mask = candidates[cell];
+            if (mask == 0) throw NoUniqueSolutionException.unsolvable();
+            if ((mask & (mask - 1)) == 0) {
+                return Hint.placement(SolvingTechnique.NAKED_SINGLE, cell, Integer.numberOfTrailingZeros(mask) + 1);
+            }
+        }
+        return null;
+    }
+
+    private static Hint findHiddenSingle(int[] values, int[] candidates) {
+        for (int unit = 0; unit < UNITS; unit += 1) {
+            int placedDigits = 0;
+            for (int cell : UNIT_CELLS[unit]) {
+                if (values[cell] != 0) placedDigits |= 1 << (values[cell] - 1);
+            }
+            long counts = KERNEL.countDigits(candidates, unit);
+            if ((KERNEL.digitsWithCount(counts, 0) & ~placedDigits) != 0) {
+                throw NoUniqueSolutionException.unsolvable();
+            }
+            int hidden = KERNEL.digitsWithCount(counts, 1);
+            if (hidden == 0) continue;
+            int bit = hidden & -hidden;
+            for (int cell : UNIT_CELLS[unit]) {
+                if ((candidates[cell] & bit) != 0) {
+                    return Hint.placement(SolvingTechnique.HIDDEN_SINGLE, cell, Integer.numberOfTrailingZeros(bit) + 1);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Hint findNakedPair(int[] candidates) {
+        for (int unit = 0; unit < UNITS; unit += 1) {
+            int[] cells = UNIT_CELLS[unit];
+            for (int first = 0; first < SIZE; first += 1) {
+                int pair = candidates[cells[first]];
+                if (Integer.bitCount(pair) != 2) continue;
+                for (int second = first + 1; second < SIZE; second += 1) {
+                    if (candidates[cells[second]] != pair) continue;
+                    int[] eliminations = new int[2 * SIZE];
+                    int count = 0;
+                    for (int other = 0; other < SIZE; other += 1) {
+                        if (other == first || other == second) continue;
+                        count = addEliminations(eliminations, count, cells[other], candidates[cells[other]] & pair);
+                    }
+                    if (count > 0) {
+                        return Hint.elimination(SolvingTechnique.NAKED_PAIR, new int[] {cells[first], cells[second]},
+                                Arrays.copyOf(eliminations, count));
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Hint findHiddenPair(int[] candidates) {
+        int[] digitPositions = new int[SIZE];
+        for (int unit = 0; unit < UNITS; unit += 1) {
+            if (Integer.bitCount(KERNEL.digitsWithCount(KERNEL.countDigits(candidates, unit), 2)) < 2) continue;
+            int[] cells = UNIT_CELLS[unit];
+            Arrays.fill(digitPositions, 0);
+            for (int index = 0; index < SIZE; index += 1) {
+                for (int mask = candidates[cells[index]]; mask != 0; mask &= mask - 1) {
+                    digitPositions[Integer.numberOfTrailingZeros(mask)] |= 1 << index;
+                }
+            }
+            for (int first = 0; first < SIZE; first += 1) {
+                if (Integer.bitCount(digitPositions[first]) != 2) continue;
+                for (int second = first + 1; second < SIZE; second += 1) {
+                    if (digitPositions[second] != digitPositions[first]) continue;
+                    int pair = 1 << first | 1 << second;
+                    int firstCell = cells[Integer.numberOfTrailingZeros(digitPositions[first])];
+                    int secondCell = cells[31 - Integer.numberOfLeadingZeros(digitPositions[first])];
+                    int[] eliminations = new int[2 * SIZE];
+                    int count = addEliminations(eliminations, 0, firstCell, candidates[firstCell] & ~pair);
+                    count = addEliminations(eliminations, count, secondCell, candidates[secondCell] & ~pair);
+                    if (count > 0) {
+                        return Hint.elimination(SolvingTechnique.HIDDEN_PAIR, new int[] {firstCell, secondCell},
+                                Arrays.copyOf(eliminations, count));
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Hint findTemplateElimination(int[] values, int[] candidates) {
+        int[] reduced = candidates.clone();
+        int removed = DigitTemplates.apply(values, reduced);
+        if (removed < 0) throw NoUniqueSolutionException.unsolvable();
+        if (removed == 0) return null;
+        int[] cells = new int[CELLS];
+        int cellCount = 0;
+        int[] eliminations = new int[CELLS * SIZE];
+        int count = 0;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            int removedDigits = candidates[cell] & ~reduced[cell];
+            if (removedDigits == 0) continue;
+            cells[cellCount++] = cell;
+            count = addEliminations(eliminations, count, cell, removedDigits);
+        }
+        return Hint.elimination(SolvingTechnique.TEMPLATE, Arrays.copyOf(cells, cellCount),
+                Arrays.copyOf(eliminations, count));
+    }
+
+    /**
+     * @return the new number of eliminations, once the digits of the mask were added for the cell
+     */
+    private static int addEliminations(int[] eliminations, int count, int cell, int digits) {
+        for (int mask = digits; mask != 0; mask &= mask - 1) {
+            eliminations[count++] = cell * SIZE + Integer.numberOfTrailingZeros(mask);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,59 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class HintFinderTest {
+
+    @Test
+    public void testCheapestTechniqueComesFirst() {
+        int[][] almostSolved = SudokuEngine.BACKTRACKING.solve(PuzzleText.parse(TestPuzzles.HARD_PUZZLE));
+        almostSolved[4][4] = 0;
+        Hint hint = HintFinder.nextHint(almostSolved);
+        assertEquals(SolvingTechnique.NAKED_SINGLE, hint.getTechnique());
+        assertTrue(hint.isPlacement());
+        assertArrayEquals(new int[][] {{4, 4}}, hint.getCells());
+        assertEquals("NAKED_SINGLE place 7 at (4, 4)", hint.toString());
+
+        Hint first = HintFinder.nextHint(PuzzleText.parse(TestPuzzles.HARD_PUZZLE));
+        assertEquals(SolvingTechnique.HIDDEN_SINGLE, first.getTechnique());
+    }
+
+    @Test
+    public void testFollowingHintsNeverContradictsTheSolution() {
+        int[][] grid = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+        int[][] solution = SudokuEngine.BACKTRACKING.solve(PuzzleText.parse(TestPuzzles.HARD_PUZZLE));
+        List<int[]> eliminated = new ArrayList<>();
+        int placements = 0;
+        Hint hint;
+        while ((hint = HintFinder.nextHint(grid, eliminated.toArray(new int[0][]))) != null) {
+            if (hint.isPlacement()) {
+                int[] cell = hint.getCells()[0];
+                assertEquals(hint.toString(), solution[cell[0]][cell[1]], hint.getDigit());
+                grid[cell[0]][cell[1]] = hint.getDigit();
+                placements += 1;
+            } else {
+                for (int[] elimination : hint.getEliminations()) {
+                    assertTrue(hint.toString(), solution[elimination[0]][elimination[1]] != elimination[2]);
+                    eliminated.add(elimination);
+                }
+            }
+        }
+        assertTrue(placements > 0);
+        assertFalse(eliminated.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeadCellIsReported() {
+        int[][] grid = new int[9][9];
+        for (int columnIndex = 0; columnIndex < 8; columnIndex += 1) {
+            grid[0][columnIndex] = columnIndex + 1;
+        }
+        grid[1][8] = 9;
+        HintFinder.nextHint(grid);
+    }
+}
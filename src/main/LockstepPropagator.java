@@ -0,0 +1,201 @@
+package main;
+
+import static main.BoardGeometry.ALL_DIGITS;
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.COLUMN_OF;
+import static main.BoardGeometry.QUADRANT_OF;
+import static main.BoardGeometry.ROW_OF;
+import static main.BoardGeometry.SIZE;
+import static main.BoardGeometry.UNITS;
+import static main.BoardGeometry.UNIT_CELLS;
+
+import java.util.Arrays;
+
+/**
+ * Propagates {@value #LANES} independent puzzles together, in lockstep.
+ * <p>
+ * The state is laid out as a structure of arrays: the placed digit and the candidates of a cell are stored for every
+ * lane next to each other ({@code cell * LANES + lane}), and so are the placed digits of a unit. Every step of a round
+ * (unit masks, naked singles, hidden singles) is a loop over the cells or units with an inner loop over the lanes,
+ * which runs on contiguous memory with the same instructions for every puzzle, the shape the JIT can unroll and
+ * vectorize. Digits are stored as masks (bit {@code digit - 1}) so the steps are plain bit operations.
+ * </p>
+ * <p>
+ * A round places every naked and hidden single it finds at once, so two of them can clash (the same digit twice in a
+ * unit, or two digits in a cell): the clash is a contradiction of the puzzle, found at the latest by the next round.
+ * Rounds stop once no lane moves. A lane is then either solved, which proves its solution is unique since every
+ * placement was forced, contradicted, which means the puzzle has no solution, or stuck, and the puzzle has to be
+ * searched by a regular engine.
+ * </p>
+ */
+final class LockstepPropagator {
+
+    static final int LANES = 16;
+
+    enum LaneStatus {
+        EMPTY,
+        SOLVED,
+        CONTRADICTION,
+        STUCK
+    }
+
+    private final int[] values = new int[CELLS * LANES];
+
+    private final int[] candidates = new int[CELLS * LANES];
+
+    private final int[] placed = new int[UNITS * LANES];
+
+    private final int[] contradictions = new int[LANES];
+
+    private final int[] moves = new int[LANES];
+
+    private final int[] once = new int[LANES];
+
+    private final int[] twice = new int[LANES];
+
+    private final boolean[] loaded = new boolean[LANES];
+
+    /**
+     * Empties every lane.
+     */
+    void clear() {
+        Arrays.fill(values, 0);
+        Arrays.fill(contradictions, 0);
+        Arrays.fill(loaded, false);
+    }
+
+    /**
+     * Loads a puzzle into a lane. Duplicated digits aren't checked here, they are contradictions of the first round.
+     * @param lane the lane, from 0 to {@value #LANES} - 1
+     * @param grid a 9x9 grid of digits from 0 to 9
+     */
+    void load(int lane, int[][] grid) {
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            int value = grid[cell / SIZE][cell % SIZE];
+            values[cell * LANES + lane] = value == 0 ? 0 : 1 << (value - 1);
+        }
+        contradictions[lane] = 0;
+        loaded[lane] = true;
+    }
+
+    /**
+     * Runs rounds of propagation on every lane until none of them moves.
+     */
+    void propagate() {
+        boolean moved = true;
+        while (moved) {
+            Arrays.fill(moves, 0);
+            computeUnitMasks();
+            placeNakedSingles();
+            placeHiddenSingles();
+            moved = false;
+            for (int lane = 0; lane < LANES; lane += 1) {
+                if (moves[lane] != 0 && contradictions[lane] == 0) moved = true;
+            }
+        }
+    }
+
+    /**
+     * Builds the placed digits of every unit, flagging the lanes that have a digit twice in a unit.
+     */
+    private void computeUnitMasks() {
+        Arrays.fill(placed, 0);
+        for (int unit = 0; unit < UNITS; unit += 1) {
+            int unitBase = unit * LANES;
+            for (int cell : UNIT_CELLS[unit]) {
+                int cellBase = cell * LANES;
+                for (int lane = 0; lane < LANES; lane += 1) {
+                    int value = values[cellBase + lane];
+                    contradictions[lane] |= placed[unitBase + lane] & value;
+                    placed[unitBase + lane] |= value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the candidates of every cell and places the ones left with a single candidate.
+     */
+    private void placeNakedSingles() {
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            int cellBase = cell * LANES;
+            int rowBase = ROW_OF[cell] * LANES;
+            int columnBase = (SIZE + COLUMN_OF[cell]) * LANES;
+            int quadrantBase = (2 * SIZE + QUADRANT_OF[cell]) * LANES;
+            for (int lane = 0; lane < LANES; lane += 1) {
+                int empty = values[cellBase + lane] == 0 ? 1 : 0;
+                int free = ALL_DIGITS & ~(placed[rowBase + lane] | placed[columnBase + lane] | placed[quadrantBase + lane]);
+                int mask = free & -empty;
+                candidates[cellBase + lane] = mask;
+                contradictions[lane] |= empty & (mask == 0 ? 1 : 0);
+                int single = mask != 0 && (mask & (mask - 1)) == 0 ? 1 : 0;
+                values[cellBase + lane] |= mask & -single;
+                moves[lane] |= single;
+            }
+        }
+    }
+
+    /**
+     * Places the digits that have a single candidate cell left in a unit, flagging the lanes where a digit has no
+     * cell left or a cell gets two digits.
+     */
+    private void placeHiddenSingles() {
+        for (int unit = 0; unit < UNITS; unit += 1) {
+            int unitBase = unit * LANES;
+            Arrays.fill(once, 0);
+            Arrays.fill(twice, 0);
+            for (int cell : UNIT_CELLS[unit]) {
+                int cellBase = cell * LANES;
+                for (int lane = 0; lane < LANES; lane += 1) {
+                    int mask = candidates[cellBase + lane];
+                    twice[lane] |= once[lane] & mask;
+                    once[lane] |= mask;
+                }
+            }
+            for (int lane = 0; lane < LANES; lane += 1) {
+                int missing = ALL_DIGITS & ~(once[lane] | placed[unitBase + lane]);
+                contradictions[lane] |= missing;
+                once[lane] &= ~twice[lane];
+            }
+            for (int cell : UNIT_CELLS[unit]) {
+                int cellBase = cell * LANES;
+                for (int lane = 0; lane < LANES; lane += 1) {
+                    int hidden = once[lane] & candidates[cellBase + lane];
+                    if (hidden == 0) continue;
+                    int value = values[cellBase + lane];
+                    // two hidden digits in a cell, or a hidden digit in a cell a naked single just took
+                    if ((hidden & (hidden - 1)) != 0 || value != 0 && value != hidden) {
+                        contradictions[lane] = 1;
+                    } else if (value == 0) {
+                        values[cellBase + lane] = hidden;
+                        moves[lane] = 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the state of the lane after {@link #propagate()}
+     */
+    LaneStatus status(int lane) {
+        if (!loaded[lane]) return LaneStatus.EMPTY;
+        if (contradictions[lane] != 0) return LaneStatus.CONTRADICTION;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (values[cell * LANES + lane] == 0) return LaneStatus.STUCK;
+        }
+        return LaneStatus.SOLVED;
+    }
+
+    /**
+     * Copies the digits of a lane into a grid.
+     * @param lane the lane
+     * @param grid a 9x9 grid
+     */
+    void copyValues(int lane, int[][] grid) {
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            int value = values[cell * LANES + lane];
+            grid[cell / SIZE][cell % SIZE] = value == 0 ? 0 : Integer.numberOfTrailingZeros(value) + 1;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class LockstepPropagatorTest {
+
+    private static final String HARD_PUZZLE =
+            "400000805030000000000700000020000060000080400000010000000603070500200000104000000";
+
+    private static final String UNSOLVABLE_PUZZLE = "12345678.........9............912.........9122........9.........3................";
+
+    @Test
+    public void testLaneStatuses() {
+        LockstepPropagator propagator = new LockstepPropagator();
+        int[][] duplicated = new int[9][9];
+        duplicated[0][0] = 5;
+        duplicated[0][8] = 5;
+        propagator.load(0, PuzzleText.parse(SudokuLoadGenerator.DEFAULT_PUZZLE));
+        propagator.load(1, PuzzleText.parse(HARD_PUZZLE));
+        propagator.load(2, PuzzleText.parse(UNSOLVABLE_PUZZLE));
+        propagator.load(3, duplicated);
+        propagator.propagate();
+
+        assertEquals(LockstepPropagator.LaneStatus.SOLVED, propagator.status(0));
+        assertEquals(LockstepPropagator.LaneStatus.STUCK, propagator.status(1));
+        assertEquals(LockstepPropagator.LaneStatus.CONTRADICTION, propagator.status(2));
+        assertEquals(LockstepPropagator.LaneStatus.CONTRADICTION, propagator.status(3));
+        assertEquals(LockstepPropagator.LaneStatus.EMPTY, propagator.status(4));
+        int[][] solution = new int[9][9];
+        propagator.copyValues(0, solution);
+        assertArrayEquals(SudokuEngine.BACKTRACKING.solve(PuzzleText.parse(SudokuLoadGenerator.DEFAULT_PUZZLE)),
+                solution);
+    }
+
+    @Test
+    public void testLockstepBatchMatchesPlainBatch() throws InterruptedException {
+        String[] puzzles = {SudokuLoadGenerator.DEFAULT_PUZZLE, HARD_PUZZLE, UNSOLVABLE_PUZZLE};
+        int count = 40;
+        ByteBuffer input = OffHeapBatchSolver.allocate(count);
+        for (int index = 0; index < count; index += 1) {
+            PackedPuzzleCodec.encodeNibbles(PuzzleText.parse(puzzles[index % puzzles.length]), input,
+                    index * PackedPuzzleCodec.NIBBLE_RECORD_BYTES);
+        }
+        ByteBuffer plain = OffHeapBatchSolver.allocate(count);
+        ByteBuffer lockstep = OffHeapBatchSolver.allocate(count);
+        try (OffHeapBatchSolver plainSolver = new OffHeapBatchSolver(SudokuEngine.BACKTRACKING, 2);
+             OffHeapBatchSolver lockstepSolver = new OffHeapBatchSolver(SudokuEngine.BACKTRACKING, 2, true)) {
+            assertEquals(13, plainSolver.solve(input, plain));
+            assertEquals(13, lockstepSolver.solve(input, lockstep));
+        }
+        assertEquals(plain, lockstep);
+    }
+}
@@ -1,9 +1,89 @@
 package main;
 
-//TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
-// click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Starts the solving service: {@code serve [port] [maxConcurrentSolves]} (the default), or runs the load generator
+ * against a running service: {@code load [host] [port] [clients] [requests] [puzzlesPerBatch] [puzzleFile]}, or prints
+ * new puzzles, one per line: {@code generate [count] [difficulty] [symmetry] [seed]}, or prints the number of solutions
+ * of every puzzle line read from the standard input: {@code count}, or checks a file of solutions, either 81
+ * characters lines or {@link PackedPuzzleCodec.Format#NIBBLE} records: {@code check file [text|packed]}.
+ * <p>
+ * The service registers its {@link SolverMetrics} over JMX, as {@value SolverMetrics#OBJECT_NAME}.
+ * </p>
+ */
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String mode = args.length > 0 ? args[0] : "serve";
+        String[] modeArgs = args.length > 0 ? Arrays.copyOfRange(args, 1, args.length) : args;
+        switch (mode) {
+            case "serve":
+                int port = modeArgs.length > 0 ? Integer.parseInt(modeArgs[0]) : SudokuHttpServer.DEFAULT_PORT;
+                int maxConcurrentSolves = modeArgs.length > 1
+                        ? Integer.parseInt(modeArgs[1])
+                        : Runtime.getRuntime().availableProcessors();
+                SolverMetrics metrics = SolverMetrics.getDefault();
+                metrics.register();
+                SudokuEngine engine = metrics.instrument(SudokuSolverBacktracking.ENGINE_NAME,
+                        grid -> new SudokuSolverBacktracking(grid, true, null, metrics).solve());
+                SudokuHttpServer server = new SudokuHttpServer(port, engine, maxConcurrentSolves);
+                server.start();
+                System.out.println("Sudoku solving service listening on port " + server.getPort());
+                break;
+            case "load":
+                SudokuLoadGenerator.main(modeArgs);
+                break;
+            case "generate":
+                generate(modeArgs);
+                break;
+            case "count":
+                count();
+                break;
+            case "check":
+                check(modeArgs);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mode '" + mode + "'. Use 'serve', 'load', 'generate', " +
+                        "'count' or 'check'.");
+        }
+    }
+
+    private static void generate(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Difficulty difficulty = args.length > 1 ? Difficulty.valueOf(args[1].toUpperCase()) : Difficulty.MEDIUM;
+        PuzzleGenerator.Symmetry symmetry = args.length > 2
+                ? PuzzleGenerator.Symmetry.valueOf(args[2].toUpperCase())
+                : PuzzleGenerator.Symmetry.NONE;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+        try (PuzzleGenerator generator = new PuzzleGenerator(difficulty, symmetry)) {
+            for (int[][] puzzle : generator.generate(count, seed)) {
+                System.out.println(PuzzleText.format(puzzle));
+            }
+        }
+    }
+
+    private static void count() throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            System.out.println(new SolutionCounter(PuzzleText.parse(line)).count(true));
+        }
+    }
 
+    private static void check(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) throw new IllegalArgumentException("The file to check is required.");
+        boolean packed = args.length > 1 && args[1].equalsIgnoreCase("packed");
+        try (SolutionChecker checker = new SolutionChecker();
+             FileChannel channel = FileChannel.open(Path.of(args[0]), StandardOpenOption.READ)) {
+            System.out.println(packed ? checker.checkPacked(channel) : checker.checkText(channel));
+        }
     }
 }
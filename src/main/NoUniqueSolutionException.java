@@ -0,0 +1,33 @@
+package main;
+
+/**
+ * Thrown by an engine for a valid puzzle that has no solution or more than one. It is still an
+ * {@link IllegalArgumentException}, as the kata contract wants, but carries its {@link SolveOutcome}, so the outcome
+ * doesn't depend on the wording of the message.
+ */
+public class NoUniqueSolutionException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SolveOutcome outcome;
+
+    private NoUniqueSolutionException(SolveOutcome outcome, String message) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    static NoUniqueSolutionException unsolvable() {
+        return new NoUniqueSolutionException(SolveOutcome.UNSOLVABLE, SolveOutcome.UNSOLVABLE_MESSAGE);
+    }
+
+    static NoUniqueSolutionException multipleSolutions() {
+        return new NoUniqueSolutionException(SolveOutcome.MULTIPLE_SOLUTIONS, SolveOutcome.MULTIPLE_SOLUTIONS_MESSAGE);
+    }
+
+    /**
+     * @return {@link SolveOutcome#UNSOLVABLE} or {@link SolveOutcome#MULTIPLE_SOLUTIONS}
+     */
+    public SolveOutcome getOutcome() {
+        return outcome;
+    }
+}
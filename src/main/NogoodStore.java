@@ -0,0 +1,115 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * A bounded store of nogoods for {@link SudokuSolverBacktracking}. A nogood is a small set of {@code cell = digit}
+ * assignments, encoded as literals {@code cell * 9 + digit - 1}, that can't all hold in any solution of the puzzle.
+ * <p>
+ * The store is a ring of {@code capacity} nogoods, so once it is full the oldest one is replaced. Every literal has a
+ * small bucket with the ids of the last nogoods that contain it, which is all the search needs: before trying
+ * {@code cell = digit} it asks for a nogood with that literal whose other literals already hold. Buckets may point to
+ * a replaced nogood, so every hit is checked against the nogood itself. A 64 bits hash per nogood makes duplicates
+ * cheap to detect.
+ * </p>
+ */
+final class NogoodStore {
+
+    static final int DEFAULT_CAPACITY = 4096;
+
+    static final int MAX_LITERALS = 8;
+
+    private static final int BUCKET_SIZE = 4;
+
+    private static final int LITERALS = BoardGeometry.CELLS * BoardGeometry.SIZE;
+
+    private final int[][] nogoods;
+
+    private final long[] hashes;
+
+    private final int[] buckets = new int[LITERALS * BUCKET_SIZE];
+
+    private final byte[] bucketNext = new byte[LITERALS];
+
+    private int next;
+
+    private long stored;
+
+    NogoodStore(int capacity) {
+        this.nogoods = new int[capacity][];
+        this.hashes = new long[capacity];
+        Arrays.fill(buckets, -1);
+    }
+
+    /**
+     * Stores a nogood, unless it is already stored.
+     * @param literals the nogood literals, which are sorted in place
+     * @param size the number of literals, at most {@link #MAX_LITERALS}
+     * @return {@code true} if the nogood was stored
+     */
+    boolean add(int[] literals, int size) {
+        Arrays.sort(literals, 0, size);
+        long hash = hash(literals, size);
+        int firstBucket = literals[0] * BUCKET_SIZE;
+        for (int slot = firstBucket; slot < firstBucket + BUCKET_SIZE; slot += 1) {
+            int id = buckets[slot];
+            if (id >= 0 && hashes[id] == hash && nogoods[id] != null
+                    && Arrays.equals(nogoods[id], 0, nogoods[id].length, literals, 0, size)) {
+                return false;
+            }
+        }
+        int id = next;
+        next = (next + 1) % nogoods.length;
+        nogoods[id] = Arrays.copyOf(literals, size);
+        hashes[id] = hash;
+        for (int index = 0; index < size; index += 1) {
+            int literal = literals[index];
+            buckets[literal * BUCKET_SIZE + bucketNext[literal]] = id;
+            bucketNext[literal] = (byte) ((bucketNext[literal] + 1) % BUCKET_SIZE);
+        }
+        stored += 1;
+        return true;
+    }
+
+    /**
+     * Looks for a stored nogood that would be completed by {@code literal}.
+     * @param literal the assignment about to be made
+     * @param values the current cell values
+     * @return the nogood, or {@code null} when assigning the literal doesn't complete any stored nogood
+     */
+    int[] findCompletedBy(int literal, int[] values) {
+        int firstSlot = literal * BUCKET_SIZE;
+        for (int slot = firstSlot; slot < firstSlot + BUCKET_SIZE; slot += 1) {
+            int id = buckets[slot];
+            if (id < 0) continue;
+            int[] nogood = nogoods[id];
+            boolean containsLiteral = false;
+            boolean othersHold = true;
+            for (int other : nogood) {
+                if (other == literal) {
+                    containsLiteral = true;
+                } else if (values[other / BoardGeometry.SIZE] != other % BoardGeometry.SIZE + 1) {
+                    othersHold = false;
+                    break;
+                }
+            }
+            if (containsLiteral && othersHold) return nogood;
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of nogoods stored since the store was created, including the replaced ones
+     */
+    long getStored() {
+        return stored;
+    }
+
+    private static long hash(int[] literals, int size) {
+        long hash = 0xcbf29ce484222325L;
+        for (int index = 0; index < size; index += 1) {
+            hash = (hash ^ literals[index]) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,199 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves batches of puzzles that live off the Java heap, in direct or memory mapped buffers of
+ * {@link PackedPuzzleCodec.Format#NIBBLE} records.
+ * <p>
+ * Puzzle {@code i} is read from {@code i * 41} in the input buffer and its solution is written at the same offset of
+ * the output buffer, so both buffers have the same layout. Workers claim slices of {@value #SLICE_PUZZLES} puzzles
+ * and decode every puzzle into a single grid they reuse, so the heap footprint only depends on the number of workers,
+ * not on the size of the batch. A puzzle that can't be decoded or solved, or that the engine fails on in any other
+ * way, gets an all zeros record in the output buffer and the rest of the batch goes on.
+ * </p>
+ * <p>
+ * In lockstep mode the workers first propagate their puzzles {@value LockstepPropagator#LANES} at a time with a
+ * {@link LockstepPropagator}, and only hand the engine the puzzles propagation alone couldn't finish. The easy and
+ * medium puzzles that make the bulk of most batches then never reach a search engine.
+ * </p>
+ */
+public class OffHeapBatchSolver implements AutoCloseable {
+
+    static final int SLICE_PUZZLES = 256;
+
+    private static final int RECORD_BYTES = PackedPuzzleCodec.NIBBLE_RECORD_BYTES;
+
+    private final SudokuEngine engine;
+
+    private final int workers;
+
+    private final boolean lockstep;
+
+    private final ExecutorService executor;
+
+    /**
+     * @param engine the engine solving the puzzles, or in lockstep mode the ones propagation gets stuck on
+     * @param workers the number of worker threads
+     * @param lockstep whether to propagate the puzzles in lockstep groups before calling the engine
+     */
+    public OffHeapBatchSolver(SudokuEngine engine, int workers, boolean lockstep) {
+        if (workers < 1) throw new IllegalArgumentException("At least one worker is required.");
+        this.engine = engine;
+        this.workers = workers;
+        this.lockstep = lockstep;
+        this.executor = Executors.newFixedThreadPool(workers, VirtualThreads.daemonThreadFactory("sudoku-batch"));
+    }
+
+    public OffHeapBatchSolver(SudokuEngine engine, int workers) {
+        this(engine, workers, false);
+    }
+
+    public OffHeapBatchSolver(SudokuEngine engine) {
+        this(engine, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Allocates a direct buffer big enough for {@code puzzles} records.
+     * @param puzzles the number of records
+     * @return a new direct buffer
+     */
+    public static ByteBuffer allocate(int puzzles) {
+        return ByteBuffer.allocateDirect(Math.multiplyExact(puzzles, RECORD_BYTES));
+    }
+
+    /**
+     * Maps {@code puzzles} records of a file, starting at its beginning. Use {@link FileChannel.MapMode#READ_WRITE}
+     * for an output file, the channel then grows as needed.
+     * @param channel the file channel
+     * @param mode the mapping mode
+     * @param puzzles the number of records to map
+     * @return the mapped buffer
+     * @throws IOException when the file can't be mapped
+     */
+    public static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, int puzzles) throws IOException {
+        return channel.map(mode, 0, Math.multiplyExact(puzzles, RECORD_BYTES));
+    }
+
+    /**
+     * @param buffer a buffer of records
+     * @return the number of complete records in the buffer, up to its limit
+     */
+    public static int countPuzzles(ByteBuffer buffer) {
+        return buffer.limit() / RECORD_BYTES;
+    }
+
+    /**
+     * Solves every puzzle of the input buffer, writing the solutions into the output buffer at the same offsets.
+     * @param puzzles the input records
+     * @param solutions the output records, with room for at least as many records as the input has
+     * @return the number of puzzles that couldn't be solved
+     * @throws InterruptedException when interrupted while waiting for the workers
+     */
+    public int solve(ByteBuffer puzzles, ByteBuffer solutions) throws InterruptedException {
+        int count = countPuzzles(puzzles);
+        if (countPuzzles(solutions) < count) throw new IllegalArgumentException("The solutions buffer has room for " +
+                countPuzzles(solutions) + " records but there are " + count + " puzzles.");
+        AtomicInteger nextSlice = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker += 1) {
+            ByteBuffer input = puzzles.duplicate();
+            ByteBuffer output = solutions.duplicate();
+            futures.add(executor.submit(() -> solveSlices(input, output, count, nextSlice, failures)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException exception) {
+                throw new IllegalStateException("A batch worker failed.", exception.getCause());
+            }
+        }
+        return failures.get();
+    }
+
+    private void solveSlices(ByteBuffer input, ByteBuffer output, int count, AtomicInteger nextSlice,
+                             AtomicInteger failures) {
+        int[][] grid = new int[9][9];
+        LockstepPropagator propagator = lockstep ? new LockstepPropagator() : null;
+        int sliceStart;
+        while ((sliceStart = nextSlice.getAndAdd(SLICE_PUZZLES)) < count) {
+            int sliceEnd = Math.min(count, sliceStart + SLICE_PUZZLES);
+            if (propagator == null) {
+                for (int index = sliceStart; index < sliceEnd; index += 1) {
+                    solveOne(input, output, index, grid, failures);
+                }
+                continue;
+            }
+            for (int groupStart = sliceStart; groupStart < sliceEnd; groupStart += LockstepPropagator.LANES) {
+                int groupEnd = Math.min(sliceEnd, groupStart + LockstepPropagator.LANES);
+                solveGroup(propagator, input, output, groupStart, groupEnd, grid, failures);
+            }
+        }
+    }
+
+    private void solveOne(ByteBuffer input, ByteBuffer output, int index, int[][] grid, AtomicInteger failures) {
+        int offset = index * RECORD_BYTES;
+        try {
+            PackedPuzzleCodec.decodeNibbles(input, offset, grid);
+            PackedPuzzleCodec.encodeNibbles(engine.solve(grid), output, offset);
+        } catch (RuntimeException exception) {
+            // invalid, unsolvable, or an engine that failed or gave up: only this record fails, not the batch
+            fail(output, offset, failures);
+        }
+    }
+
+    /**
+     * Propagates the puzzles from {@code groupStart} to {@code groupEnd} together, then writes the solved ones, fails
+     * the contradicted ones (and the ones that can't be decoded) and solves the stuck ones with the engine.
+     */
+    private void solveGroup(LockstepPropagator propagator, ByteBuffer input, ByteBuffer output, int groupStart,
+                            int groupEnd, int[][] grid, AtomicInteger failures) {
+        propagator.clear();
+        for (int index = groupStart; index < groupEnd; index += 1) {
+            try {
+                PackedPuzzleCodec.decodeNibbles(input, index * RECORD_BYTES, grid);
+                propagator.load(index - groupStart, grid);
+            } catch (IllegalArgumentException exception) {
+                // not loaded, the lane stays empty and the puzzle fails below
+            }
+        }
+        propagator.propagate();
+        for (int index = groupStart; index < groupEnd; index += 1) {
+            int offset = index * RECORD_BYTES;
+            switch (propagator.status(index - groupStart)) {
+                case SOLVED:
+                    propagator.copyValues(index - groupStart, grid);
+                    PackedPuzzleCodec.encodeNibbles(grid, output, offset);
+                    break;
+                case STUCK:
+                    solveOne(input, output, index, grid, failures);
+                    break;
+                default:
+                    fail(output, offset, failures);
+            }
+        }
+    }
+
+    private static void fail(ByteBuffer output, int offset, AtomicInteger failures) {
+        failures.incrementAndGet();
+        for (int position = offset; position < offset + RECORD_BYTES; position += 1) {
+            output.put(position, (byte) 0);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,95 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+public class OffHeapBatchSolverTest {
+
+    private static final int PUZZLES = 3 * OffHeapBatchSolver.SLICE_PUZZLES + 7;
+
+    @Test
+    public void testDirectBufferBatch() throws InterruptedException {
+        ByteBuffer puzzles = OffHeapBatchSolver.allocate(PUZZLES);
+        for (int index = 0; index < PUZZLES; index += 1) {
+            PackedPuzzleCodec.encodeNibbles(PuzzleText.parse(TestPuzzles.HARD_PUZZLE), puzzles, index * 41);
+        }
+        ByteBuffer solutions = OffHeapBatchSolver.allocate(PUZZLES);
+        try (OffHeapBatchSolver solver = new OffHeapBatchSolver(SudokuEngine.BACKTRACKING, 3)) {
+            assertEquals(0, solver.solve(puzzles, solutions));
+        }
+        assertAllSolved(solutions, PUZZLES);
+    }
+
+    @Test
+    public void testMappedFileBatch() throws IOException, InterruptedException {
+        Path input = Files.createTempFile("puzzles", ".bin");
+        Path output = Files.createTempFile("solutions", ".bin");
+        try (FileChannel inputChannel = FileChannel.open(input, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileChannel outputChannel = FileChannel.open(output, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE);
+             OffHeapBatchSolver solver = new OffHeapBatchSolver(SudokuEngine.BACKTRACKING, 2)) {
+            MappedByteBuffer puzzles = OffHeapBatchSolver.map(inputChannel, FileChannel.MapMode.READ_WRITE, PUZZLES);
+            for (int index = 0; index < PUZZLES; index += 1) {
+                PackedPuzzleCodec.encodeNibbles(PuzzleText.parse(TestPuzzles.HARD_PUZZLE), puzzles, index * 41);
+            }
+            MappedByteBuffer solutions = OffHeapBatchSolver.map(outputChannel, FileChannel.MapMode.READ_WRITE,
+                    PUZZLES);
+            assertEquals(0, solver.solve(puzzles, solutions));
+            solutions.force();
+            assertAllSolved(solutions, PUZZLES);
+            assertEquals((long) PUZZLES * 41, Files.size(output));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    @Test
+    public void testFailedRecordsDontStopTheBatch() throws InterruptedException {
+        ByteBuffer puzzles = OffHeapBatchSolver.allocate(4);
+        for (int index = 0; index < 4; index += 1) {
+            PackedPuzzleCodec.encodeNibbles(PuzzleText.parse(TestPuzzles.HARD_PUZZLE), puzzles, index * 41);
+        }
+        // a 0xF nibble isn't a digit, so the second record can't be decoded
+        puzzles.put(41 + 3, (byte) 0xFF);
+        // the engine fails with something other than an IllegalArgumentException on the third record
+        int[][] third = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+        third[0][0] = 3;
+        PackedPuzzleCodec.encodeNibbles(third, puzzles, 2 * 41);
+        SudokuEngine engine = grid -> {
+            if (grid[0][0] == 3) throw new SolveCancelledException();
+            return SudokuEngine.BACKTRACKING.solve(grid);
+        };
+        ByteBuffer solutions = OffHeapBatchSolver.allocate(4);
+        for (int position = 0; position < 4 * 41; position += 1) {
+            solutions.put(position, (byte) 0x55);
+        }
+        try (OffHeapBatchSolver solver = new OffHeapBatchSolver(engine, 1)) {
+            assertEquals(2, solver.solve(puzzles, solutions));
+        }
+        int[][] grid = new int[9][9];
+        for (int index = 0; index < 4; index += 1) {
+            PackedPuzzleCodec.decodeNibbles(solutions, index * 41, grid);
+            boolean failed = index == 1 || index == 2;
+            assertEquals(failed ? PuzzleText.format(new int[9][9]) : TestPuzzles.HARD_PUZZLE_SOLUTION,
+                    PuzzleText.format(grid));
+        }
+    }
+
+    private static void assertAllSolved(ByteBuffer solutions, int count) {
+        int[][] grid = new int[9][9];
+        for (int index = 0; index < count; index += 1) {
+            PackedPuzzleCodec.decodeNibbles(solutions, index * 41, grid);
+            assertEquals(TestPuzzles.HARD_PUZZLE_SOLUTION, PuzzleText.format(grid));
+        }
+    }
+}
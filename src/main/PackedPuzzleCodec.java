@@ -0,0 +1,202 @@
+package main;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A compact binary encoding for puzzles and solved grids.
+ * <ul>
+ * <li>{@link Format#NIBBLE}: 4 bits per cell, row by row, the high nibble first. 81 cells take 41 bytes (the last
+ * low nibble is always zero), so every record has the same size and can be addressed by index.</li>
+ *
+ * <li>{@link Format#SPARSE}: an 81 bits clue bitmap (11 bytes, most significant bit first, a set bit marks a given)
+ * followed by the digits of the givens only, 4 bits each. A 17 clues puzzle takes 20 bytes and a 30 clues one 26
+ * bytes. Records are self delimiting: the bitmap's population count gives the number of digits that follow.</li>
+ * </ul>
+ * Empty cells are stored as zero, so both formats decode straight into the {@code int[][]} grid the solvers take.
+ */
+public final class PackedPuzzleCodec {
+
+    public enum Format {
+        NIBBLE,
+        SPARSE
+    }
+
+    public static final int CELLS = 81;
+
+    public static final int NIBBLE_RECORD_BYTES = 41;
+
+    public static final int CLUE_BITMAP_BYTES = 11;
+
+    public static final int MAX_SPARSE_RECORD_BYTES = CLUE_BITMAP_BYTES + NIBBLE_RECORD_BYTES;
+
+    /**
+     * The bit of cell 80 in the last byte of a clue bitmap, the other 7 bits being padding.
+     */
+    private static final int LAST_CELL_BIT = 0x80;
+
+    private PackedPuzzleCodec() {
+    }
+
+    /**
+     * @param grid the grid to be encoded
+     * @param format the encoding format
+     * @return the number of bytes the grid takes once encoded
+     */
+    public static int encodedLength(int[][] grid, Format format) {
+        if (format == Format.NIBBLE) return NIBBLE_RECORD_BYTES;
+        return CLUE_BITMAP_BYTES + (countGivens(grid) + 1) / 2;
+    }
+
+    public static byte[] encode(int[][] grid, Format format) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedLength(grid, format));
+        encode(grid, format, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * Encodes a grid at the buffer's position, advancing it.
+     * @param grid a 9x9 grid with values from 0 to 9
+     * @param format the encoding format
+     * @param buffer the buffer that receives the record
+     * @return the number of bytes written
+     * @throws IllegalArgumentException when the grid isn't 9x9 or has a value out of the 0 to 9 range
+     */
+    public static int encode(int[][] grid, Format format, ByteBuffer buffer) throws IllegalArgumentException {
+        int start = buffer.position();
+        if (format == Format.NIBBLE) {
+            encodeNibbles(grid, buffer, start);
+            buffer.position(start + NIBBLE_RECORD_BYTES);
+            return NIBBLE_RECORD_BYTES;
+        }
+        requireEncodable(grid);
+        int bitmapByte = 0;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (grid[cell / 9][cell % 9] != 0) bitmapByte |= 0x80 >>> (cell & 7);
+            if ((cell & 7) == 7 || cell == CELLS - 1) {
+                buffer.put((byte) bitmapByte);
+                bitmapByte = 0;
+            }
+        }
+        int pending = -1;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            int value = grid[cell / 9][cell % 9];
+            if (value == 0) continue;
+            if (pending < 0) {
+                pending = value << 4;
+            } else {
+                buffer.put((byte) (pending | value));
+                pending = -1;
+            }
+        }
+        if (pending >= 0) buffer.put((byte) pending);
+        return buffer.position() - start;
+    }
+
+    /**
+     * Encodes a grid in the {@link Format#NIBBLE} format at an absolute offset, without moving the buffer's position.
+     * @param grid a 9x9 grid with values from 0 to 9
+     * @param buffer the buffer that receives the record
+     * @param offset the absolute offset of the record
+     * @throws IllegalArgumentException when the grid isn't 9x9 or has a value out of the 0 to 9 range
+     */
+    public static void encodeNibbles(int[][] grid, ByteBuffer buffer, int offset) throws IllegalArgumentException {
+        requireEncodable(grid);
+        for (int cell = 0; cell < CELLS - 1; cell += 2) {
+            int high = grid[cell / 9][cell % 9];
+            int low = grid[(cell + 1) / 9][(cell + 1) % 9];
+            buffer.put(offset + cell / 2, (byte) (high << 4 | low));
+        }
+        buffer.put(offset + NIBBLE_RECORD_BYTES - 1, (byte) (grid[8][8] << 4));
+    }
+
+    public static int[][] decode(byte[] bytes, Format format) {
+        int[][] grid = new int[9][9];
+        decode(ByteBuffer.wrap(bytes), format, grid);
+        return grid;
+    }
+
+    /**
+     * Decodes the record at the buffer's position into an existing grid, advancing the position.
+     * @param buffer the buffer holding the record
+     * @param format the encoding format
+     * @param grid the 9x9 grid that receives the values
+     * @throws IllegalArgumentException when a decoded value is out of the 0 to 9 range
+     */
+    public static void decode(ByteBuffer buffer, Format format, int[][] grid) throws IllegalArgumentException {
+        int start = buffer.position();
+        if (format == Format.NIBBLE) {
+            decodeNibbles(buffer, start, grid);
+            buffer.position(start + NIBBLE_RECORD_BYTES);
+            return;
+        }
+        int digitIndex = 0;
+        int digitsStart = start + CLUE_BITMAP_BYTES;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            boolean isGiven = (buffer.get(start + (cell >>> 3)) & (0x80 >>> (cell & 7))) != 0;
+            int value = 0;
+            if (isGiven) {
+                int packed = buffer.get(digitsStart + (digitIndex >>> 1));
+                value = (digitIndex & 1) == 0 ? (packed >>> 4) & 0xF : packed & 0xF;
+                digitIndex += 1;
+                if (value == 0 || value > 9) throw new IllegalArgumentException("Invalid digit " + value +
+                        " at cell " + cell + ".");
+            }
+            grid[cell / 9][cell % 9] = value;
+        }
+        buffer.position(digitsStart + (digitIndex + 1) / 2);
+    }
+
+    /**
+     * Decodes a {@link Format#NIBBLE} record at an absolute offset, without moving the buffer's position.
+     * @param buffer the buffer holding the record
+     * @param offset the absolute offset of the record
+     * @param grid the 9x9 grid that receives the values
+     * @throws IllegalArgumentException when a decoded value is out of the 0 to 9 range
+     */
+    public static void decodeNibbles(ByteBuffer buffer, int offset, int[][] grid) throws IllegalArgumentException {
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            int packed = buffer.get(offset + (cell >>> 1));
+            int value = (cell & 1) == 0 ? (packed >>> 4) & 0xF : packed & 0xF;
+            if (value > 9) throw new IllegalArgumentException("Invalid digit " + value + " at cell " + cell + ".");
+            grid[cell / 9][cell % 9] = value;
+        }
+    }
+
+    /**
+     * Reads the length of a {@link Format#SPARSE} record from its clue bitmap. The 7 padding bits after cell 80 are
+     * ignored, as they are when decoding, so the length always matches the bytes {@link #decode} consumes.
+     * @param buffer the buffer holding at least the record's bitmap
+     * @param offset the absolute offset of the record
+     * @return the record's length in bytes
+     */
+    public static int sparseRecordLength(ByteBuffer buffer, int offset) {
+        int givens = 0;
+        for (int index = 0; index < CLUE_BITMAP_BYTES - 1; index += 1) {
+            givens += Integer.bitCount(buffer.get(offset + index) & 0xFF);
+        }
+        givens += Integer.bitCount(buffer.get(offset + CLUE_BITMAP_BYTES - 1) & LAST_CELL_BIT);
+        return CLUE_BITMAP_BYTES + (givens + 1) / 2;
+    }
+
+    private static int countGivens(int[][] grid) {
+        requireEncodable(grid);
+        int givens = 0;
+        for (int[] row : grid) {
+            for (int value : row) {
+                if (value != 0) givens += 1;
+            }
+        }
+        return givens;
+    }
+
+    private static void requireEncodable(int[][] grid) throws IllegalArgumentException {
+        if (grid == null || grid.length != 9) throw new IllegalArgumentException("It's not a 9x9 grid.");
+        for (int[] row : grid) {
+            if (row == null || row.length != 9) throw new IllegalArgumentException("It's not a 9x9 grid.");
+            for (int value : row) {
+                if (value < 0 || value > 9) throw new IllegalArgumentException("At least one element is not a " +
+                        "valid digit. Only digits from 1 to 9 or 0 for empty cells are allowed.");
+            }
+        }
+    }
+}
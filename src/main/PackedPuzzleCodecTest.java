@@ -0,0 +1,89 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+public class PackedPuzzleCodecTest {
+
+    private final int[][] samplePuzzle = {
+            {0, 0, 6, 1, 0, 0, 0, 0, 8},
+            {0, 8, 0, 0, 9, 0, 0, 3, 0},
+            {2, 0, 0, 0, 0, 5, 4, 0, 0},
+            {4, 0, 0, 0, 0, 1, 8, 0, 0},
+            {0, 3, 0, 0, 7, 0, 0, 4, 0},
+            {0, 0, 7, 9, 0, 0, 0, 0, 3},
+            {0, 0, 8, 4, 0, 0, 0, 0, 6},
+            {0, 2, 0, 0, 5, 0, 0, 8, 0},
+            {1, 0, 0, 0, 0, 2, 5, 0, 0}
+    };
+
+    @Test
+    public void testNibbleRoundTrip() {
+        byte[] encoded = PackedPuzzleCodec.encode(samplePuzzle, PackedPuzzleCodec.Format.NIBBLE);
+        assertEquals(PackedPuzzleCodec.NIBBLE_RECORD_BYTES, encoded.length);
+        assertEquals(0x61, encoded[1]);
+        assertArrayEquals(samplePuzzle, PackedPuzzleCodec.decode(encoded, PackedPuzzleCodec.Format.NIBBLE));
+    }
+
+    @Test
+    public void testSparseRoundTrip() {
+        byte[] encoded = PackedPuzzleCodec.encode(samplePuzzle, PackedPuzzleCodec.Format.SPARSE);
+        assertEquals(PackedPuzzleCodec.CLUE_BITMAP_BYTES + 14, encoded.length);
+        assertEquals(encoded.length, PackedPuzzleCodec.sparseRecordLength(ByteBuffer.wrap(encoded), 0));
+        assertArrayEquals(samplePuzzle, PackedPuzzleCodec.decode(encoded, PackedPuzzleCodec.Format.SPARSE));
+    }
+
+    @Test
+    public void testSparsePaddingBitsAreIgnored() {
+        byte[] encoded = PackedPuzzleCodec.encode(samplePuzzle, PackedPuzzleCodec.Format.SPARSE);
+        encoded[PackedPuzzleCodec.CLUE_BITMAP_BYTES - 1] |= 0x7F;
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        assertEquals(encoded.length, PackedPuzzleCodec.sparseRecordLength(buffer, 0));
+        int[][] grid = new int[9][9];
+        PackedPuzzleCodec.decode(buffer, PackedPuzzleCodec.Format.SPARSE, grid);
+        assertArrayEquals(samplePuzzle, grid);
+        assertEquals(encoded.length, buffer.position());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfRangeValueIsRejected() {
+        int[][] grid = new int[9][9];
+        grid[4][4] = 12;
+        PackedPuzzleCodec.encode(grid, PackedPuzzleCodec.Format.NIBBLE);
+    }
+
+    @Test
+    public void testBulkWriteAndRead() throws IOException {
+        Path file = Files.createTempFile("puzzles", ".bin");
+        try {
+            int[][] emptyGrid = new int[9][9];
+            for (PackedPuzzleCodec.Format format : PackedPuzzleCodec.Format.values()) {
+                try (PackedPuzzleWriter writer = new PackedPuzzleWriter(FileChannel.open(file,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), format)) {
+                    for (int index = 0; index < 5000; index += 1) {
+                        writer.write(index % 2 == 0 ? samplePuzzle : emptyGrid);
+                    }
+                }
+                int[][] grid = new int[9][9];
+                int read = 0;
+                try (PackedPuzzleReader reader = new PackedPuzzleReader(FileChannel.open(file), format)) {
+                    while (reader.next(grid)) {
+                        assertArrayEquals(read % 2 == 0 ? samplePuzzle : emptyGrid, grid);
+                        read += 1;
+                    }
+                }
+                assertEquals(5000, read);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads packed puzzles (see {@link PackedPuzzleCodec}) from a {@link FileChannel} through a reused direct buffer,
+ * decoding every record straight into the caller's grid. Reading a whole corpus allocates nothing per puzzle.
+ */
+public class PackedPuzzleReader implements Closeable {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+
+    private final PackedPuzzleCodec.Format format;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    private boolean endOfChannel;
+
+    public PackedPuzzleReader(FileChannel channel, PackedPuzzleCodec.Format format) {
+        this.channel = channel;
+        this.format = format;
+        buffer.limit(0);
+    }
+
+    /**
+     * Decodes the next puzzle into the given grid.
+     * @param grid the 9x9 grid that receives the values
+     * @return {@code true} when a puzzle was read, {@code false} at the end of the channel
+     * @throws IOException when the channel can't be read or ends in the middle of a record
+     */
+    public boolean next(int[][] grid) throws IOException {
+        int headerBytes = format == PackedPuzzleCodec.Format.NIBBLE
+                ? PackedPuzzleCodec.NIBBLE_RECORD_BYTES
+                : PackedPuzzleCodec.CLUE_BITMAP_BYTES;
+        if (!fill(headerBytes)) return false;
+        if (format == PackedPuzzleCodec.Format.SPARSE
+                && !fill(PackedPuzzleCodec.sparseRecordLength(buffer, buffer.position()))) {
+            throw new IOException("Truncated puzzle record.");
+        }
+        PackedPuzzleCodec.decode(buffer, format, grid);
+        return true;
+    }
+
+    /**
+     * Makes sure at least {@code bytes} bytes are available in the buffer.
+     * @return {@code false} when the channel ended cleanly on a record boundary
+     */
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) return true;
+        buffer.compact();
+        while (buffer.position() < bytes && !endOfChannel) {
+            if (channel.read(buffer) < 0) endOfChannel = true;
+        }
+        buffer.flip();
+        if (buffer.remaining() >= bytes) return true;
+        if (buffer.hasRemaining()) throw new IOException("Truncated puzzle record.");
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
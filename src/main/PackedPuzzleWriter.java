@@ -0,0 +1,59 @@
+package main;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Appends packed puzzles (see {@link PackedPuzzleCodec}) to a {@link FileChannel} through a reused direct buffer.
+ */
+public class PackedPuzzleWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+
+    private final PackedPuzzleCodec.Format format;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+    private long written;
+
+    public PackedPuzzleWriter(FileChannel channel, PackedPuzzleCodec.Format format) {
+        this.channel = channel;
+        this.format = format;
+    }
+
+    public void write(int[][] grid) throws IOException {
+        if (buffer.remaining() < PackedPuzzleCodec.MAX_SPARSE_RECORD_BYTES) flush();
+        PackedPuzzleCodec.encode(grid, format, buffer);
+        written += 1;
+    }
+
+    /**
+     * @return the number of puzzles written so far
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package main;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An engine that races several engines on the same puzzle, each on its own (virtual, when available) thread. The
+ * first answer wins, and the other engines are cancelled right away through a shared {@link CancellationToken}.
+ * <p>
+ * Every engine has a heavy tail on different puzzles, so the race cuts the tail latency of any single engine, for
+ * some extra CPU. That cost is set by two knobs: how many engines race, and how long the first engine runs alone
+ * before the others join (hedging). With a hedge delay around the first engine's usual p99, most puzzles cost a
+ * single engine and only the slow ones get raced.
+ * </p>
+ * <p>
+ * A puzzle found unsolvable or with multiple solutions is an answer too: the first {@link IllegalArgumentException}
+ * wins like a solution does. Any other error only surfaces if every engine failed.
+ * </p>
+ */
+public class PortfolioSudokuEngine implements SudokuEngine, AutoCloseable {
+
+    private final String[] names;
+
+    private final CancellableSudokuEngine[] engines;
+
+    private final LongAdder[] wins;
+
+    private final int racers;
+
+    private final long hedgeDelayNanos;
+
+    private final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("sudoku-portfolio");
+
+    /**
+     * Races the propagation and search engine, the SAT engine and the randomized restarts search, all started at
+     * once.
+     */
+    public PortfolioSudokuEngine() {
+        this(defaultEngines(), 3, Duration.ZERO);
+    }
+
+    /**
+     * @param engines the engines by name, in the order they join the race
+     * @param racers how many of the engines race on every puzzle, from 1 to the number of engines
+     * @param hedgeDelay how long the first engine runs alone before the other racers start, zero to start them all
+     * at once
+     */
+    public PortfolioSudokuEngine(Map<String, CancellableSudokuEngine> engines, int racers, Duration hedgeDelay) {
+        if (racers < 1 || racers > engines.size()) {
+            throw new IllegalArgumentException("The racers must be between 1 and the number of engines.");
+        }
+        if (hedgeDelay.isNegative()) throw new IllegalArgumentException("The hedge delay cannot be negative.");
+        this.names = engines.keySet().toArray(new String[0]);
+        this.engines = engines.values().toArray(new CancellableSudokuEngine[0]);
+        this.wins = new LongAdder[this.engines.length];
+        for (int engine = 0; engine < wins.length; engine += 1) {
+            wins[engine] = new LongAdder();
+        }
+        this.racers = racers;
+        this.hedgeDelayNanos = hedgeDelay.toNanos();
+    }
+
+    private static Map<String, CancellableSudokuEngine> defaultEngines() {
+        Map<String, CancellableSudokuEngine> engines = new LinkedHashMap<>();
+        engines.put(SudokuSolverBacktracking.ENGINE_NAME, CancellableSudokuEngine.BACKTRACKING);
+        engines.put(SudokuSolverSat.ENGINE_NAME, CancellableSudokuEngine.SAT);
+        engines.put("randomized-restarts", CancellableSudokuEngine.RANDOMIZED_RESTARTS);
+        return engines;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the puzzle is invalid, unsolvable or has multiple solutions
+     * @throws SolveCancelledException when the calling thread was interrupted while waiting
+     */
+    @Override
+    public int[][] solve(int[][] grid) throws IllegalArgumentException {
+        PuzzleValidator.validate(grid);
+        Race race = new Race(grid);
+        try {
+            race.start(0);
+            if (racers > 1 && hedgeDelayNanos > 0) {
+                try {
+                    return race.winner.get(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    // the first engine is slow on this puzzle, let the others race it
+                }
+            }
+            for (int engine = 1; engine < racers; engine += 1) {
+                race.start(engine);
+            }
+            return race.winner.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) throw (Error) cause;
+            throw (RuntimeException) cause;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SolveCancelledException();
+        } finally {
+            race.token.cancel();
+        }
+    }
+
+    /**
+     * @return how many races the engine won
+     * @throws IllegalArgumentException when there is no engine with that name
+     */
+    public long getWins(String engineName) throws IllegalArgumentException {
+        for (int engine = 0; engine < names.length; engine += 1) {
+            if (names[engine].equals(engineName)) return wins[engine].sum();
+        }
+        throw new IllegalArgumentException("Unknown engine '" + engineName + "'.");
+    }
+
+    /**
+     * Stops accepting puzzles. Races already running finish normally.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * The state shared by the engines racing on one puzzle.
+     */
+    private final class Race {
+
+        final int[][] grid;
+
+        final CancellationToken token = new CancellationToken();
+
+        final CompletableFuture<int[][]> winner = new CompletableFuture<>();
+
+        final AtomicInteger failures = new AtomicInteger();
+
+        /**
+         * Claimed by the first engine to answer, which counts its win before publishing the answer, so the win is
+         * counted by the time {@link #solve(int[][])} returns.
+         */
+        final AtomicBoolean answered = new AtomicBoolean();
+
+        Race(int[][] grid) {
+            this.grid = grid;
+        }
+
+        void start(int engine) {
+            executor.execute(() -> run(engine));
+        }
+
+        private void run(int engine) {
+            try {
+                int[][] solution = engines[engine].solve(grid, token);
+                if (answered.compareAndSet(false, true)) {
+                    wins[engine].increment();
+                    winner.complete(solution);
+                }
+            } catch (SolveCancelledException e) {
+                // another engine won
+            } catch (IllegalArgumentException e) {
+                if (answered.compareAndSet(false, true)) {
+                    wins[engine].increment();
+                    winner.completeExceptionally(e);
+                }
+            } catch (RuntimeException | Error e) {
+                if (failures.incrementAndGet() == racers) winner.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class PortfolioSudokuEngineTest {
+
+    private final int[][] hardPuzzle = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+
+    private final int[][] hardPuzzleSolution = PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION);
+
+    @Test
+    public void testDefaultPortfolioSolvesHardPuzzle() {
+        try (PortfolioSudokuEngine engine = new PortfolioSudokuEngine()) {
+            for (int run = 0; run < 10; run += 1) {
+                assertArrayEquals(hardPuzzleSolution, engine.solve(hardPuzzle));
+            }
+            assertEquals(10, engine.getWins(SudokuSolverBacktracking.ENGINE_NAME)
+                    + engine.getWins(SudokuSolverSat.ENGINE_NAME) + engine.getWins("randomized-restarts"));
+        }
+    }
+
+    @Test
+    public void testLosingEnginesAreCancelled() throws InterruptedException {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Map<String, CancellableSudokuEngine> engines = new LinkedHashMap<>();
+        engines.put("stuck", (grid, token) -> {
+            while (true) {
+                if (token.isCancelled()) {
+                    cancelled.countDown();
+                    throw new SolveCancelledException();
+                }
+                Thread.onSpinWait();
+            }
+        });
+        engines.put("backtracking", CancellableSudokuEngine.BACKTRACKING);
+        try (PortfolioSudokuEngine engine = new PortfolioSudokuEngine(engines, 2, Duration.ZERO)) {
+            assertArrayEquals(hardPuzzleSolution, engine.solve(hardPuzzle));
+            assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+            assertEquals(1, engine.getWins("backtracking"));
+            assertEquals(0, engine.getWins("stuck"));
+        }
+    }
+
+    @Test
+    public void testHedgedEnginesOnlyJoinSlowRaces() {
+        AtomicBoolean secondStarted = new AtomicBoolean();
+        Map<String, CancellableSudokuEngine> engines = new LinkedHashMap<>();
+        engines.put("backtracking", CancellableSudokuEngine.BACKTRACKING);
+        engines.put("sat", (grid, token) -> {
+            secondStarted.set(true);
+            return CancellableSudokuEngine.SAT.solve(grid, token);
+        });
+        try (PortfolioSudokuEngine engine = new PortfolioSudokuEngine(engines, 2, Duration.ofSeconds(10))) {
+            assertArrayEquals(hardPuzzleSolution, engine.solve(hardPuzzle));
+            assertFalse(secondStarted.get());
+        }
+    }
+
+    @Test
+    public void testUnsolvablePuzzleIsRejectedByTheFirstEngine() {
+        int[][] unsolvable = PuzzleText.parse(
+                "12345678.........9............912.........9122........9.........3................");
+        try (PortfolioSudokuEngine engine = new PortfolioSudokuEngine()) {
+            engine.solve(unsolvable);
+            fail("Expected the puzzle to be rejected.");
+        } catch (IllegalArgumentException e) {
+            assertEquals(SolveOutcome.UNSOLVABLE, SolveOutcome.of(e));
+        }
+    }
+}
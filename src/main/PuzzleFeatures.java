@@ -0,0 +1,75 @@
+package main;
+
+import static main.BoardGeometry.CELLS;
+
+/**
+ * Cheap features of a puzzle, measured after the givens were propagated with naked and hidden singles: the empty
+ * cells left, the candidate entropy (the sum of log2 of the candidate count of every empty cell, i.e. the bits of
+ * choice left) and the number of bivalue cells.
+ */
+public final class PuzzleFeatures {
+
+    private static final double LN_2 = Math.log(2);
+
+    private final boolean contradiction;
+
+    private final int emptyCells;
+
+    private final double entropy;
+
+    private final int bivalueCells;
+
+    private PuzzleFeatures(boolean contradiction, int emptyCells, double entropy, int bivalueCells) {
+        this.contradiction = contradiction;
+        this.emptyCells = emptyCells;
+        this.entropy = entropy;
+        this.bivalueCells = bivalueCells;
+    }
+
+    /**
+     * @param grid the puzzle grid
+     * @return the features of the puzzle
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle
+     */
+    public static PuzzleFeatures of(int[][] grid) throws IllegalArgumentException {
+        int[] candidates = new SudokuSolverBacktracking(grid, false).propagatedCandidates();
+        if (candidates == null) return new PuzzleFeatures(true, 0, 0.0, 0);
+        int emptyCells = 0;
+        double entropy = 0.0;
+        int bivalueCells = 0;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            int count = Integer.bitCount(candidates[cell]);
+            if (count < 2) continue;
+            emptyCells += 1;
+            entropy += Math.log(count) / LN_2;
+            if (count == 2) bivalueCells += 1;
+        }
+        return new PuzzleFeatures(false, emptyCells, entropy, bivalueCells);
+    }
+
+    /**
+     * @return whether propagating the givens already proved the puzzle unsolvable
+     */
+    public boolean isContradiction() {
+        return contradiction;
+    }
+
+    public int getEmptyCells() {
+        return emptyCells;
+    }
+
+    public double getEntropy() {
+        return entropy;
+    }
+
+    public int getBivalueCells() {
+        return bivalueCells;
+    }
+
+    @Override
+    public String toString() {
+        if (contradiction) return "contradiction";
+        return String.format("%d empty cells, %.1f bits of entropy, %d bivalue cells", emptyCells, entropy,
+                bivalueCells);
+    }
+}
@@ -0,0 +1,210 @@
+package main;
+
+import static main.BoardGeometry.ALL_DIGITS;
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.COLUMN_OF;
+import static main.BoardGeometry.QUADRANT_OF;
+import static main.BoardGeometry.ROW_OF;
+import static main.BoardGeometry.SIZE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates puzzles with a unique solution and a given {@link Difficulty}.
+ * <p>
+ * A puzzle starts as a random full grid. Clues are then removed in a random order, one symmetry orbit at a time, and a removal is
+ * undone when the puzzle gets harder than the target. While the logical methods solve the puzzle its solution is
+ * unique by construction; once they get stuck (only for a {@link Difficulty#VERY_HARD} target) uniqueness is checked
+ * with a search that stops at the second solution. When no clue can be removed anymore and the puzzle isn't as hard
+ * as the target, a new full grid is tried.
+ * </p>
+ * <p>
+ * Batches are generated by a fixed pool of workers that claim puzzle indices, and puzzle {@code i} of a batch only
+ * depends on the batch seed and {@code i}, so a batch is the same for any number of workers.
+ * </p>
+ */
+public class PuzzleGenerator implements AutoCloseable {
+
+    /**
+     * The clue patterns a generated puzzle can keep: removing a clue also removes its images.
+     */
+    public enum Symmetry {
+        NONE,
+        /**
+         * Symmetric under a half turn around the center.
+         */
+        ROTATIONAL,
+        /**
+         * Symmetric under a reflection across the middle column.
+         */
+        MIRROR;
+
+        /**
+         * @return the image of the cell
+         */
+        int imageOf(int cell) {
+            switch (this) {
+                case ROTATIONAL:
+                    return CELLS - 1 - cell;
+                case MIRROR:
+                    return ROW_OF[cell] * SIZE + SIZE - 1 - COLUMN_OF[cell];
+                default:
+                    return cell;
+            }
+        }
+    }
+
+    private final Difficulty difficulty;
+
+    private final Symmetry symmetry;
+
+    private final int workers;
+
+    private final ExecutorService executor;
+
+    public PuzzleGenerator(Difficulty difficulty, Symmetry symmetry, int workers) {
+        if (workers < 1) throw new IllegalArgumentException("At least one worker is required.");
+        this.difficulty = difficulty;
+        this.symmetry = symmetry;
+        this.workers = workers;
+        this.executor = Executors.newFixedThreadPool(workers, VirtualThreads.daemonThreadFactory("sudoku-generator"));
+    }
+
+    public PuzzleGenerator(Difficulty difficulty, Symmetry symmetry) {
+        this(difficulty, symmetry, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Generates a batch of puzzles on the workers.
+     * @param count the number of puzzles
+     * @param seed the seed of the batch
+     * @return the puzzles, in index order
+     * @throws InterruptedException when interrupted while waiting for the workers
+     */
+    public List<int[][]> generate(int count, long seed) throws InterruptedException {
+        long[] seeds = new long[count];
+        SplittableRandom seedSource = new SplittableRandom(seed);
+        for (int index = 0; index < count; index += 1) {
+            seeds[index] = seedSource.nextLong();
+        }
+        int[][][] puzzles = new int[count][][];
+        AtomicInteger nextIndex = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker += 1) {
+            futures.add(executor.submit(() -> {
+                int index;
+                while ((index = nextIndex.getAndIncrement()) < count) {
+                    puzzles[index] = generate(difficulty, symmetry, new SplittableRandom(seeds[index]));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException exception) {
+                throw new IllegalStateException("A generator worker failed.", exception.getCause());
+            }
+        }
+        return Arrays.asList(puzzles);
+    }
+
+    /**
+     * Generates a puzzle on the calling thread.
+     * @param difficulty the difficulty of the puzzle
+     * @param symmetry the symmetry of its clues
+     * @param random the source of randomness
+     * @return a puzzle with a unique solution
+     */
+    public static int[][] generate(Difficulty difficulty, Symmetry symmetry, SplittableRandom random) {
+        int[] orbits = new int[CELLS];
+        while (true) {
+            int[][] puzzle = randomSolution(random);
+            int orbitCount = 0;
+            for (int cell = 0; cell < CELLS; cell += 1) {
+                if (symmetry.imageOf(cell) >= cell) orbits[orbitCount++] = cell;
+            }
+            for (int index = orbitCount - 1; index > 0; index -= 1) {
+                int other = random.nextInt(index + 1);
+                int swap = orbits[index];
+                orbits[index] = orbits[other];
+                orbits[other] = swap;
+            }
+            Difficulty rating = Difficulty.EASY;
+            for (int index = 0; index < orbitCount; index += 1) {
+                int cell = orbits[index];
+                int image = symmetry.imageOf(cell);
+                int digit = puzzle[ROW_OF[cell]][COLUMN_OF[cell]];
+                int imageDigit = puzzle[ROW_OF[image]][COLUMN_OF[image]];
+                puzzle[ROW_OF[cell]][COLUMN_OF[cell]] = 0;
+                puzzle[ROW_OF[image]][COLUMN_OF[image]] = 0;
+                Difficulty candidate = Difficulty.of(puzzle, difficulty);
+                if (candidate.compareTo(difficulty) > 0 || candidate == Difficulty.VERY_HARD && !isUnique(puzzle)) {
+                    puzzle[ROW_OF[cell]][COLUMN_OF[cell]] = digit;
+                    puzzle[ROW_OF[image]][COLUMN_OF[image]] = imageDigit;
+                } else {
+                    rating = candidate;
+                }
+            }
+            if (rating == difficulty) return puzzle;
+        }
+    }
+
+    /**
+     * @return a random full grid, filled cell by cell with a random digit among the ones its row, column and quadrant
+     * still allow, backtracking on dead ends
+     */
+    static int[][] randomSolution(SplittableRandom random) {
+        int[] values = new int[CELLS];
+        int[] unitMasks = new int[3 * SIZE];
+        int[] triedDigits = new int[CELLS];
+        int cell = 0;
+        while (cell < CELLS) {
+            int row = ROW_OF[cell];
+            int column = SIZE + COLUMN_OF[cell];
+            int quadrant = 2 * SIZE + QUADRANT_OF[cell];
+            if (values[cell] != 0) {
+                int bit = 1 << (values[cell] - 1);
+                unitMasks[row] &= ~bit;
+                unitMasks[column] &= ~bit;
+                unitMasks[quadrant] &= ~bit;
+                values[cell] = 0;
+            }
+            int digits = ALL_DIGITS
+                    & ~(unitMasks[row] | unitMasks[column] | unitMasks[quadrant] | triedDigits[cell]);
+            if (digits == 0) {
+                triedDigits[cell] = 0;
+                cell -= 1;
+                continue;
+            }
+            int bit = digits;
+            for (int skip = random.nextInt(Integer.bitCount(digits)); skip > 0; skip -= 1) {
+                bit &= bit - 1;
+            }
+            bit &= -bit;
+            triedDigits[cell] |= bit;
+            values[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+            unitMasks[row] |= bit;
+            unitMasks[column] |= bit;
+            unitMasks[quadrant] |= bit;
+            cell += 1;
+        }
+        return BoardGeometry.toGrid(values);
+    }
+
+    static boolean isUnique(int[][] puzzle) {
+        return new SudokuSolverBacktracking(puzzle, false).countSolutions(2) == 1;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,60 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+public class PuzzleGeneratorTest {
+
+    @Test
+    public void testGeneratedPuzzlesHaveTheTargetDifficulty() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (Difficulty difficulty : Difficulty.values()) {
+            int[][] puzzle = PuzzleGenerator.generate(difficulty, PuzzleGenerator.Symmetry.NONE, random);
+            assertEquals(difficulty, Difficulty.of(puzzle));
+            assertTrue(PuzzleGenerator.isUnique(puzzle));
+        }
+    }
+
+    @Test
+    public void testSymmetricClues() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (PuzzleGenerator.Symmetry symmetry : PuzzleGenerator.Symmetry.values()) {
+            int[][] puzzle = PuzzleGenerator.generate(Difficulty.MEDIUM, symmetry, random);
+            for (int cell = 0; cell < BoardGeometry.CELLS; cell += 1) {
+                int image = symmetry.imageOf(cell);
+                assertEquals(puzzle[cell / 9][cell % 9] == 0, puzzle[image / 9][image % 9] == 0);
+            }
+        }
+    }
+
+    @Test
+    public void testBatchesDependOnlyOnTheSeed() throws InterruptedException {
+        List<int[][]> single;
+        List<int[][]> parallel;
+        try (PuzzleGenerator generator = new PuzzleGenerator(Difficulty.EASY, PuzzleGenerator.Symmetry.ROTATIONAL, 1)) {
+            single = generator.generate(20, 11);
+        }
+        try (PuzzleGenerator generator = new PuzzleGenerator(Difficulty.EASY, PuzzleGenerator.Symmetry.ROTATIONAL, 4)) {
+            parallel = generator.generate(20, 11);
+        }
+        assertEquals(20, parallel.size());
+        for (int index = 0; index < single.size(); index += 1) {
+            assertArrayEquals(single.get(index), parallel.get(index));
+        }
+    }
+
+    @Test
+    public void testRandomSolutionIsAValidFullGrid() {
+        int[][] grid = PuzzleGenerator.randomSolution(new SplittableRandom(1));
+        assertTrue(PuzzleValidator.isValid(grid));
+        for (int[] row : grid) {
+            for (int value : row) {
+                assertTrue(value != 0);
+            }
+        }
+    }
+}
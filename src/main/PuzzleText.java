@@ -0,0 +1,67 @@
+package main;
+
+/**
+ * Conversions between the usual one-line text format of a puzzle (81 characters, row by row, where {@code 0} or
+ * {@code .} marks an empty cell) and the {@code int[][]} grid used by the solvers.
+ */
+public final class PuzzleText {
+
+    public static final int LENGTH = 81;
+
+    private PuzzleText() {
+    }
+
+    /**
+     * Parses an 81 characters line into a new 9x9 grid.
+     * @param line the puzzle line, surrounding whitespace is ignored
+     * @return a new grid with the puzzle values
+     * @throws IllegalArgumentException when the line doesn't have 81 cells or has an invalid character
+     */
+    public static int[][] parse(CharSequence line) throws IllegalArgumentException {
+        int[][] grid = new int[9][9];
+        parseInto(line, grid);
+        return grid;
+    }
+
+    /**
+     * Parses an 81 characters line into an existing 9x9 grid, so bulk readers can reuse the same grid.
+     * @param line the puzzle line, surrounding whitespace is ignored
+     * @param grid the 9x9 grid that receives the puzzle values
+     * @throws IllegalArgumentException when the line doesn't have 81 cells or has an invalid character
+     */
+    public static void parseInto(CharSequence line, int[][] grid) throws IllegalArgumentException {
+        int start = 0;
+        int end = line.length();
+        while (start < end && Character.isWhitespace(line.charAt(start))) start += 1;
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) end -= 1;
+        if (end - start != LENGTH) throw new IllegalArgumentException("A puzzle line must have exactly " + LENGTH +
+                " cells, found " + (end - start) + ".");
+        for (int cell = 0; cell < LENGTH; cell += 1) {
+            char character = line.charAt(start + cell);
+            int value;
+            if (character == '.' || character == '0') {
+                value = 0;
+            } else if (character >= '1' && character <= '9') {
+                value = character - '0';
+            } else {
+                throw new IllegalArgumentException("Invalid character '" + character + "' at cell " + cell + ".");
+            }
+            grid[cell / 9][cell % 9] = value;
+        }
+    }
+
+    /**
+     * Formats a 9x9 grid as a single 81 characters line, using {@code 0} for empty cells.
+     * @param grid the grid to format
+     * @return the puzzle line
+     */
+    public static String format(int[][] grid) {
+        StringBuilder builder = new StringBuilder(LENGTH);
+        for (int[] row : grid) {
+            for (int value : row) {
+                builder.append((char) ('0' + value));
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,85 @@
+package main;
+
+import static main.BoardGeometry.ALL_DIGITS;
+
+/**
+ * Validates a puzzle grid without allocating anything, before any solver state is built.
+ * <p>
+ * Besides the shape (9 rows of 9 elements) and the range of every element (0 for an empty cell, or a digit from 1 to
+ * 9), it checks that no digit is given twice in the same row, column or quadrant. Such puzzles have no solution and
+ * used to make the solve loop spin forever. The units are checked by index, the row, column and quadrant of the same
+ * index together, each with a 9 bits mask of the digits already seen held in a local, so validating allocates
+ * nothing.
+ * </p>
+ */
+public final class PuzzleValidator {
+
+    private static final String[] UNIT_NAMES = { "row", "column", "quadrant" };
+
+    private PuzzleValidator() {
+    }
+
+    /**
+     * @param grid the puzzle grid
+     * @throws IllegalArgumentException when the grid isn't 9x9, has an invalid element or the same digit twice in a
+     * row, column or quadrant
+     */
+    public static void validate(int[][] grid) throws IllegalArgumentException {
+        String problem = findProblem(grid);
+        if (problem != null) throw new IllegalArgumentException(problem);
+    }
+
+    /**
+     * Same checks as {@link #validate(int[][])}, without building an exception.
+     * @param grid the puzzle grid
+     * @return {@code true} if the grid is a valid puzzle
+     */
+    public static boolean isValid(int[][] grid) {
+        return findProblem(grid) == null;
+    }
+
+    /**
+     * @param grid the puzzle grid
+     * @return a description of the first problem found, or {@code null} when the grid is valid
+     */
+    static String findProblem(int[][] grid) {
+        if (grid == null) return "Puzzle grid cannot be null.";
+        if (grid.length != 9) return "It's not a 9x9 grid.";
+        for (int rowIndex = 0; rowIndex < 9; rowIndex += 1) {
+            int[] row = grid[rowIndex];
+            if (row == null || row.length != 9) return "The row at " + rowIndex + " index has an invalid length.";
+            for (int element : row) {
+                if (element < 0 || element > 9) return "At least one element is not a valid digit. Only digits from " +
+                        "1 to 9 are allowed.";
+            }
+        }
+        for (int unitIndex = 0; unitIndex < 9; unitIndex += 1) {
+            int rowMask = 0;
+            int columnMask = 0;
+            int quadrantMask = 0;
+            int firstRow = unitIndex / 3 * 3;
+            int firstColumn = unitIndex % 3 * 3;
+            for (int index = 0; index < 9; index += 1) {
+                int inRow = grid[unitIndex][index];
+                int inColumn = grid[index][unitIndex];
+                int inQuadrant = grid[firstRow + index / 3][firstColumn + index % 3];
+                // an empty cell sets no bit: 1 << -1 is the sign bit, outside of the digit masks
+                int rowBit = 1 << (inRow - 1) & ALL_DIGITS;
+                int columnBit = 1 << (inColumn - 1) & ALL_DIGITS;
+                int quadrantBit = 1 << (inQuadrant - 1) & ALL_DIGITS;
+                if ((rowMask & rowBit) != 0) return duplicate(inRow, 0, unitIndex);
+                if ((columnMask & columnBit) != 0) return duplicate(inColumn, 1, unitIndex);
+                if ((quadrantMask & quadrantBit) != 0) return duplicate(inQuadrant, 2, unitIndex);
+                rowMask |= rowBit;
+                columnMask |= columnBit;
+                quadrantMask |= quadrantBit;
+            }
+        }
+        return null;
+    }
+
+    private static String duplicate(int digit, int unitType, int unitIndex) {
+        return "Invalid puzzle. The digit " + digit + " appears more than once in " + UNIT_NAMES[unitType] + " " +
+                unitIndex + ".";
+    }
+}
@@ -0,0 +1,374 @@
+package main;
+
+import static main.BoardGeometry.ALL_DIGITS;
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.SIZE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks completed grids, e.g. the solutions users submit, without building any solver state.
+ * <p>
+ * Every cell's digit becomes a one bit mask, and the masks are ORed into the masks of its row, column and quadrant in
+ * a single pass over the grid. A unit has 9 cells, so it holds every digit exactly once if and only if its mask has
+ * all 9 bits: the grid is a solution when the 27 masks equal {@link BoardGeometry#ALL_DIGITS}. An empty cell, or
+ * anything that isn't a digit, gets an empty mask, so its units can't be complete.
+ * </p>
+ * <p>
+ * Grids are checked as {@code int[][]}, as 81 characters lines (see {@link PuzzleText}) or as
+ * {@link PackedPuzzleCodec.Format#NIBBLE} records. Files are checked in bulk, streamed in chunks of
+ * {@value #CHUNK_BYTES} bytes that the workers claim and read with positional reads, so a file of any size is
+ * checked with a heap footprint that only depends on the number of workers.
+ * </p>
+ */
+public final class SolutionChecker implements AutoCloseable {
+
+    static final int CHUNK_BYTES = 1 << 20;
+
+    private static final int BAND_CELLS = CELLS / 3;
+
+    private static final int ALL_QUADRANTS = ALL_DIGITS | ALL_DIGITS << SIZE | ALL_DIGITS << 2 * SIZE;
+
+    private static final long ALL_LEFT_COLUMNS = (1L << 7 * SIZE) - 1;
+
+    private static final long ALL_RIGHT_COLUMNS = (1L << 2 * SIZE) - 1;
+
+    /**
+     * The digit mask of every byte of a text line, 0 for anything that isn't a digit from 1 to 9.
+     */
+    private static final int[] CHARACTER_BITS = new int[256];
+
+    /**
+     * The digit mask of every nibble of a packed record.
+     */
+    private static final int[] NIBBLE_BITS = new int[16];
+
+    static {
+        for (int digit = 1; digit <= SIZE; digit += 1) {
+            CHARACTER_BITS['0' + digit] = 1 << (digit - 1);
+            NIBBLE_BITS[digit] = 1 << (digit - 1);
+        }
+    }
+
+    /**
+     * The digit masks of the grid a single check is on, per thread. Every check writes all the cells before reading
+     * them, so the array is never cleared.
+     */
+    private static final ThreadLocal<int[]> CELL_BITS = ThreadLocal.withInitial(() -> new int[CELLS]);
+
+    private static final int RECORD_BYTES = PackedPuzzleCodec.NIBBLE_RECORD_BYTES;
+
+    /**
+     * The longest line a text file can have: 81 cells, a carriage return and a line feed.
+     */
+    private static final int MAX_LINE_BYTES = PuzzleText.LENGTH + 2;
+
+    private final int workers;
+
+    private final ExecutorService executor;
+
+    /**
+     * The grids of a bulk check, and which of them aren't solutions.
+     */
+    public static final class Report {
+
+        private final long grids;
+
+        private final long invalidGrids;
+
+        private final long firstInvalidIndex;
+
+        Report(long grids, long invalidGrids, long firstInvalidIndex) {
+            this.grids = grids;
+            this.invalidGrids = invalidGrids;
+            this.firstInvalidIndex = firstInvalidIndex;
+        }
+
+        public long getGrids() {
+            return grids;
+        }
+
+        public long getInvalidGrids() {
+            return invalidGrids;
+        }
+
+        /**
+         * @return the 0-indexed position of the first grid that isn't a solution, or -1 when they all are
+         */
+        public long getFirstInvalidIndex() {
+            return firstInvalidIndex;
+        }
+
+        @Override
+        public String toString() {
+            return grids + " grids, " + invalidGrids + " invalid" + (firstInvalidIndex < 0 ? ""
+                    : ", the first one at index " + firstInvalidIndex);
+        }
+    }
+
+    /**
+     * @param workers the number of threads checking the chunks of a file
+     */
+    public SolutionChecker(int workers) {
+        if (workers < 1) throw new IllegalArgumentException("At least one worker is required.");
+        this.workers = workers;
+        this.executor = Executors.newFixedThreadPool(workers, VirtualThreads.daemonThreadFactory("sudoku-check"));
+    }
+
+    public SolutionChecker() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param grid the grid to check
+     * @return {@code true} when the grid is 9x9 and every row, column and quadrant holds every digit once
+     */
+    public static boolean isSolution(int[][] grid) {
+        if (grid == null || grid.length != SIZE) return false;
+        int[] bits = CELL_BITS.get();
+        for (int row = 0; row < SIZE; row += 1) {
+            if (grid[row] == null || grid[row].length != SIZE) return false;
+            for (int column = 0; column < SIZE; column += 1) {
+                bits[row * SIZE + column] = bitOf(grid[row][column]);
+            }
+        }
+        return unitsComplete(bits);
+    }
+
+    /**
+     * @param line an 81 characters line, surrounding whitespace is ignored
+     * @return {@code true} when the line is a grid whose rows, columns and quadrants hold every digit once
+     */
+    public static boolean isSolution(CharSequence line) {
+        int start = 0;
+        int end = line.length();
+        while (start < end && Character.isWhitespace(line.charAt(start))) start += 1;
+        while (end > start && Character.isWhitespace(line.charAt(end - 1))) end -= 1;
+        if (end - start != PuzzleText.LENGTH) return false;
+        int[] bits = CELL_BITS.get();
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            bits[cell] = bitOf(line.charAt(start + cell) - '0');
+        }
+        return unitsComplete(bits);
+    }
+
+    /**
+     * @param buffer a buffer of {@link PackedPuzzleCodec.Format#NIBBLE} records, whose position isn't moved
+     * @param offset the absolute offset of the record
+     * @return {@code true} when the record is a grid whose rows, columns and quadrants hold every digit once
+     */
+    public static boolean isSolution(ByteBuffer buffer, int offset) {
+        int[] bits = CELL_BITS.get();
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            int packed = buffer.get(offset + (cell >>> 1));
+            bits[cell] = NIBBLE_BITS[(cell & 1) == 0 ? (packed >>> 4) & 0xF : packed & 0xF];
+        }
+        return unitsComplete(bits);
+    }
+
+    /**
+     * @return the mask of a digit, or 0 for anything that isn't a digit from 1 to 9
+     */
+    private static int bitOf(int value) {
+        return value >= 1 && value <= SIZE ? 1 << (value - 1) : 0;
+    }
+
+    /**
+     * @param bits the digit mask of every cell
+     * @return {@code true} when the masks of the 27 units all have the 9 digits
+     */
+    static boolean unitsComplete(int[] bits) {
+        // columns 0 to 6 are 9 bits fields of the first word, columns 7 and 8 of the second one, and the quadrants of
+        // the current band are 9 bits fields of a single int
+        long leftColumns = 0L;
+        long rightColumns = 0L;
+        int missing = 0;
+        for (int band = 0; band < CELLS; band += BAND_CELLS) {
+            int quadrants = 0;
+            for (int cell = band; cell < band + BAND_CELLS; cell += SIZE) {
+                int first = bits[cell];
+                int second = bits[cell + 1];
+                int third = bits[cell + 2];
+                int fourth = bits[cell + 3];
+                int fifth = bits[cell + 4];
+                int sixth = bits[cell + 5];
+                int seventh = bits[cell + 6];
+                int eighth = bits[cell + 7];
+                int ninth = bits[cell + 8];
+                int left = first | second | third;
+                int middle = fourth | fifth | sixth;
+                int right = seventh | eighth | ninth;
+                missing |= (left | middle | right) ^ ALL_DIGITS;
+                quadrants |= left | middle << SIZE | right << 2 * SIZE;
+                leftColumns |= first | (long) second << SIZE | (long) third << 2 * SIZE | (long) fourth << 3 * SIZE
+                        | (long) fifth << 4 * SIZE | (long) sixth << 5 * SIZE | (long) seventh << 6 * SIZE;
+                rightColumns |= eighth | (long) ninth << SIZE;
+            }
+            missing |= quadrants ^ ALL_QUADRANTS;
+        }
+        return missing == 0 && leftColumns == ALL_LEFT_COLUMNS && rightColumns == ALL_RIGHT_COLUMNS;
+    }
+
+    /**
+     * Checks every {@link PackedPuzzleCodec.Format#NIBBLE} record of a file, from its beginning. A trailing partial
+     * record counts as an invalid grid.
+     * @param channel the file channel, which is read with positional reads and isn't closed
+     * @return the report of the check
+     * @throws IOException when the file can't be read
+     * @throws InterruptedException when interrupted while waiting for the workers
+     */
+    public Report checkPacked(FileChannel channel) throws IOException, InterruptedException {
+        return check(channel, false);
+    }
+
+    /**
+     * Checks every line of a text file of 81 characters lines, ended by {@code \n} or {@code \r\n}. Blank lines are
+     * skipped, and a line of any other length counts as an invalid grid.
+     * @param channel the file channel, which is read with positional reads and isn't closed
+     * @return the report of the check
+     * @throws IOException when the file can't be read
+     * @throws InterruptedException when interrupted while waiting for the workers
+     */
+    public Report checkText(FileChannel channel) throws IOException, InterruptedException {
+        return check(channel, true);
+    }
+
+    private Report check(FileChannel channel, boolean text) throws IOException, InterruptedException {
+        long size = channel.size();
+        // packed chunks hold whole records, text chunks hold the lines that start in them
+        long chunkBytes = text ? CHUNK_BYTES : CHUNK_BYTES / RECORD_BYTES * RECORD_BYTES;
+        int chunks = Math.toIntExact((size + chunkBytes - 1) / chunkBytes);
+        long[][] results = new long[chunks][];
+        AtomicInteger nextChunk = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker += 1) {
+            futures.add(executor.submit(() -> {
+                byte[] bytes = new byte[(int) chunkBytes + MAX_LINE_BYTES + 1];
+                int chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                    long start = chunk * chunkBytes;
+                    long end = Math.min(size, start + chunkBytes);
+                    results[chunk] = text ? checkLines(channel, bytes, start, end, size)
+                            : checkRecords(channel, bytes, start, end);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException exception) {
+                if (exception.getCause() instanceof IOException) throw (IOException) exception.getCause();
+                throw new IllegalStateException("A check worker failed.", exception.getCause());
+            }
+        }
+        long grids = 0;
+        long invalidGrids = 0;
+        long firstInvalidIndex = -1;
+        for (long[] result : results) {
+            if (firstInvalidIndex < 0 && result[2] >= 0) firstInvalidIndex = grids + result[2];
+            grids += result[0];
+            invalidGrids += result[1];
+        }
+        return new Report(grids, invalidGrids, firstInvalidIndex);
+    }
+
+    /**
+     * @return the grids of the chunk, the invalid ones, and the index of the first invalid one in the chunk or -1
+     */
+    private static long[] checkRecords(FileChannel channel, byte[] bytes, long start, long end) throws IOException {
+        int length = (int) (end - start);
+        read(channel, ByteBuffer.wrap(bytes, 0, length), start);
+        int[] bits = new int[CELLS];
+        long[] result = {0, 0, -1};
+        for (int offset = 0; offset < length; offset += RECORD_BYTES) {
+            boolean solution = offset + RECORD_BYTES <= length;
+            if (solution) {
+                decodeRecord(bytes, offset, bits);
+                solution = unitsComplete(bits);
+            }
+            count(result, solution);
+        }
+        return result;
+    }
+
+    /**
+     * Checks the lines that start between {@code start} and {@code end}, reading past the end for the last one.
+     */
+    private static long[] checkLines(FileChannel channel, byte[] bytes, long start, long end, long size)
+            throws IOException {
+        // one byte before the chunk tells whether its first line starts at the chunk or in the previous one
+        long readStart = start == 0 ? 0 : start - 1;
+        int length = (int) (Math.min(size, end + MAX_LINE_BYTES) - readStart);
+        read(channel, ByteBuffer.wrap(bytes, 0, length), readStart);
+        int chunkEnd = (int) (end - readStart);
+        int position = (int) (start - readStart);
+        if (start > 0 && bytes[0] != '\n') {
+            while (position < length && bytes[position - 1] != '\n') position += 1;
+        }
+        int[] bits = new int[CELLS];
+        long[] result = {0, 0, -1};
+        while (position < chunkEnd) {
+            int lineEnd = position;
+            while (lineEnd < length && bytes[lineEnd] != '\n') lineEnd += 1;
+            int next = lineEnd + 1;
+            if (lineEnd > position && bytes[lineEnd - 1] == '\r') lineEnd -= 1;
+            if (lineEnd - position == PuzzleText.LENGTH) {
+                for (int cell = 0; cell < CELLS; cell += 1) {
+                    bits[cell] = CHARACTER_BITS[bytes[position + cell] & 0xFF];
+                }
+                count(result, unitsComplete(bits));
+            } else if (!isBlank(bytes, position, lineEnd)) {
+                count(result, false);
+            }
+            position = next;
+        }
+        return result;
+    }
+
+    private static void decodeRecord(byte[] bytes, int offset, int[] bits) {
+        for (int cell = 0; cell < CELLS - 1; cell += 2) {
+            int packed = bytes[offset + (cell >>> 1)];
+            bits[cell] = NIBBLE_BITS[(packed >>> 4) & 0xF];
+            bits[cell + 1] = NIBBLE_BITS[packed & 0xF];
+        }
+        bits[CELLS - 1] = NIBBLE_BITS[(bytes[offset + CELLS / 2] >>> 4) & 0xF];
+    }
+
+    private static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int position = from; position < to; position += 1) {
+            if (!Character.isWhitespace(bytes[position])) return false;
+        }
+        return true;
+    }
+
+    private static void count(long[] result, boolean solution) {
+        if (!solution) {
+            if (result[2] < 0) result[2] = result[0];
+            result[1] += 1;
+        }
+        result[0] += 1;
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("The file ended while it was being checked.");
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
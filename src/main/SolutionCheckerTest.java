@@ -0,0 +1,103 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+public class SolutionCheckerTest {
+
+    @Test
+    public void testSingleGrids() {
+        int[][] grid = PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION);
+        assertTrue(SolutionChecker.isSolution(grid));
+        assertTrue(SolutionChecker.isSolution(" " + TestPuzzles.HARD_PUZZLE_SOLUTION + "\n"));
+        assertTrue(SolutionChecker.isSolution(ByteBuffer.wrap(PackedPuzzleCodec.encode(grid,
+                PackedPuzzleCodec.Format.NIBBLE)), 0));
+        // swapping two cells of a row keeps the row complete but breaks two columns
+        int swap = grid[0][0];
+        grid[0][0] = grid[0][1];
+        grid[0][1] = swap;
+        assertFalse(SolutionChecker.isSolution(grid));
+        grid[0][1] = grid[0][0];
+        grid[0][0] = 0;
+        assertFalse(SolutionChecker.isSolution(grid));
+        grid[0][0] = 33;
+        assertFalse(SolutionChecker.isSolution(grid));
+        assertFalse(SolutionChecker.isSolution(new int[9][8]));
+        assertFalse(SolutionChecker.isSolution(TestPuzzles.HARD_PUZZLE_SOLUTION.substring(1)));
+        assertFalse(SolutionChecker.isSolution(TestPuzzles.HARD_PUZZLE_SOLUTION.replace('4', 'x')));
+    }
+
+    @Test
+    public void testUnitsMustBeComplete() {
+        // every row and column is a permutation, but the quadrants aren't
+        StringBuilder latinSquare = new StringBuilder();
+        for (int row = 0; row < 9; row += 1) {
+            for (int column = 0; column < 9; column += 1) {
+                latinSquare.append((row + column) % 9 + 1);
+            }
+        }
+        assertFalse(SolutionChecker.isSolution(latinSquare));
+    }
+
+    @Test
+    public void testTextFileAcrossChunks() throws IOException, InterruptedException {
+        String solution = TestPuzzles.HARD_PUZZLE_SOLUTION;
+        String invalid = solution.substring(1, 2) + solution.charAt(0) + solution.substring(2);
+        Path file = Files.createTempFile("solutions", ".txt");
+        try {
+            StringBuilder text = new StringBuilder();
+            int lines = 3 * SolutionChecker.CHUNK_BYTES / 82;
+            for (int index = 0; index < lines; index += 1) {
+                text.append(index == 20000 || index == 30001 ? invalid : TestPuzzles.HARD_PUZZLE_SOLUTION)
+                        .append(index % 3 == 0 ? "\r\n" : "\n");
+                if (index % 1000 == 0) text.append('\n');
+            }
+            text.append("123\n");
+            Files.write(file, text.toString().getBytes(StandardCharsets.US_ASCII));
+            try (SolutionChecker checker = new SolutionChecker(3);
+                 FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                SolutionChecker.Report report = checker.checkText(channel);
+                assertEquals(lines + 1, report.getGrids());
+                assertEquals(3, report.getInvalidGrids());
+                assertEquals(20000, report.getFirstInvalidIndex());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testPackedFileAcrossChunks() throws IOException, InterruptedException {
+        Path file = Files.createTempFile("solutions", ".bin");
+        try {
+            int[][] solution = PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION);
+            int[][] puzzle = PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION);
+            puzzle[8][8] = 0;
+            int records = 2 * SolutionChecker.CHUNK_BYTES / PackedPuzzleCodec.NIBBLE_RECORD_BYTES + 10;
+            try (PackedPuzzleWriter writer = new PackedPuzzleWriter(FileChannel.open(file, StandardOpenOption.WRITE),
+                    PackedPuzzleCodec.Format.NIBBLE)) {
+                for (int index = 0; index < records; index += 1) {
+                    writer.write(index == 40000 ? puzzle : solution);
+                }
+            }
+            try (SolutionChecker checker = new SolutionChecker(2);
+                 FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                SolutionChecker.Report report = checker.checkPacked(channel);
+                assertEquals(records, report.getGrids());
+                assertEquals(1, report.getInvalidGrids());
+                assertEquals(40000, report.getFirstInvalidIndex());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
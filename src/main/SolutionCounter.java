@@ -0,0 +1,506 @@
+package main;
+
+import static main.BoardGeometry.ALL_DIGITS;
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.SIZE;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the solutions of a puzzle without enumerating them, for sparse grids with millions of solutions.
+ * <p>
+ * A band (rows 0 to 2, 3 to 5 or 6 to 8) only shares its columns with the rest of the grid: its rows and boxes are
+ * its own. So once the bands above a band are full, the number of ways to complete the grid only depends on the
+ * digits they put in every column. The count works band by band on that:
+ * </p>
+ * <ul>
+ *     <li>the first band is filled by a search that branches on the cell with the fewest candidates and propagates
+ *     singles on the whole grid, so that it only goes through fillings that the givens below don't rule out;</li>
+ *     <li>the completions of the bands below are counted from the column masks alone, by a plain bitmask search over
+ *     the cells of each band, and memoized under them, so every filling of the bands above that agrees on its columns
+ *     shares the count;</li>
+ *     <li>the fillings of the last band are tabulated once by the digits they put in every column, as long as there
+ *     are at most {@value #LAST_BAND_LIMIT} of them, so its completions are a lookup under the digits the columns
+ *     miss.</li>
+ * </ul>
+ * <p>
+ * Transposing the grid or reordering its bands doesn't change the count, so the grid is first turned so that the
+ * middle band, which is searched again for every filling of the first one, has as many givens as possible, and the
+ * bands have fewer and fewer givens from top to bottom.
+ * </p>
+ * <p>
+ * When the bands left to fill have no givens, permuting the columns of a stack, or the stacks, maps completions onto
+ * completions, so the column masks are first sorted within every stack and the stacks sorted too: symmetric fillings
+ * of the bands above then share one memo entry.
+ * </p>
+ * <p>
+ * The first {@value #PARALLEL_DEPTH} levels of the first band's search fork their branches on the common fork join
+ * pool, and all the tasks share the memo. Counts are exact: a count that doesn't fit in a {@code long} is an
+ * {@link ArithmeticException}.
+ * </p>
+ */
+public final class SolutionCounter {
+
+    static final int PARALLEL_DEPTH = 3;
+
+    static final int LAST_BAND_LIMIT = 1 << 20;
+
+    private static final int BOX_SIZE = 3;
+
+    private static final int BANDS = SIZE / BOX_SIZE;
+
+    private static final int BAND_CELLS = CELLS / BANDS;
+
+    private static final int[] NO_DIGITS = new int[SIZE];
+
+    private final int[] givens;
+
+    /**
+     * The digits given in every column outside of the band, by band and column.
+     */
+    private final int[][] excluded = new int[BANDS][SIZE];
+
+    /**
+     * Whether the band and the ones below it have no givens, by band.
+     */
+    private final boolean[] emptyFrom = new boolean[BANDS + 1];
+
+    private final ConcurrentHashMap<BandKey, Long> memo = new ConcurrentHashMap<>();
+
+    /**
+     * The number of fillings of the last band by the digits they put in every column, or {@code null} when the band
+     * has too many fillings or they aren't tabulated yet.
+     */
+    private Map<BandKey, Long> lastBand;
+
+    private boolean lastBandTabulated;
+
+    /**
+     * @param grid the puzzle grid, which isn't modified
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle
+     */
+    public SolutionCounter(int[][] grid) throws IllegalArgumentException {
+        PuzzleValidator.validate(grid);
+        this.givens = orient(BoardGeometry.toCells(grid));
+        emptyFrom[BANDS] = true;
+        for (int band = BANDS - 1; band >= 0; band -= 1) {
+            emptyFrom[band] = emptyFrom[band + 1];
+            for (int cell = band * BAND_CELLS; cell < (band + 1) * BAND_CELLS; cell += 1) {
+                if (givens[cell] == 0) continue;
+                emptyFrom[band] = false;
+                for (int other = 0; other < BANDS; other += 1) {
+                    if (other != band) excluded[other][cell % SIZE] |= 1 << (givens[cell] - 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Turns the grid so that the numbers of givens of its bands decrease, with as many givens as possible in the
+     * middle band, by transposing it or not and reordering its bands.
+     * @return the cells of the turned grid
+     */
+    private static int[] orient(int[] cells) {
+        int[] bestOrder = null;
+        boolean bestTransposed = false;
+        int bestScore = -1;
+        for (int transposed = 0; transposed < 2; transposed += 1) {
+            int[] counts = new int[BANDS];
+            for (int cell = 0; cell < CELLS; cell += 1) {
+                if (cells[cell] != 0) counts[(transposed == 0 ? cell / SIZE : cell % SIZE) / BOX_SIZE] += 1;
+            }
+            int[] order = new int[BANDS];
+            for (int band = 0; band < BANDS; band += 1) {
+                int position = band;
+                while (position > 0 && counts[order[position - 1]] < counts[band]) {
+                    order[position] = order[position - 1];
+                    position -= 1;
+                }
+                order[position] = band;
+            }
+            int score = counts[order[1]] * (BAND_CELLS + 1) + counts[order[0]];
+            if (score > bestScore) {
+                bestOrder = order;
+                bestTransposed = transposed == 1;
+                bestScore = score;
+            }
+        }
+        int[] oriented = new int[CELLS];
+        for (int row = 0; row < SIZE; row += 1) {
+            int sourceRow = bestOrder[row / BOX_SIZE] * BOX_SIZE + row % BOX_SIZE;
+            for (int column = 0; column < SIZE; column += 1) {
+                oriented[row * SIZE + column] = bestTransposed ? cells[column * SIZE + sourceRow]
+                        : cells[sourceRow * SIZE + column];
+            }
+        }
+        return oriented;
+    }
+
+    /**
+     * @param parallel whether to count on the common fork join pool
+     * @return the number of solutions of the puzzle
+     * @throws ArithmeticException when the count doesn't fit in a {@code long}
+     */
+    public long count(boolean parallel) {
+        int[] values = new int[CELLS];
+        int[] candidates = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            candidates[cell] = ALL_DIGITS;
+        }
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (givens[cell] != 0 && !SolutionSpliterator.assign(values, candidates, cell, 1 << (givens[cell] - 1))) {
+                return 0;
+            }
+        }
+        if (!SolutionSpliterator.propagate(values, candidates)) return 0;
+        if (!lastBandTabulated) {
+            lastBand = tabulateLastBand();
+            lastBandTabulated = true;
+        }
+        if (parallel) return ForkJoinPool.commonPool().invoke(new CountTask(values, candidates, 0));
+        return new Search().count(values, candidates, 0);
+    }
+
+    /**
+     * @return the number of memoized band completions, which are kept between counts
+     */
+    int getMemoSize() {
+        return memo.size();
+    }
+
+    /**
+     * @return the number of fillings of the last band that agree with the givens, by the digits they put in every
+     * column, or {@code null} when there are more than {@link #LAST_BAND_LIMIT} of them
+     */
+    private Map<BandKey, Long> tabulateLastBand() {
+        BandFilling filling = new BandFilling(BANDS - 1, new int[SIZE]);
+        if (filling.contradicted) return null;
+        Map<BandKey, Long> table = new HashMap<>();
+        long[] budget = {LAST_BAND_LIMIT};
+        return filling.tabulate((BANDS - 1) * BAND_CELLS, table, budget) ? table : null;
+    }
+
+    /**
+     * @param above the digits of every column in the bands above, which are all full, but the band right above
+     * @param within the digits of every column in the band right above
+     * @return the number of ways to fill the band and the ones below
+     */
+    private long completions(int band, int[] above, int[] within) {
+        if (band == BANDS - 1 && lastBand != null) {
+            return lastBand.getOrDefault(keyOf(above, within, ALL_DIGITS, 0), 0L);
+        }
+        int[] canonical = new int[SIZE];
+        for (int column = 0; column < SIZE; column += 1) {
+            canonical[column] = above[column] | within[column];
+        }
+        if (emptyFrom[band]) canonicalize(canonical);
+        BandKey key = keyOf(canonical, NO_DIGITS, 0, band);
+        Long known = memo.get(key);
+        if (known != null) return known;
+        BandFilling filling = new BandFilling(band, canonical);
+        long total = filling.contradicted ? 0 : filling.count(filling.openCells());
+        memo.put(key, total);
+        return total;
+    }
+
+    /**
+     * The cells of a band filled one by one, below bands whose columns are known.
+     */
+    private final class BandFilling {
+
+        private final int band;
+
+        private final int[] columns;
+
+        private final int[] rowMasks = new int[BOX_SIZE];
+
+        private final int[] boxMasks = new int[BOX_SIZE];
+
+        private final int[] bandColumns = new int[SIZE];
+
+        /**
+         * The digits given in every column outside of the band, none when the columns above are canonical: the givens
+         * are then all above, so they already are in the columns.
+         */
+        private final int[] excludedColumns;
+
+        /**
+         * Whether a given of the band is already in its column above.
+         */
+        private final boolean contradicted;
+
+        BandFilling(int band, int[] columns) {
+            this.band = band;
+            this.columns = columns;
+            this.excludedColumns = emptyFrom[band] ? new int[SIZE] : excluded[band];
+            boolean contradicted = false;
+            for (int cell = band * BAND_CELLS; cell < (band + 1) * BAND_CELLS; cell += 1) {
+                if (givens[cell] == 0) continue;
+                int bit = 1 << (givens[cell] - 1);
+                if ((columns[cell % SIZE] & bit) != 0) contradicted = true;
+                place(cell, bit);
+            }
+            this.contradicted = contradicted;
+        }
+
+        private int digitsOf(int cell) {
+            int column = cell % SIZE;
+            return ALL_DIGITS & ~(rowMasks[cell / SIZE % BOX_SIZE] | boxMasks[column / BOX_SIZE] | bandColumns[column]
+                    | columns[column] | excludedColumns[column]);
+        }
+
+        private void place(int cell, int bit) {
+            rowMasks[cell / SIZE % BOX_SIZE] |= bit;
+            boxMasks[cell % SIZE / BOX_SIZE] |= bit;
+            bandColumns[cell % SIZE] |= bit;
+        }
+
+        private void remove(int cell, int bit) {
+            rowMasks[cell / SIZE % BOX_SIZE] &= ~bit;
+            boxMasks[cell % SIZE / BOX_SIZE] &= ~bit;
+            bandColumns[cell % SIZE] &= ~bit;
+        }
+
+        /**
+         * @param open the empty cells of the band, by their index in the band
+         * @return the number of ways to fill the open cells of the band, and the bands below
+         */
+        long count(int open) {
+            if (open == 0) {
+                if (band == BANDS - 1) return 1;
+                return completions(band + 1, columns, bandColumns);
+            }
+            int bestCell = -1;
+            int bestDigits = 0;
+            int bestCount = SIZE + 1;
+            for (int cells = open; cells != 0; cells &= cells - 1) {
+                int cell = band * BAND_CELLS + Integer.numberOfTrailingZeros(cells);
+                int digits = digitsOf(cell);
+                int count = Integer.bitCount(digits);
+                if (count == 0) return 0;
+                if (count < bestCount) {
+                    bestCell = cell;
+                    bestDigits = digits;
+                    bestCount = count;
+                }
+            }
+            int remaining = open & ~(1 << (bestCell - band * BAND_CELLS));
+            long total = 0;
+            for (int digits = bestDigits; digits != 0; digits &= digits - 1) {
+                int bit = digits & -digits;
+                place(bestCell, bit);
+                total = Math.addExact(total, count(remaining));
+                remove(bestCell, bit);
+            }
+            return total;
+        }
+
+        /**
+         * @return the empty cells of the band, by their index in the band
+         */
+        int openCells() {
+            int open = 0;
+            for (int index = 0; index < BAND_CELLS; index += 1) {
+                if (givens[band * BAND_CELLS + index] == 0) open |= 1 << index;
+            }
+            return open;
+        }
+
+        /**
+         * Adds every filling of the band from a cell on to the table, under the digits it puts in every column.
+         * @return {@code false} when the budget of fillings ran out
+         */
+        boolean tabulate(int cell, Map<BandKey, Long> table, long[] budget) {
+            if (cell == (band + 1) * BAND_CELLS) {
+                if ((budget[0] -= 1) < 0) return false;
+                table.merge(keyOf(bandColumns, NO_DIGITS, 0, 0), 1L, Long::sum);
+                return true;
+            }
+            if (givens[cell] != 0) return tabulate(cell + 1, table, budget);
+            for (int digits = digitsOf(cell); digits != 0; digits &= digits - 1) {
+                int bit = digits & -digits;
+                place(cell, bit);
+                boolean withinBudget = tabulate(cell + 1, table, budget);
+                remove(cell, bit);
+                if (!withinBudget) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return the digits of every column in the first band, which is full
+     */
+    private static int[] firstBandColumns(int[] values) {
+        int[] columns = new int[SIZE];
+        for (int cell = 0; cell < BAND_CELLS; cell += 1) {
+            columns[cell % SIZE] |= 1 << (values[cell] - 1);
+        }
+        return columns;
+    }
+
+    /**
+     * @return the empty cell of the first band with the fewest candidates, or -1 when the band is full
+     */
+    private static int selectCell(int[] values, int[] candidates) {
+        int bestCell = -1;
+        int bestCount = SIZE + 1;
+        for (int cell = 0; cell < BAND_CELLS; cell += 1) {
+            if (values[cell] != 0) continue;
+            int count = Integer.bitCount(candidates[cell]);
+            if (count < bestCount) {
+                bestCell = cell;
+                bestCount = count;
+                if (count == 2) break;
+            }
+        }
+        return bestCell;
+    }
+
+    /**
+     * @param flipped the digits to flip in the union of the two column masks, {@link BoardGeometry#ALL_DIGITS} to key
+     * the digits the columns miss
+     */
+    private static BandKey keyOf(int[] first, int[] second, int flipped, int band) {
+        long high = 0L;
+        for (int column = 0; column < 7; column += 1) {
+            high |= (long) (flipped ^ (first[column] | second[column])) << (9 * column);
+        }
+        long low = (long) (flipped ^ (first[7] | second[7])) | (long) (flipped ^ (first[8] | second[8])) << 9
+                | (long) band << 18;
+        return new BandKey(high, low);
+    }
+
+    /**
+     * Sorts the column masks within every stack, then the stacks by their sorted masks.
+     */
+    static void canonicalize(int[] columns) {
+        for (int stack = 0; stack < BOX_SIZE; stack += 1) {
+            int first = stack * BOX_SIZE;
+            if (columns[first] > columns[first + 1]) swap(columns, first, first + 1);
+            if (columns[first + 1] > columns[first + 2]) swap(columns, first + 1, first + 2);
+            if (columns[first] > columns[first + 1]) swap(columns, first, first + 1);
+        }
+        for (int pass = 0; pass < BOX_SIZE - 1; pass += 1) {
+            for (int stack = 0; stack < BOX_SIZE - 1 - pass; stack += 1) {
+                if (compareStacks(columns, stack, stack + 1) <= 0) continue;
+                for (int offset = 0; offset < BOX_SIZE; offset += 1) {
+                    swap(columns, stack * BOX_SIZE + offset, (stack + 1) * BOX_SIZE + offset);
+                }
+            }
+        }
+    }
+
+    private static int compareStacks(int[] columns, int first, int second) {
+        int comparison = 0;
+        for (int offset = 0; comparison == 0 && offset < BOX_SIZE; offset += 1) {
+            comparison = Integer.compare(columns[first * BOX_SIZE + offset], columns[second * BOX_SIZE + offset]);
+        }
+        return comparison;
+    }
+
+    private static void swap(int[] masks, int first, int second) {
+        int swap = masks[first];
+        masks[first] = masks[second];
+        masks[second] = swap;
+    }
+
+    private static final class BandKey {
+
+        private final long high;
+
+        private final long low;
+
+        BandKey(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof BandKey)) return false;
+            BandKey key = (BandKey) other;
+            return high == key.high && low == key.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high * 31 + low);
+        }
+    }
+
+    /**
+     * The search of the first band, with one saved state per level so it doesn't allocate while it fills the band.
+     */
+    private final class Search {
+
+        private final int[][] values = new int[BAND_CELLS + 1][CELLS];
+
+        private final int[][] candidates = new int[BAND_CELLS + 1][CELLS];
+
+        long count(int[] stateValues, int[] stateCandidates, int depth) {
+            int cell = selectCell(stateValues, stateCandidates);
+            if (cell < 0) return completions(1, NO_DIGITS, firstBandColumns(stateValues));
+            long total = 0;
+            int next = depth + 1;
+            for (int digits = stateCandidates[cell]; digits != 0; digits &= digits - 1) {
+                System.arraycopy(stateValues, 0, values[next], 0, CELLS);
+                System.arraycopy(stateCandidates, 0, candidates[next], 0, CELLS);
+                if (!SolutionSpliterator.assign(values[next], candidates[next], cell, digits & -digits)
+                        || !SolutionSpliterator.propagate(values[next], candidates[next])) {
+                    continue;
+                }
+                total = Math.addExact(total, count(values[next], candidates[next], next));
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Counts the subtree of a state of the first band, forking a task per branch down to {@link #PARALLEL_DEPTH}.
+     */
+    private final class CountTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] values;
+
+        private final int[] candidates;
+
+        private final int depth;
+
+        CountTask(int[] values, int[] candidates, int depth) {
+            this.values = values;
+            this.candidates = candidates;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth >= PARALLEL_DEPTH) return new Search().count(values, candidates, depth);
+            int cell = selectCell(values, candidates);
+            if (cell < 0) return completions(1, NO_DIGITS, firstBandColumns(values));
+            List<CountTask> branches = new ArrayList<>();
+            for (int digits = candidates[cell]; digits != 0; digits &= digits - 1) {
+                int[] branchValues = values.clone();
+                int[] branchCandidates = candidates.clone();
+                if (SolutionSpliterator.assign(branchValues, branchCandidates, cell, digits & -digits)
+                        && SolutionSpliterator.propagate(branchValues, branchCandidates)) {
+                    branches.add(new CountTask(branchValues, branchCandidates, depth + 1));
+                }
+            }
+            invokeAll(branches);
+            long total = 0;
+            for (CountTask branch : branches) {
+                total = Math.addExact(total, branch.join());
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SolutionCounterTest {
+
+    @Test
+    public void testCountMatchesBacktracking() {
+        int[][] grid = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+        assertEquals(1, new SolutionCounter(grid).count(false));
+        for (int columnIndex = 0; columnIndex < 9; columnIndex += 1) {
+            grid[0][columnIndex] = 0;
+            grid[4][columnIndex] = 0;
+        }
+        long expected = new SudokuSolverBacktracking(grid).countSolutions(Long.MAX_VALUE);
+        assertTrue(expected > 1);
+        assertEquals(expected, new SolutionCounter(grid).count(false));
+        assertEquals(expected, new SolutionCounter(grid).count(true));
+    }
+
+    @Test
+    public void testBandsWithoutGivensShareCounts() {
+        // the last band has no givens, so the columns of the upper bands are canonical
+        int[][] grid = PuzzleText.parse(
+                "507006480006000730304080500100450096009270054450698217000000000000000000000000000");
+        long expected = new SudokuSolverBacktracking(grid).countSolutions(Long.MAX_VALUE);
+        assertTrue(expected > 1);
+        SolutionCounter counter = new SolutionCounter(grid);
+        assertEquals(expected, counter.count(false));
+        assertEquals(expected, counter.count(true));
+        assertTrue(counter.getMemoSize() > 0);
+    }
+
+    @Test
+    public void testCanonicalColumnsIgnoreStackOrder() {
+        int[] columns = {7, 448, 56, 73, 146, 292, 84, 168, 259};
+        int[] permuted = {168, 259, 84, 292, 73, 146, 56, 448, 7};
+        SolutionCounter.canonicalize(columns);
+        SolutionCounter.canonicalize(permuted);
+        assertArrayEquals(columns, permuted);
+    }
+
+    @Test
+    public void testUnsolvablePuzzleHasNoSolution() {
+        int[][] grid = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+        grid[0][0] = 5;
+        assertEquals(0, new SudokuSolverBacktracking(grid).countSolutions(Long.MAX_VALUE));
+        assertEquals(0, new SolutionCounter(grid).count(true));
+    }
+}
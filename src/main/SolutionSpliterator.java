@@ -0,0 +1,251 @@
+package main;
+
+import static main.BoardGeometry.ALL_DIGITS;
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.PEERS;
+import static main.BoardGeometry.SIZE;
+import static main.BoardGeometry.UNITS;
+import static main.BoardGeometry.UNIT_CELLS;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Enumerates every solution of a puzzle lazily, one search step at a time, so under-constrained grids with millions
+ * of solutions can be streamed without keeping them.
+ * <p>
+ * The search is a depth-first search that branches on the empty cell with the fewest candidates and propagates
+ * naked and hidden singles after every guess. It keeps its whole state in explicit levels instead of the call stack:
+ * every level saves the cell values and candidates it started from, the cell it branches on and the digits it hasn't
+ * tried yet. {@link #tryAdvance(Consumer)} resumes from the deepest level and returns as soon as it reaches a
+ * solution, leaving the levels as they are for the next call.
+ * </p>
+ * <p>
+ * {@link #trySplit()} hands half of the untried digits of the shallowest level that still has some to a new
+ * spliterator, which starts from that level's saved state. Shallow levels hold the biggest subtrees, so a parallel
+ * stream gets large, independent chunks of work.
+ * </p>
+ * <p>
+ * A solution is an {@code int[81]} of digits, indexed by {@code row * 9 + column}.
+ * </p>
+ */
+public final class SolutionSpliterator implements Spliterator<int[]> {
+
+    private final int[][] values = new int[CELLS + 1][];
+
+    private final int[][] candidates = new int[CELLS + 1][];
+
+    private final int[] branchCells = new int[CELLS + 1];
+
+    private final int[] untriedDigits = new int[CELLS + 1];
+
+    /**
+     * The deepest level, or -1 once the search is over.
+     */
+    private int depth;
+
+    /**
+     * The solution of a puzzle solved by propagation alone, until it's returned.
+     */
+    private int[] pendingSolution;
+
+    /**
+     * @param grid the puzzle grid, which isn't modified
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle
+     */
+    public SolutionSpliterator(int[][] grid) throws IllegalArgumentException {
+        PuzzleValidator.validate(grid);
+        int[] givens = BoardGeometry.toCells(grid);
+        values[0] = new int[CELLS];
+        candidates[0] = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            candidates[0][cell] = ALL_DIGITS;
+        }
+        depth = 0;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (givens[cell] != 0 && !assign(values[0], candidates[0], cell, 1 << (givens[cell] - 1))) depth = -1;
+        }
+        if (depth == 0 && !propagate(values[0], candidates[0])) depth = -1;
+        if (depth == 0) {
+            int cell = selectCell(values[0], candidates[0]);
+            if (cell < 0) {
+                pendingSolution = values[0].clone();
+                depth = -1;
+            } else {
+                branchCells[0] = cell;
+                untriedDigits[0] = candidates[0][cell];
+            }
+        }
+    }
+
+    private SolutionSpliterator(int[] values, int[] candidates, int branchCell, int digits) {
+        this.values[0] = values;
+        this.candidates[0] = candidates;
+        this.branchCells[0] = branchCell;
+        this.untriedDigits[0] = digits;
+        this.depth = 0;
+    }
+
+    /**
+     * @return a lazy iterator over the solutions of the puzzle
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle
+     */
+    public static Iterator<int[]> iterator(int[][] grid) throws IllegalArgumentException {
+        return Spliterators.iterator(new SolutionSpliterator(grid));
+    }
+
+    /**
+     * @param parallel whether the stream is parallel
+     * @return a lazy stream of the solutions of the puzzle
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle
+     */
+    public static Stream<int[]> stream(int[][] grid, boolean parallel) throws IllegalArgumentException {
+        return StreamSupport.stream(new SolutionSpliterator(grid), parallel);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super int[]> action) {
+        if (pendingSolution != null) {
+            int[] solution = pendingSolution;
+            pendingSolution = null;
+            action.accept(solution);
+            return true;
+        }
+        while (depth >= 0) {
+            int digits = untriedDigits[depth];
+            if (digits == 0) {
+                depth -= 1;
+                continue;
+            }
+            int bit = digits & -digits;
+            untriedDigits[depth] = digits & ~bit;
+            int next = depth + 1;
+            if (values[next] == null) {
+                values[next] = new int[CELLS];
+                candidates[next] = new int[CELLS];
+            }
+            System.arraycopy(values[depth], 0, values[next], 0, CELLS);
+            System.arraycopy(candidates[depth], 0, candidates[next], 0, CELLS);
+            if (!assign(values[next], candidates[next], branchCells[depth], bit)
+                    || !propagate(values[next], candidates[next])) {
+                continue;
+            }
+            int cell = selectCell(values[next], candidates[next]);
+            if (cell < 0) {
+                action.accept(values[next].clone());
+                return true;
+            }
+            branchCells[next] = cell;
+            untriedDigits[next] = candidates[next][cell];
+            depth = next;
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<int[]> trySplit() {
+        for (int level = 0; level <= depth; level += 1) {
+            int digits = untriedDigits[level];
+            if (digits == 0) continue;
+            // the deepest level still has digits to try itself, so it can only give away half of them
+            if (level == depth && Integer.bitCount(digits) < 2) return null;
+            int givenAway = 0;
+            int remaining = Integer.bitCount(digits) / 2;
+            for (int mask = digits; remaining > 0; mask &= mask - 1, remaining -= 1) {
+                givenAway |= mask & -mask;
+            }
+            if (givenAway == 0) givenAway = digits;
+            untriedDigits[level] = digits & ~givenAway;
+            return new SolutionSpliterator(values[level].clone(), candidates[level].clone(), branchCells[level],
+                    givenAway);
+        }
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return depth < 0 ? (pendingSolution == null ? 0 : 1) : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL | DISTINCT;
+    }
+
+    /**
+     * Places a candidate digit and removes it from the candidates of the peers.
+     * @return {@code false} when a peer is left without candidates
+     */
+    static boolean assign(int[] values, int[] candidates, int cell, int bit) {
+        if ((candidates[cell] & bit) == 0) return false;
+        values[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+        candidates[cell] = 0;
+        for (int peer : PEERS[cell]) {
+            if (values[peer] == 0 && (candidates[peer] &= ~bit) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Places naked and hidden singles until there are none left.
+     * @return {@code false} on a contradiction
+     */
+    static boolean propagate(int[] values, int[] candidates) {
+        boolean placed = true;
+        while (placed) {
+            placed = false;
+            for (int cell = 0; cell < CELLS; cell += 1) {
+                int mask = candidates[cell];
+                if (values[cell] != 0 || (mask & (mask - 1)) != 0) continue;
+                if (!assign(values, candidates, cell, mask)) return false;
+                placed = true;
+            }
+            for (int unit = 0; unit < UNITS; unit += 1) {
+                int atLeastOnce = 0;
+                int atLeastTwice = 0;
+                int placedDigits = 0;
+                for (int cell : UNIT_CELLS[unit]) {
+                    if (values[cell] != 0) {
+                        placedDigits |= 1 << (values[cell] - 1);
+                    } else {
+                        atLeastTwice |= atLeastOnce & candidates[cell];
+                        atLeastOnce |= candidates[cell];
+                    }
+                }
+                if ((atLeastOnce | placedDigits) != ALL_DIGITS) return false;
+                for (int hidden = atLeastOnce & ~atLeastTwice; hidden != 0; hidden &= hidden - 1) {
+                    int bit = hidden & -hidden;
+                    for (int cell : UNIT_CELLS[unit]) {
+                        if ((candidates[cell] & bit) == 0) continue;
+                        if (!assign(values, candidates, cell, bit)) return false;
+                        placed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the empty cell with the fewest candidates, or -1 when the grid is full
+     */
+    private static int selectCell(int[] values, int[] candidates) {
+        int bestCell = -1;
+        int bestCount = SIZE + 1;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (values[cell] != 0) continue;
+            int count = Integer.bitCount(candidates[cell]);
+            if (count < bestCount) {
+                bestCell = cell;
+                bestCount = count;
+                if (count == 2) break;
+            }
+        }
+        return bestCell;
+    }
+}
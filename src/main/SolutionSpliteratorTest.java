@@ -0,0 +1,58 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class SolutionSpliteratorTest {
+
+    @Test
+    public void testUniquePuzzleHasOneSolution() {
+        Iterator<int[]> solutions = SolutionSpliterator.iterator(PuzzleText.parse(TestPuzzles.HARD_PUZZLE));
+        assertTrue(solutions.hasNext());
+        assertArrayEquals(BoardGeometry.toCells(PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION)), solutions.next());
+        assertFalse(solutions.hasNext());
+    }
+
+    @Test
+    public void testEverySolutionIsEnumeratedOnce() {
+        int[][] grid = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+        for (int columnIndex = 0; columnIndex < 9; columnIndex += 1) {
+            grid[0][columnIndex] = 0;
+            grid[4][columnIndex] = 0;
+        }
+        long expected = new SudokuSolverBacktracking(grid).countSolutions(Long.MAX_VALUE);
+        assertTrue(expected > 1);
+        Set<String> sequential = SolutionSpliterator.stream(grid, false)
+                .map(solution -> PuzzleText.format(BoardGeometry.toGrid(solution)))
+                .collect(Collectors.toSet());
+        assertEquals(expected, sequential.size());
+        for (String solution : sequential) {
+            assertTrue(PuzzleValidator.isValid(PuzzleText.parse(solution)));
+        }
+        Set<String> parallel = new HashSet<>(SolutionSpliterator.stream(grid, true)
+                .map(solution -> PuzzleText.format(BoardGeometry.toGrid(solution)))
+                .collect(Collectors.toList()));
+        assertEquals(sequential, parallel);
+        assertEquals(expected, SolutionSpliterator.stream(grid, true).count());
+    }
+
+    @Test
+    public void testSplitsAreDisjoint() {
+        SolutionSpliterator spliterator = new SolutionSpliterator(new int[9][9]);
+        int[] first = new int[81];
+        assertTrue(spliterator.tryAdvance(solution -> System.arraycopy(solution, 0, first, 0, 81)));
+        Spliterator<int[]> other = spliterator.trySplit();
+        assertNotNull(other);
+        int[] second = new int[81];
+        assertTrue(other.tryAdvance(solution -> System.arraycopy(solution, 0, second, 0, 81)));
+        // the split took untried digits of the first cell
+        assertTrue(first[0] != second[0]);
+    }
+}
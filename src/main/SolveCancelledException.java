@@ -0,0 +1,14 @@
+package main;
+
+/**
+ * Thrown by an engine that gave up on a puzzle because its {@link CancellationToken} was cancelled. It says nothing
+ * about the puzzle, which is why it isn't an {@link IllegalArgumentException}.
+ */
+public class SolveCancelledException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public SolveCancelledException() {
+        super("The solve was cancelled.", null, false, false);
+    }
+}
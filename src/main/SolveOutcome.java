@@ -0,0 +1,35 @@
+package main;
+
+/**
+ * How solving a puzzle ended.
+ * <p>
+ * Engines report every failure as an {@link IllegalArgumentException}; the unsolvable and multiple solutions cases
+ * are {@link NoUniqueSolutionException}s carrying their outcome, so {@link #of(Throwable)} tells them apart from
+ * invalid puzzles by type, even when they are wrapped.
+ * </p>
+ */
+public enum SolveOutcome {
+    SOLVED,
+    INVALID,
+    UNSOLVABLE,
+    MULTIPLE_SOLUTIONS,
+    CANCELLED,
+    ERROR;
+
+    static final String UNSOLVABLE_MESSAGE = "The puzzle is unsolvable.";
+
+    static final String MULTIPLE_SOLUTIONS_MESSAGE = "The puzzle has multiple solutions.";
+
+    /**
+     * @param error the error raised by an engine, or {@code null} when the puzzle was solved
+     * @return the outcome that error stands for
+     */
+    public static SolveOutcome of(Throwable error) {
+        if (error == null) return SOLVED;
+        if (error instanceof SolveCancelledException) return CANCELLED;
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof NoUniqueSolutionException) return ((NoUniqueSolutionException) cause).getOutcome();
+        }
+        return error instanceof IllegalArgumentException ? INVALID : ERROR;
+    }
+}
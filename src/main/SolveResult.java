@@ -0,0 +1,50 @@
+package main;
+
+/**
+ * The outcome of solving one puzzle asynchronously: the puzzle that was submitted and either its solution or the
+ * error the engine raised for it.
+ */
+public final class SolveResult {
+
+    private final int[][] puzzle;
+
+    private final int[][] solution;
+
+    private final Throwable error;
+
+    private SolveResult(int[][] puzzle, int[][] solution, Throwable error) {
+        this.puzzle = puzzle;
+        this.solution = solution;
+        this.error = error;
+    }
+
+    static SolveResult solved(int[][] puzzle, int[][] solution) {
+        return new SolveResult(puzzle, solution, null);
+    }
+
+    static SolveResult failed(int[][] puzzle, Throwable error) {
+        return new SolveResult(puzzle, null, error);
+    }
+
+    public int[][] getPuzzle() {
+        return puzzle;
+    }
+
+    /**
+     * @return the solved grid, or {@code null} when the puzzle failed
+     */
+    public int[][] getSolution() {
+        return solution;
+    }
+
+    /**
+     * @return the error raised while solving the puzzle, or {@code null} when it was solved
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSolved() {
+        return error == null;
+    }
+}
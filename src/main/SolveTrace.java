@@ -0,0 +1,169 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A low overhead recorder of what an engine did while solving a puzzle, for step by step replay.
+ * <p>
+ * Events are packed into a single {@code int} each (event type, {@link SolvingTechnique}, cell, digit and decision
+ * level) and written into a preallocated ring buffer, so recording allocates nothing. When more events are recorded
+ * than the buffer holds, the oldest ones are overwritten and {@link #isTruncated()} tells so. Events are only decoded
+ * into {@link Event} objects when they are read.
+ * </p>
+ * <p>
+ * Engines keep a {@code null} trace when tracing is disabled, so the cost is a single predictable branch per event.
+ * </p>
+ */
+public final class SolveTrace {
+
+    public enum EventType {
+        PLACEMENT,
+        ELIMINATION,
+        BACKTRACK,
+        PRUNE
+    }
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    private static final SolvingTechnique[] TECHNIQUES = SolvingTechnique.values();
+
+    private final int[] events;
+
+    private final int mask;
+
+    private long recorded;
+
+    /**
+     * @param capacity the number of events kept, rounded up to a power of two
+     */
+    public SolveTrace(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("The capacity must be positive.");
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.events = new int[size];
+        this.mask = size - 1;
+    }
+
+    public SolveTrace() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Records an event.
+     * @param type the event type
+     * @param technique the technique that caused the event
+     * @param cell the cell, from 0 to 80
+     * @param digit the digit, from 1 to 9
+     * @param level the search decision level, 0 before any decision
+     */
+    void record(EventType type, SolvingTechnique technique, int cell, int digit, int level) {
+        events[(int) (recorded++ & mask)] = type.ordinal() | technique.ordinal() << 2 | cell << 6 | digit << 13
+                | Math.min(level, 0x7F) << 17;
+    }
+
+    /**
+     * Forgets every event, keeping the buffer.
+     */
+    public void clear() {
+        recorded = 0;
+    }
+
+    /**
+     * @return the number of events available, at most the buffer capacity
+     */
+    public int size() {
+        return (int) Math.min(recorded, events.length);
+    }
+
+    /**
+     * @return the number of events recorded since the last {@link #clear()}, including the overwritten ones
+     */
+    public long getRecorded() {
+        return recorded;
+    }
+
+    public boolean isTruncated() {
+        return recorded > events.length;
+    }
+
+    /**
+     * Decodes one event.
+     * @param index the event index, 0 being the oldest event still available
+     * @return the decoded event
+     */
+    public Event get(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("No event at " + index + ".");
+        long first = recorded - size();
+        return new Event(events[(int) ((first + index) & mask)]);
+    }
+
+    /**
+     * @return every available event, decoded, from the oldest to the newest
+     */
+    public List<Event> events() {
+        int size = size();
+        List<Event> decoded = new ArrayList<>(size);
+        for (int index = 0; index < size; index += 1) {
+            decoded.add(get(index));
+        }
+        return decoded;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        if (isTruncated()) builder.append("... ").append(recorded - size()).append(" earlier events\n");
+        for (int index = 0; index < size(); index += 1) {
+            builder.append(get(index)).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A decoded trace event.
+     */
+    public static final class Event {
+
+        private final int packed;
+
+        private Event(int packed) {
+            this.packed = packed;
+        }
+
+        public EventType getType() {
+            return EVENT_TYPES[packed & 0x3];
+        }
+
+        public SolvingTechnique getTechnique() {
+            return TECHNIQUES[(packed >>> 2) & 0xF];
+        }
+
+        public int getRowIndex() {
+            return getCell() / 9;
+        }
+
+        public int getColumnIndex() {
+            return getCell() % 9;
+        }
+
+        public int getDigit() {
+            return (packed >>> 13) & 0xF;
+        }
+
+        public int getLevel() {
+            return packed >>> 17;
+        }
+
+        private int getCell() {
+            return (packed >>> 6) & 0x7F;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + getLevel() + "] " + getTechnique() + " " + getType() + " " + getDigit() + " at (" +
+                    getRowIndex() + ", " + getColumnIndex() + ")";
+        }
+    }
+}
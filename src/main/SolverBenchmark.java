@@ -0,0 +1,78 @@
+package main;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A side by side benchmark of the solvers: {@code SolverBenchmark [iterations] [branchingHeuristic...]}.
+ * <p>
+ * Every engine solves every puzzle {@code iterations} times after the same number of warm-up runs, and the mean time
+ * per solve is printed. There is no benchmark harness in the project, so the numbers are rough (no forking, no
+ * statistics), but good enough to compare engines on the same machine. The object model {@link SudokuSolver} only
+ * runs on the puzzles it can finish: it doesn't guess, so it never ends on puzzles that need a search.
+ * </p>
+ * <p>
+ * Every {@link BranchingHeuristic} given after the iterations, e.g. {@code degree/least-constraining}, adds a
+ * backtracking engine branching that way, so the heuristics can be compared without changing the code. Every such
+ * engine has its own {@link SolverMetrics}, which the frequency digit order learns from over the runs.
+ * </p>
+ */
+public class SolverBenchmark {
+
+    private static final int DEFAULT_ITERATIONS = 2_000;
+
+    private static final Map<String, String> PUZZLES = new LinkedHashMap<>();
+
+    static {
+        PUZZLES.put("easy", SudokuLoadGenerator.DEFAULT_PUZZLE);
+        PUZZLES.put("hard", "006100008080090030200005400400001800030070040007900003008400006020050080100002500");
+        PUZZLES.put("very hard", "400000805030000000000700000020000060000080400000010000000603070500200000104000000");
+    }
+
+    private static long checksum;
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+        Map<String, SudokuEngine> engines = new LinkedHashMap<>();
+        engines.put(SudokuSolver.ENGINE_NAME, SudokuEngine.OBJECT_MODEL);
+        engines.put(SudokuSolverProcedural.ENGINE_NAME, SudokuEngine.PROCEDURAL);
+        engines.put(SudokuSolverBacktracking.ENGINE_NAME, SudokuEngine.BACKTRACKING);
+        engines.put(SudokuSolverSat.ENGINE_NAME, SudokuEngine.SAT);
+        for (int index = 1; index < args.length; index += 1) {
+            BranchingHeuristic branching = BranchingHeuristic.parse(args[index]);
+            engines.put(SudokuSolverBacktracking.ENGINE_NAME + " " + branching,
+                    SudokuEngine.backtracking(branching, new SolverMetrics()));
+        }
+        int nameWidth = 14;
+        for (String name : engines.keySet()) {
+            nameWidth = Math.max(nameWidth, name.length());
+        }
+        String row = "%-12s %-" + nameWidth + "s %14";
+        System.out.printf(row + "s%n", "puzzle", "engine", "us/solve");
+        for (Map.Entry<String, String> puzzle : PUZZLES.entrySet()) {
+            for (Map.Entry<String, SudokuEngine> engine : engines.entrySet()) {
+                if (engine.getValue() == SudokuEngine.OBJECT_MODEL && !puzzle.getKey().equals("easy")) {
+                    System.out.printf(row + "s%n", puzzle.getKey(), engine.getKey(), "skipped");
+                    continue;
+                }
+                double micros = measure(engine.getValue(), puzzle.getValue(), iterations);
+                System.out.printf(row + ".1f%n", puzzle.getKey(), engine.getKey(), micros);
+            }
+        }
+        if (checksum == 42) System.out.println();
+    }
+
+    /**
+     * @return the mean time of a solve, in microseconds
+     */
+    static double measure(SudokuEngine engine, String puzzle, int iterations) {
+        for (int iteration = 0; iteration < iterations; iteration += 1) {
+            checksum += engine.solve(PuzzleText.parse(puzzle))[8][8];
+        }
+        long start = System.nanoTime();
+        for (int iteration = 0; iteration < iterations; iteration += 1) {
+            checksum += engine.solve(PuzzleText.parse(puzzle))[8][8];
+        }
+        return (System.nanoTime() - start) / 1_000.0 / iterations;
+    }
+}
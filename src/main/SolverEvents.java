@@ -0,0 +1,124 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Custom Java Flight Recorder events emitted by the solvers, so solver hot spots show up next to GC and CPU samples
+ * in the same recording.
+ * <p>
+ * The volume is kept under control: solves and propagation passes are thresholded by duration (both thresholds can be
+ * lowered in a JFC settings file when every event is needed) and search milestones are sampled, one every
+ * {@value #MILESTONE_NODES} search nodes.
+ * </p>
+ */
+final class SolverEvents {
+
+    static final int MILESTONE_NODES = 1 << 12;
+
+    private SolverEvents() {
+    }
+
+    @Name("main.Solve")
+    @Label("Sudoku Solve")
+    @Category("Sudoku")
+    @Description("A puzzle solved by one of the engines, from the start to the outcome")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class Solve extends Event {
+
+        @Label("Engine")
+        String engine;
+
+        @Label("Givens")
+        int givens;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Label("Search Nodes")
+        long nodes;
+    }
+
+    @Name("main.PropagationPass")
+    @Label("Sudoku Propagation Pass")
+    @Category("Sudoku")
+    @Description("One propagation pass of the logical techniques, with what each technique did")
+    @Threshold("50 us")
+    @StackTrace(false)
+    static final class PropagationPass extends Event {
+
+        @Label("Engine")
+        String engine;
+
+        @Label("Peer Eliminations")
+        int eliminations;
+
+        @Label("Naked Singles")
+        int nakedSingles;
+
+        @Label("Hidden Singles")
+        int hiddenSingles;
+
+        @Label("Consistent")
+        boolean consistent;
+    }
+
+    @Name("main.SearchMilestone")
+    @Label("Sudoku Search Milestone")
+    @Category("Sudoku")
+    @Description("Search progress, sampled every 4096 search nodes")
+    @StackTrace(false)
+    static final class SearchMilestone extends Event {
+
+        @Label("Engine")
+        String engine;
+
+        @Label("Search Nodes")
+        long nodes;
+
+        @Label("Depth")
+        int depth;
+
+        @Label("Backtracks")
+        long backtracks;
+    }
+
+    /**
+     * Commits a {@link Solve} event that was begun by the caller, if the recording wants it.
+     */
+    static void commitSolve(Solve event, String engine, int givens, SolveOutcome outcome, long nodes) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.engine = engine;
+        event.givens = givens;
+        event.outcome = outcome.name();
+        event.nodes = nodes;
+        event.commit();
+    }
+
+    static void searchMilestone(String engine, long nodes, int depth, long backtracks) {
+        SearchMilestone event = new SearchMilestone();
+        if (!event.isEnabled()) return;
+        event.engine = engine;
+        event.nodes = nodes;
+        event.depth = depth;
+        event.backtracks = backtracks;
+        event.commit();
+    }
+
+    static int countGivens(int[][] grid) {
+        int givens = 0;
+        for (int[] row : grid) {
+            for (int value : row) {
+                if (value != 0) givens += 1;
+            }
+        }
+        return givens;
+    }
+}
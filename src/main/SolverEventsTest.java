@@ -0,0 +1,62 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+public class SolverEventsTest {
+
+    @Test
+    public void testSolvesAreRecorded() throws IOException {
+        Path dump = Files.createTempFile("solver-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("main.Solve").withThreshold(Duration.ZERO);
+            recording.enable("main.PropagationPass").withThreshold(Duration.ZERO);
+            recording.enable("main.SearchMilestone");
+            recording.start();
+            new SudokuSolverBacktracking(PuzzleText.parse(TestPuzzles.HARD_PUZZLE)).solve();
+            // the first solutions of a nearly empty grid take enough search nodes for a few milestones
+            int[][] sparsePuzzle = PuzzleText.parse(
+                    "12.......34.......5..............................................................");
+            assertEquals(10_000, new SudokuSolverBacktracking(sparsePuzzle).countSolutions(10_000));
+            recording.stop();
+            recording.dump(dump);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+            List<RecordedEvent> solves = eventsOf(events, "main.Solve");
+            assertEquals(1, solves.size());
+            RecordedEvent solve = solves.get(0);
+            assertEquals(SudokuSolverBacktracking.ENGINE_NAME, solve.getString("engine"));
+            assertEquals(81 - TestPuzzles.HARD_PUZZLE.replaceAll("[1-9]", "").length(), solve.getInt("givens"));
+            assertEquals(SolveOutcome.SOLVED.name(), solve.getString("outcome"));
+
+            List<RecordedEvent> passes = eventsOf(events, "main.PropagationPass");
+            assertFalse(passes.isEmpty());
+            assertTrue(passes.stream().allMatch(
+                    pass -> pass.getString("engine").equals(SudokuSolverBacktracking.ENGINE_NAME)));
+
+            List<RecordedEvent> milestones = eventsOf(events, "main.SearchMilestone");
+            assertFalse(milestones.isEmpty());
+            for (RecordedEvent milestone : milestones) {
+                assertEquals(0, milestone.getLong("nodes") % SolverEvents.MILESTONE_NODES);
+            }
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,242 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A registry of live solver metrics, with no dependency outside the JDK, exposed over JMX as
+ * {@value #OBJECT_NAME}: puzzles per outcome, a latency histogram per engine, technique hits, the transposition table
+ * hit ratio and the solves in flight.
+ * <p>
+ * Every counter is a {@link LongAdder}, so solver threads update their own cells instead of contending on one shared
+ * value; the sums are only computed when the metrics are read. Engines are measured by wrapping them with
+ * {@link #instrument(String, SudokuEngine)}, and a {@link SudokuSolverBacktracking} given a registry reports its
+ * technique, transposition table and per digit backtrack counters to it after every search. Searches that aren't
+ * solves of the service, like uniqueness checks of the generator, are built without one and report nothing.
+ * </p>
+ */
+public final class SolverMetrics implements SolverMetricsMXBean {
+
+    public static final String OBJECT_NAME = "main:type=SolverMetrics";
+
+    private static final SolverMetrics DEFAULT = new SolverMetrics();
+
+    private final Map<SolveOutcome, LongAdder> outcomes = new EnumMap<>(SolveOutcome.class);
+
+    private final Map<SolvingTechnique, LongAdder> techniques = new EnumMap<>(SolvingTechnique.class);
+
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    private final LongAdder inFlight = new LongAdder();
+
+    private final LongAdder cacheLookups = new LongAdder();
+
+    private final LongAdder cacheHits = new LongAdder();
+
+    /**
+     * The backtracks after a guess of every digit, indexed by digit minus one.
+     */
+    private final LongAdder[] digitBacktracks = new LongAdder[9];
+
+    public SolverMetrics() {
+        for (SolveOutcome outcome : SolveOutcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+        for (SolvingTechnique technique : SolvingTechnique.values()) {
+            techniques.put(technique, new LongAdder());
+        }
+        for (int digit = 0; digit < digitBacktracks.length; digit += 1) {
+            digitBacktracks[digit] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return the registry the solvers report to and the service exposes
+     */
+    public static SolverMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Wraps an engine so every solve is counted by outcome, timed in the engine's histogram and counted as in flight
+     * while it runs. Errors are rethrown unchanged.
+     * @param engineName the name the engine's latencies are reported under
+     * @param engine the engine to measure
+     * @return the measured engine
+     */
+    public SudokuEngine instrument(String engineName, SudokuEngine engine) {
+        LatencyHistogram histogram = latencies.computeIfAbsent(engineName, name -> new LatencyHistogram());
+        return grid -> {
+            inFlight.increment();
+            long start = System.nanoTime();
+            try {
+                int[][] solution = engine.solve(grid);
+                record(histogram, SolveOutcome.SOLVED, start);
+                return solution;
+            } catch (RuntimeException | Error e) {
+                record(histogram, SolveOutcome.of(e), start);
+                throw e;
+            } finally {
+                inFlight.decrement();
+            }
+        };
+    }
+
+    private void record(LatencyHistogram histogram, SolveOutcome outcome, long start) {
+        histogram.record(System.nanoTime() - start);
+        outcomes.get(outcome).increment();
+    }
+
+    /**
+     * Records a solve that wasn't run through an {@link #instrument(String, SudokuEngine) instrumented} engine.
+     */
+    public void recordSolve(String engineName, SolveOutcome outcome, long nanos) {
+        latencies.computeIfAbsent(engineName, name -> new LatencyHistogram()).record(nanos);
+        outcomes.get(outcome).increment();
+    }
+
+    public void recordTechnique(SolvingTechnique technique, long hits) {
+        if (hits != 0) techniques.get(technique).add(hits);
+    }
+
+    public void recordCacheLookups(long lookups, long hits) {
+        if (lookups == 0) return;
+        cacheLookups.add(lookups);
+        cacheHits.add(hits);
+    }
+
+    /**
+     * Records the backtracks of a search after guesses of a digit. They feed
+     * {@link BranchingHeuristic.DigitOrder#FREQUENCY} in the next searches.
+     */
+    public void recordDigitBacktracks(int digit, long backtracks) {
+        if (backtracks != 0) digitBacktracks[digit - 1].add(backtracks);
+    }
+
+    /**
+     * @param digit a digit from 1 to 9
+     * @return the backtracks after guesses of the digit recorded so far
+     */
+    public long getDigitBacktracks(int digit) {
+        return digitBacktracks[digit - 1].sum();
+    }
+
+    public long getOutcomeCount(SolveOutcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    public long getTechniqueHits(SolvingTechnique technique) {
+        return techniques.get(technique).sum();
+    }
+
+    /**
+     * @return the latency histogram of the engine, or {@code null} when nothing was recorded for it
+     */
+    public LatencyHistogram getLatencies(String engineName) {
+        return latencies.get(engineName);
+    }
+
+    @Override
+    public long getSolvedPuzzles() {
+        return getOutcomeCount(SolveOutcome.SOLVED);
+    }
+
+    @Override
+    public long getFailedPuzzles() {
+        long failed = 0;
+        for (SolveOutcome outcome : SolveOutcome.values()) {
+            if (outcome != SolveOutcome.SOLVED) failed += getOutcomeCount(outcome);
+        }
+        return failed;
+    }
+
+    @Override
+    public Map<String, Long> getOutcomeCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome.name(), count.sum()));
+        return counts;
+    }
+
+    @Override
+    public long getInFlightSolves() {
+        return inFlight.sum();
+    }
+
+    @Override
+    public Map<String, Long> getTechniqueHits() {
+        Map<String, Long> hits = new TreeMap<>();
+        techniques.forEach((technique, count) -> hits.put(technique.name(), count.sum()));
+        return hits;
+    }
+
+    @Override
+    public double getCacheHitRatio() {
+        long lookups = cacheLookups.sum();
+        return lookups == 0 ? 0.0 : (double) cacheHits.sum() / lookups;
+    }
+
+    @Override
+    public List<EngineLatency> getEngineLatencies() {
+        List<EngineLatency> engines = new ArrayList<>();
+        new TreeMap<>(latencies).forEach((engine, histogram) -> engines.add(new EngineLatency(engine, histogram)));
+        return engines;
+    }
+
+    /**
+     * Clears every counter and histogram. Solves in flight are still counted.
+     */
+    @Override
+    public void reset() {
+        outcomes.values().forEach(LongAdder::reset);
+        techniques.values().forEach(LongAdder::reset);
+        latencies.values().forEach(LatencyHistogram::reset);
+        cacheLookups.reset();
+        cacheHits.reset();
+        for (LongAdder backtracks : digitBacktracks) {
+            backtracks.reset();
+        }
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server, replacing any metrics registered before.
+     * @throws IllegalStateException when JMX refuses the registration
+     */
+    public void register() {
+        register(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    void register(MBeanServer server) {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            try {
+                server.registerMBean(this, name);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the solver metrics.", e);
+        }
+    }
+
+    public void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (InstanceNotFoundException e) {
+            // not registered, nothing to do
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister the solver metrics.", e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package main;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JMX view of {@link SolverMetrics}, registered as {@value SolverMetrics#OBJECT_NAME}.
+ */
+public interface SolverMetricsMXBean {
+
+    long getSolvedPuzzles();
+
+    long getFailedPuzzles();
+
+    /**
+     * @return the number of puzzles per {@link SolveOutcome} name
+     */
+    Map<String, Long> getOutcomeCounts();
+
+    /**
+     * @return the number of solves currently running in instrumented engines
+     */
+    long getInFlightSolves();
+
+    /**
+     * @return the number of times each {@link SolvingTechnique} was applied, per technique name
+     */
+    Map<String, Long> getTechniqueHits();
+
+    /**
+     * @return the share of transposition table lookups that found a state, between 0 and 1
+     */
+    double getCacheHitRatio();
+
+    List<EngineLatency> getEngineLatencies();
+
+    void reset();
+}
@@ -0,0 +1,104 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Test;
+
+public class SolverMetricsTest {
+
+    private final int[][] hardPuzzle = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+
+    @Test
+    public void testHistogramPercentilesStayWithinTheBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value += 1) {
+            histogram.record(value * 1_000);
+        }
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMaxNanos());
+        assertEquals(5_000_000, histogram.percentileNanos(50), 5_000_000 / 16.0);
+        assertEquals(9_900_000, histogram.percentileNanos(99), 9_900_000 / 16.0);
+        assertEquals(9_990_000, histogram.percentileNanos(99.9), 9_990_000 / 16.0);
+        assertTrue(histogram.percentileNanos(100) <= histogram.getMaxNanos());
+    }
+
+    @Test
+    public void testHistogramBucketsCoverEveryValue() {
+        for (long value = 0; value < 1 << 20; value += 1) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value <= LatencyHistogram.highestValueIn(bucket));
+            assertTrue(bucket == 0 || value > LatencyHistogram.highestValueIn(bucket - 1));
+        }
+    }
+
+    @Test
+    public void testInstrumentedEngineCountsOutcomes() {
+        SolverMetrics metrics = new SolverMetrics();
+        SudokuEngine engine = metrics.instrument("backtracking", SudokuEngine.BACKTRACKING);
+        engine.solve(hardPuzzle);
+        int[][] multipleSolutions = new int[9][9];
+        multipleSolutions[0] = new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9};
+        multipleSolutions[1] = new int[]{4, 5, 6, 7, 8, 9, 1, 2, 3};
+        multipleSolutions[2] = new int[]{7, 8, 9, 1, 2, 3, 4, 5, 6};
+        try {
+            engine.solve(multipleSolutions);
+            fail("Expected the puzzle to be rejected.");
+        } catch (IllegalArgumentException e) {
+            assertEquals(SolveOutcome.MULTIPLE_SOLUTIONS, SolveOutcome.of(e));
+        }
+        assertEquals(1, metrics.getSolvedPuzzles());
+        assertEquals(1, metrics.getOutcomeCount(SolveOutcome.MULTIPLE_SOLUTIONS));
+        assertEquals(1, metrics.getFailedPuzzles());
+        assertEquals(0, metrics.getInFlightSolves());
+        assertEquals(2, metrics.getLatencies("backtracking").getCount());
+    }
+
+    @Test
+    public void testOutcomesAreClassifiedByTypeNotMessage() {
+        assertEquals(SolveOutcome.UNSOLVABLE, SolveOutcome.of(NoUniqueSolutionException.unsolvable()));
+        assertEquals(SolveOutcome.MULTIPLE_SOLUTIONS,
+                SolveOutcome.of(new IllegalStateException(NoUniqueSolutionException.multipleSolutions())));
+        assertEquals(SolveOutcome.INVALID,
+                SolveOutcome.of(new IllegalArgumentException(SolveOutcome.UNSOLVABLE_MESSAGE)));
+        assertEquals(SolveOutcome.ERROR, SolveOutcome.of(new IllegalStateException("The puzzle is unsolvable.")));
+        assertEquals(SolveOutcome.CANCELLED, SolveOutcome.of(new SolveCancelledException()));
+        assertEquals(SolveOutcome.SOLVED, SolveOutcome.of(null));
+    }
+
+    @Test
+    public void testBacktrackingReportsTechniquesOnlyToItsMetrics() throws InterruptedException {
+        SolverMetrics metrics = new SolverMetrics();
+        SolverMetrics defaultMetrics = SolverMetrics.getDefault();
+        long defaultGuesses = defaultMetrics.getTechniqueHits(SolvingTechnique.GUESS);
+        new SudokuSolverBacktracking(hardPuzzle, true, new TranspositionTable(TranspositionTable.DEFAULT_CAPACITY),
+                metrics).solve();
+        assertTrue(metrics.getTechniqueHits(SolvingTechnique.HIDDEN_SINGLE) > 0);
+        assertTrue(metrics.getTechniqueHits(SolvingTechnique.GUESS) > 0);
+        assertTrue(metrics.getCacheHitRatio() >= 0 && metrics.getCacheHitRatio() <= 1);
+        new SudokuSolverBacktracking(hardPuzzle).solve();
+        try (PuzzleGenerator generator = new PuzzleGenerator(Difficulty.EASY, PuzzleGenerator.Symmetry.NONE)) {
+            generator.generate(1, 42L);
+        }
+        assertEquals(defaultGuesses, defaultMetrics.getTechniqueHits(SolvingTechnique.GUESS));
+    }
+
+    @Test
+    public void testMetricsAreExposedOverJmx() throws Exception {
+        SolverMetrics metrics = new SolverMetrics();
+        metrics.instrument("backtracking", SudokuEngine.BACKTRACKING).solve(hardPuzzle);
+        metrics.register();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(SolverMetrics.OBJECT_NAME);
+            assertEquals(1L, server.getAttribute(name, "SolvedPuzzles"));
+            assertEquals(0L, server.getAttribute(name, "InFlightSolves"));
+            assertNotNull(server.getAttribute(name, "EngineLatencies"));
+            assertNotNull(server.getAttribute(name, "TechniqueHits"));
+        } finally {
+            metrics.unregister();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package main;
+
+/**
+ * The deductions and search steps the engines report, e.g. in a {@link SolveTrace}.
+ */
+public enum SolvingTechnique {
+    GIVEN,
+    /**
+     * A candidate removed because a peer cell holds the digit.
+     */
+    PEER_ELIMINATION,
+    NAKED_SINGLE,
+    HIDDEN_SINGLE,
+    /**
+     * A search decision (a guess) and its undo.
+     */
+    GUESS,
+    /**
+     * A branch pruned because it completes a learnt nogood.
+     */
+    NOGOOD,
+    /**
+     * A branch pruned because its state is a known dead end in the transposition table.
+     */
+    TRANSPOSITION,
+    /**
+     * Candidates removed from a unit because two of its cells hold the same two candidates.
+     */
+    NAKED_PAIR,
+    /**
+     * Candidates removed from two cells because two digits can only go in those two cells of a unit.
+     */
+    HIDDEN_PAIR,
+    /**
+     * A candidate removed, or a digit forced, because no valid placement pattern of the digit allows otherwise.
+     */
+    TEMPLATE
+}
@@ -0,0 +1,169 @@
+package main;
+
+import java.util.Deque;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An asynchronous facade over a {@link SudokuEngine}, so reactive callers don't block their event loop threads while
+ * a puzzle is being solved.
+ * <p>
+ * All the work runs on a dedicated executor with a fixed number of threads and a bounded queue. When a burst fills
+ * the queue the extra puzzles are rejected right away (their future completes exceptionally with a
+ * {@link RejectedExecutionException}) instead of growing the queue or the number of threads without limit.
+ * {@link SudokuSolvingProcessor}s created by {@link #newProcessor(int)} share this executor, but their puzzles are
+ * never rejected: when the queue is full they wait in an overflow queue, which the solving threads drain as they
+ * free up. A processor never keeps more than its {@code maxInFlight} puzzles requested or being solved, so that is
+ * what bounds the overflow, and the backpressure reaches their publishers instead of failing the puzzles.
+ * </p>
+ */
+public class SudokuAsyncSolver implements AutoCloseable {
+
+    private final SudokuEngine engine;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * The puzzles of the processors waiting for room in the executor's queue, oldest first.
+     */
+    private final Deque<Solve> overflow = new ConcurrentLinkedDeque<>();
+
+    /**
+     * @param engine the engine that solves every puzzle
+     * @param threads the number of solving threads
+     * @param queueCapacity the maximum number of puzzles waiting for a thread
+     */
+    public SudokuAsyncSolver(SudokuEngine engine, int threads, int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) throw new IllegalArgumentException("The number of threads and the " +
+                "queue capacity must be positive.");
+        this.engine = engine;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), VirtualThreads.daemonThreadFactory("sudoku-async"),
+                new ThreadPoolExecutor.AbortPolicy()) {
+            @Override
+            protected void afterExecute(Runnable task, Throwable error) {
+                drainOverflow();
+            }
+        };
+    }
+
+    public SudokuAsyncSolver(SudokuEngine engine) {
+        this(engine, Runtime.getRuntime().availableProcessors(), 1024);
+    }
+
+    /**
+     * Submits a puzzle to be solved on the solver's executor.
+     * @param grid the puzzle grid
+     * @return a future completed with the solution, or completed exceptionally with the engine's error or with a
+     * {@link RejectedExecutionException} when the queue is full
+     */
+    public CompletableFuture<int[][]> solveAsync(int[][] grid) {
+        Solve solve = new Solve(grid);
+        try {
+            executor.execute(solve);
+        } catch (RejectedExecutionException exception) {
+            solve.future.completeExceptionally(exception);
+        }
+        return solve.future;
+    }
+
+    /**
+     * Same as {@link #solveAsync(int[][])} but never completes exceptionally: the outcome is wrapped in a
+     * {@link SolveResult}.
+     * @param grid the puzzle grid
+     * @return a future completed with the puzzle's result
+     */
+    public CompletableFuture<SolveResult> solveToResult(int[][] grid) {
+        return toResult(grid, solveAsync(grid));
+    }
+
+    /**
+     * Same as {@link #solveToResult(int[][])}, but a puzzle that finds the queue full waits for room in the overflow
+     * queue instead of being rejected. Only a closed solver rejects it.
+     */
+    CompletableFuture<SolveResult> solveQueued(int[][] grid) {
+        Solve solve = new Solve(grid);
+        overflow.addLast(solve);
+        drainOverflow();
+        return toResult(grid, solve.future);
+    }
+
+    private static CompletableFuture<SolveResult> toResult(int[][] grid, CompletableFuture<int[][]> future) {
+        return future.handle((solution, error) -> error == null
+                ? SolveResult.solved(grid, solution)
+                : SolveResult.failed(grid, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error));
+    }
+
+    /**
+     * Moves the overflow into the executor's queue while it has room. It runs after every puzzle added to the
+     * overflow and after every solve, so a puzzle that finds the queue full is submitted once a queued solve ends.
+     */
+    private void drainOverflow() {
+        Solve solve;
+        while ((solve = overflow.pollFirst()) != null) {
+            try {
+                executor.execute(solve);
+            } catch (RejectedExecutionException exception) {
+                if (executor.isShutdown()) {
+                    solve.future.completeExceptionally(exception);
+                    continue;
+                }
+                overflow.addFirst(solve);
+                // a full queue still has a solve to end after the puzzle was put back, which drains it again
+                if (executor.getQueue().remainingCapacity() == 0) return;
+            }
+        }
+    }
+
+    /**
+     * Creates a {@link java.util.concurrent.Flow.Processor} that solves the puzzles it receives on this solver.
+     * @param maxInFlight the maximum number of puzzles the processor keeps requested or being solved at once
+     * @return a new processor, which accepts a single subscriber
+     */
+    public SudokuSolvingProcessor newProcessor(int maxInFlight) {
+        return new SudokuSolvingProcessor(this, maxInFlight);
+    }
+
+    /**
+     * @return the number of puzzles waiting for a solving thread
+     */
+    public int getQueuedPuzzles() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stops accepting puzzles. The queued ones are still solved, the ones waiting in the overflow are rejected.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        drainOverflow();
+    }
+
+    private final class Solve implements Runnable {
+
+        private final int[][] grid;
+
+        private final CompletableFuture<int[][]> future = new CompletableFuture<>();
+
+        private Solve(int[][] grid) {
+            this.grid = grid;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) return;
+            try {
+                future.complete(engine.solve(grid));
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+        }
+    }
+}
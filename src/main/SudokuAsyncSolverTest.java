@@ -0,0 +1,78 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Test;
+
+public class SudokuAsyncSolverTest {
+
+    private final int[][] hardPuzzle = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+
+    private final int[][] hardPuzzleSolution = PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION);
+
+    private final int[][] unsolvablePuzzle = PuzzleText.parse(
+            "12345678.........9...............................................................");
+
+    @Test
+    public void testSolveAsync() throws InterruptedException, ExecutionException {
+        try (SudokuAsyncSolver solver = new SudokuAsyncSolver(SudokuEngine.BACKTRACKING, 2, 4)) {
+            assertArrayEquals(hardPuzzleSolution, solver.solveAsync(hardPuzzle).get());
+            try {
+                solver.solveAsync(unsolvablePuzzle).get();
+                fail("Expected the unsolvable puzzle to be rejected.");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalArgumentException);
+                assertEquals(SolveOutcome.UNSOLVABLE, SolveOutcome.of(e.getCause()));
+            }
+        }
+    }
+
+    @Test
+    public void testSolveToResult() throws InterruptedException, ExecutionException {
+        try (SudokuAsyncSolver solver = new SudokuAsyncSolver(SudokuEngine.BACKTRACKING, 2, 4)) {
+            SolveResult solved = solver.solveToResult(hardPuzzle).get();
+            assertTrue(solved.isSolved());
+            assertArrayEquals(hardPuzzle, solved.getPuzzle());
+            assertArrayEquals(hardPuzzleSolution, solved.getSolution());
+            SolveResult failed = solver.solveToResult(unsolvablePuzzle).get();
+            assertFalse(failed.isSolved());
+            assertTrue(failed.getError() instanceof IllegalArgumentException);
+            assertEquals(SolveOutcome.UNSOLVABLE, SolveOutcome.of(failed.getError()));
+        }
+    }
+
+    @Test
+    public void testPuzzlesOverTheQueueAreRejected() throws InterruptedException, ExecutionException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SudokuEngine blocking = grid -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return SudokuEngine.BACKTRACKING.solve(grid);
+        };
+        try (SudokuAsyncSolver solver = new SudokuAsyncSolver(blocking, 1, 1)) {
+            CompletableFuture<int[][]> running = solver.solveAsync(hardPuzzle);
+            started.await();
+            CompletableFuture<int[][]> queued = solver.solveAsync(hardPuzzle);
+            assertEquals(1, solver.getQueuedPuzzles());
+            try {
+                solver.solveAsync(hardPuzzle).get();
+                fail("Expected the puzzle over the queue to be rejected.");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+            release.countDown();
+            assertArrayEquals(hardPuzzleSolution, running.get());
+            assertArrayEquals(hardPuzzleSolution, queued.get());
+        }
+    }
+}
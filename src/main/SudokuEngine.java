@@ -0,0 +1,61 @@
+package main;
+
+/**
+ * A sudoku solving strategy. Every engine takes the same {@code int[][]} grid as the solver classes and returns the
+ * solved 9x9 grid.
+ * <p>
+ * Engines follow the kata contract: they throw an {@link IllegalArgumentException} for invalid or unsolvable puzzles
+ * or when a puzzle has multiple solutions.
+ * </p>
+ */
+@FunctionalInterface
+public interface SudokuEngine {
+
+    /**
+     * The object model solver ({@link SudokuSolver}), building a fresh solver for every puzzle.
+     */
+    SudokuEngine OBJECT_MODEL = grid -> new SudokuSolver(grid).solve();
+
+    /**
+     * The primitive masks solver ({@link SudokuSolverProcedural}), solving a copy of the grid since that solver works
+     * in place.
+     */
+    SudokuEngine PROCEDURAL = grid -> {
+        PuzzleValidator.validate(grid);
+        int[][] copy = new int[grid.length][];
+        for (int rowIndex = 0; rowIndex < grid.length; rowIndex += 1) {
+            copy[rowIndex] = grid[rowIndex].clone();
+        }
+        return new SudokuSolverProcedural(copy).solve();
+    };
+
+    /**
+     * The SAT engine ({@link SudokuSolverSat}), with its embedded CDCL solver.
+     */
+    SudokuEngine SAT = grid -> new SudokuSolverSat(grid).solve();
+
+    /**
+     * The propagation and depth-first search engine ({@link SudokuSolverBacktracking}), with nogood learning.
+     */
+    SudokuEngine BACKTRACKING = grid -> new SudokuSolverBacktracking(grid).solve();
+
+    /**
+     * @param branching how the search picks its guesses
+     * @param metrics the metrics the searches report to and the frequency digit order learns from across solves, or
+     * {@code null} to report nothing
+     * @return the propagation and depth-first search engine ({@link SudokuSolverBacktracking}), with nogood learning
+     * and the given branching heuristic
+     * @throws IllegalArgumentException when the heuristic is {@code null}
+     */
+    static SudokuEngine backtracking(BranchingHeuristic branching, SolverMetrics metrics)
+            throws IllegalArgumentException {
+        if (branching == null) throw new IllegalArgumentException("A branching heuristic is required.");
+        return grid -> {
+            SudokuSolverBacktracking solver = new SudokuSolverBacktracking(grid, true, null, metrics);
+            solver.setBranchingHeuristic(branching);
+            return solver.solve();
+        };
+    }
+
+    int[][] solve(int[][] grid) throws IllegalArgumentException;
+}
@@ -0,0 +1,164 @@
+package main;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.UnaryOperator;
+
+/**
+ * A small HTTP solving service built on the JDK's {@code com.sun.net.httpserver}.
+ * <p>
+ * {@code POST /solve} takes a batch of puzzles, one 81 characters line per puzzle (see {@link PuzzleText}), and
+ * answers with one line per puzzle in the same order: the solved grid as an 81 characters line, or
+ * {@code error: <message>} when the puzzle is invalid, unsolvable or has multiple solutions. {@code POST /hint} takes
+ * the same lines and answers with the next logical step of every puzzle (see {@link Hint#toString()}), or
+ * {@code none} when {@link HintFinder} has no step to offer.
+ * </p>
+ * <p>
+ * Request bodies are capped ({@link #DEFAULT_MAX_BODY_BYTES} by default, about 12 thousand puzzles) and a larger
+ * body is answered with {@code 413 Payload Too Large}, so the batch and its answer, which are buffered in full, take
+ * a bounded amount of memory.
+ * </p>
+ * <p>
+ * Every request runs on its own (virtual, when the JDK has them) thread, but solving is CPU-bound, so the number of
+ * puzzles being solved at the same time is limited by a semaphore. That keeps virtual threads from piling CPU work
+ * onto the carrier threads while the rest of the requests just wait for a permit. Hints never search, so their cost
+ * is bounded and they don't take permits.
+ * </p>
+ */
+public class SudokuHttpServer {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    public static final int DEFAULT_MAX_BODY_BYTES = 1 << 20;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final Semaphore solvePermits;
+
+    private final SudokuEngine engine;
+
+    private final int maxBodyBytes;
+
+    /**
+     * @param port the port to listen on, 0 for any free port
+     * @param engine the engine solving the puzzles, which must finish on every puzzle: a solve holds its permit until
+     * the engine returns, so an engine that doesn't guess (like {@link SudokuEngine#OBJECT_MODEL}) would keep a permit
+     * forever on a puzzle that needs a search
+     * @param maxConcurrentSolves the maximum number of puzzles solved at the same time
+     * @param maxBodyBytes the largest request body accepted, in bytes
+     * @throws IOException when the server can't listen on the port
+     */
+    public SudokuHttpServer(int port, SudokuEngine engine, int maxConcurrentSolves, int maxBodyBytes)
+            throws IOException {
+        if (maxConcurrentSolves < 1) throw new IllegalArgumentException("At least one concurrent solve is required.");
+        if (maxBodyBytes < 1 || maxBodyBytes > Integer.MAX_VALUE - 16) {
+            // one byte past the cap is read to tell a body that is too large
+            throw new IllegalArgumentException("The maximum body size must be positive and below 2 GiB.");
+        }
+        this.engine = engine;
+        this.maxBodyBytes = maxBodyBytes;
+        this.solvePermits = new Semaphore(maxConcurrentSolves, true);
+        this.executor = VirtualThreads.newThreadPerTaskExecutor("sudoku-http");
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/solve", exchange -> handleLines(exchange, this::solveLine));
+        this.server.createContext("/hint", exchange -> handleLines(exchange, SudokuHttpServer::hintLine));
+    }
+
+    public SudokuHttpServer(int port, SudokuEngine engine, int maxConcurrentSolves) throws IOException {
+        this(port, engine, maxConcurrentSolves, DEFAULT_MAX_BODY_BYTES);
+    }
+
+    public SudokuHttpServer(int port, SudokuEngine engine) throws IOException {
+        this(port, engine, Runtime.getRuntime().availableProcessors());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waiting up to {@code delaySeconds} for the running exchanges to finish.
+     * @param delaySeconds the maximum time to wait for running exchanges
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleLines(HttpExchange exchange, UnaryOperator<String> lineHandler) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] request;
+            try (InputStream input = exchange.getRequestBody()) {
+                request = input.readNBytes(maxBodyBytes + 1);
+                // the rest of a body over the cap is skipped, not buffered: closing the connection with unread
+                // bytes would reset it before the client reads the answer
+                if (request.length > maxBodyBytes) input.transferTo(OutputStream.nullOutputStream());
+            }
+            if (request.length > maxBodyBytes) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            StringBuilder response = new StringBuilder();
+            for (String line : new String(request, StandardCharsets.US_ASCII).split("\r?\n")) {
+                if (line.isBlank()) continue;
+                response.append(lineHandler.apply(line)).append('\n');
+            }
+            byte[] body = response.toString().getBytes(StandardCharsets.US_ASCII);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+            exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String solveLine(String line) {
+        try {
+            int[][] grid = PuzzleText.parse(line);
+            solvePermits.acquire();
+            try {
+                return PuzzleText.format(engine.solve(grid));
+            } finally {
+                solvePermits.release();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return "error: interrupted";
+        } catch (RuntimeException exception) {
+            return "error: " + String.valueOf(exception.getMessage()).replace('\n', ' ');
+        }
+    }
+
+    private static String hintLine(String line) {
+        try {
+            Hint hint = HintFinder.nextHint(PuzzleText.parse(line));
+            return hint == null ? "none" : hint.toString();
+        } catch (RuntimeException exception) {
+            return "error: " + String.valueOf(exception.getMessage()).replace('\n', ' ');
+        }
+    }
+}
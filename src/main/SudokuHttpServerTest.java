@@ -0,0 +1,81 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SudokuHttpServerTest {
+
+    private static final String UNSOLVABLE_PUZZLE =
+            "12345678.........9...............................................................";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    private SudokuHttpServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new SudokuHttpServer(0, SudokuEngine.BACKTRACKING, 2, 4 * 82);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testSolveAnswersEveryLineInOrder() throws IOException, InterruptedException {
+        HttpResponse<String> response = post("/solve",
+                TestPuzzles.HARD_PUZZLE + "\n\n" + UNSOLVABLE_PUZZLE + "\r\nnot a puzzle\n");
+        assertEquals(200, response.statusCode());
+        String[] lines = response.body().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals(TestPuzzles.HARD_PUZZLE_SOLUTION, lines[0]);
+        assertEquals("error: " + SolveOutcome.UNSOLVABLE_MESSAGE, lines[1]);
+        assertTrue(lines[2], lines[2].startsWith("error: "));
+    }
+
+    @Test
+    public void testHintAnswersEveryLine() throws IOException, InterruptedException {
+        HttpResponse<String> response = post("/hint", TestPuzzles.HARD_PUZZLE + "\nnot a puzzle\n");
+        assertEquals(200, response.statusCode());
+        String[] lines = response.body().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(HintFinder.nextHint(PuzzleText.parse(TestPuzzles.HARD_PUZZLE)).toString(), lines[0]);
+        assertTrue(lines[1], lines[1].startsWith("error: "));
+    }
+
+    @Test
+    public void testOnlyPostIsAllowed() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri("/solve")).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+        assertEquals("POST", response.headers().firstValue("Allow").orElse(null));
+    }
+
+    @Test
+    public void testBodiesOverTheCapAreRefused() throws IOException, InterruptedException {
+        String batch = (TestPuzzles.HARD_PUZZLE + "\n").repeat(5);
+        assertEquals(413, post("/solve", batch).statusCode());
+        assertEquals(413, post("/hint", batch).statusCode());
+        assertEquals(200, post("/solve", (TestPuzzles.HARD_PUZZLE + "\n").repeat(4)).statusCode());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+}
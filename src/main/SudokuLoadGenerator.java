@@ -0,0 +1,168 @@
+package main;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A closed-loop load generator for {@link SudokuHttpServer}. Every client thread sends one batch, waits for the
+ * answer and sends the next one, until the requested number of batches was sent. At the end it prints the
+ * throughput (puzzles per second) and the latency percentiles of the batches.
+ */
+public class SudokuLoadGenerator {
+
+    /**
+     * The puzzle used when no puzzle file is given. It's solvable by every engine.
+     */
+    static final String DEFAULT_PUZZLE =
+            "040107950080600100209000407060501070001070000050906000500010026600050301070800090";
+
+    private final URI uri;
+
+    private final int clients;
+
+    private final int requests;
+
+    private final String batch;
+
+    private final int puzzlesPerBatch;
+
+    public SudokuLoadGenerator(String host, int port, int clients, int requests, List<String> puzzles,
+                               int puzzlesPerBatch) {
+        if (clients < 1 || requests < 1 || puzzlesPerBatch < 1 || puzzles.isEmpty()) {
+            throw new IllegalArgumentException("Clients, requests, batch size and puzzles must be positive.");
+        }
+        this.uri = URI.create("http://" + host + ":" + port + "/solve");
+        this.clients = clients;
+        this.requests = requests;
+        this.puzzlesPerBatch = puzzlesPerBatch;
+        StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < puzzlesPerBatch; index += 1) {
+            builder.append(puzzles.get(index % puzzles.size())).append('\n');
+        }
+        this.batch = builder.toString();
+    }
+
+    /**
+     * Runs the load and returns the measured results.
+     * @return the throughput and latency of the run
+     * @throws InterruptedException when interrupted while waiting for the clients
+     */
+    public Report run() throws InterruptedException {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("sudoku-load");
+        HttpClient client = HttpClient.newBuilder().executor(executor).build();
+        long[] latencies = new long[requests];
+        AtomicInteger nextRequest = new AtomicInteger();
+        AtomicLong failures = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        for (int clientIndex = 0; clientIndex < clients; clientIndex += 1) {
+            executor.execute(() -> {
+                try {
+                    int request;
+                    while ((request = nextRequest.getAndIncrement()) < requests) {
+                        long requestStart = System.nanoTime();
+                        if (!send(client)) failures.incrementAndGet();
+                        latencies[request] = System.nanoTime() - requestStart;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdownNow();
+        Arrays.sort(latencies);
+        return new Report((long) requests * puzzlesPerBatch, failures.get(), elapsed, latencies);
+    }
+
+    private boolean send(HttpClient client) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .POST(HttpRequest.BodyPublishers.ofString(batch))
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 && !response.body().contains("error:");
+        } catch (IOException exception) {
+            return false;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Usage: {@code [host] [port] [clients] [requests] [puzzlesPerBatch] [puzzleFile]}.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : SudokuHttpServer.DEFAULT_PORT;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+        int puzzlesPerBatch = args.length > 4 ? Integer.parseInt(args[4]) : 16;
+        List<String> puzzles = new ArrayList<>();
+        if (args.length > 5) {
+            for (String line : Files.readAllLines(Path.of(args[5]))) {
+                if (!line.isBlank()) puzzles.add(line.trim());
+            }
+        } else {
+            puzzles.add(DEFAULT_PUZZLE);
+        }
+        System.out.println(new SudokuLoadGenerator(host, port, clients, requests, puzzles, puzzlesPerBatch).run());
+    }
+
+    public static final class Report {
+
+        private final long puzzles;
+
+        private final long failedRequests;
+
+        private final long elapsedNanos;
+
+        private final long[] sortedLatencies;
+
+        Report(long puzzles, long failedRequests, long elapsedNanos, long[] sortedLatencies) {
+            this.puzzles = puzzles;
+            this.failedRequests = failedRequests;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        public double puzzlesPerSecond() {
+            return puzzles * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @param percentile a value between 0 and 100
+         * @return the batch latency at the given percentile, in nanoseconds
+         */
+        public long latencyPercentile(double percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+        }
+
+        public long getFailedRequests() {
+            return failedRequests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d puzzles in %.2f s: %.0f puzzles/s, batch latency p50=%.3f ms p99=%.3f ms " +
+                            "max=%.3f ms, failed requests=%d",
+                    puzzles, elapsedNanos / 1e9, puzzlesPerSecond(), latencyPercentile(50) / 1e6,
+                    latencyPercentile(99) / 1e6, latencyPercentile(100) / 1e6, failedRequests);
+        }
+    }
+}
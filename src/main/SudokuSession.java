@@ -0,0 +1,243 @@
+package main;
+
+import static main.BoardGeometry.ALL_DIGITS;
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.CELL_UNITS;
+import static main.BoardGeometry.PEERS;
+import static main.BoardGeometry.SIZE;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A puzzle being edited one cell at a time, e.g. by an interactive client that validates every move.
+ * <p>
+ * The session keeps how many times every digit is placed in every unit, the candidates of every cell and the status
+ * of the puzzle, and an edit only updates the cell, its 20 peers and its 3 units. The status is a
+ * {@link SolveOutcome} ({@link SolveOutcome#SOLVED} meaning a unique solution) and most edits derive it from the
+ * previous one without any search: a digit that agrees with the unique solution keeps it, one that doesn't makes the
+ * puzzle unsolvable, extra digits keep an unsolvable puzzle unsolvable, and clearing a digit keeps multiple solutions
+ * multiple. Otherwise the status is only searched for, with {@link SudokuSolverBacktracking}, when it's asked for.
+ * </p>
+ * <p>
+ * Every edit is pushed on an undo stack along with the status it replaced, so undoing an edit restores both at once.
+ * Clearing the cell the last edit filled undoes that edit.
+ * </p>
+ */
+public final class SudokuSession {
+
+    private final int[] values = new int[CELLS];
+
+    private final int[] candidates = new int[CELLS];
+
+    /**
+     * How many times every digit is placed in every unit, indexed by {@code unit * 9 + digit - 1}.
+     */
+    private final int[] digitCounts = new int[BoardGeometry.UNITS * SIZE];
+
+    private final int[] unitMasks = new int[BoardGeometry.UNITS];
+
+    /**
+     * The number of (unit, digit) pairs placed more than once.
+     */
+    private int duplicates;
+
+    /**
+     * The status of the current grid, or {@code null} when it has to be searched for.
+     */
+    private SolveOutcome status;
+
+    private int[] solution;
+
+    private final Deque<Edit> edits = new ArrayDeque<>();
+
+    private static final class Edit {
+
+        final int cell;
+
+        final int previousDigit;
+
+        final SolveOutcome previousStatus;
+
+        final int[] previousSolution;
+
+        Edit(int cell, int previousDigit, SolveOutcome previousStatus, int[] previousSolution) {
+            this.cell = cell;
+            this.previousDigit = previousDigit;
+            this.previousStatus = previousStatus;
+            this.previousSolution = previousSolution;
+        }
+    }
+
+    /**
+     * @param grid the starting puzzle, which is copied
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle
+     */
+    public SudokuSession(int[][] grid) throws IllegalArgumentException {
+        PuzzleValidator.validate(grid);
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            candidates[cell] = ALL_DIGITS;
+        }
+        int[] cells = BoardGeometry.toCells(grid);
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (cells[cell] != 0) write(cell, cells[cell]);
+        }
+    }
+
+    /**
+     * Sets the digit of a cell, or clears it with 0.
+     * @param rowIndex 0-indexed row index
+     * @param columnIndex 0-indexed column index
+     * @param digit a digit from 1 to 9, or 0 to clear the cell
+     * @throws IllegalArgumentException when the position or the digit is out of range
+     */
+    public void set(int rowIndex, int columnIndex, int digit) throws IllegalArgumentException {
+        int cell = cellOf(rowIndex, columnIndex);
+        if (digit < 0 || digit > SIZE) throw new IllegalArgumentException("At least one element is not a valid " +
+                "digit. Only digits from 1 to 9 are allowed.");
+        int previous = values[cell];
+        if (previous == digit) return;
+        Edit last = edits.peek();
+        if (digit == 0 && last != null && last.cell == cell && last.previousDigit == 0) {
+            undo();
+            return;
+        }
+        edits.push(new Edit(cell, previous, status, solution));
+        if (previous != 0) {
+            write(cell, 0);
+            status = status == SolveOutcome.MULTIPLE_SOLUTIONS ? status : null;
+        }
+        if (digit != 0) {
+            write(cell, digit);
+            if (status == SolveOutcome.SOLVED) {
+                status = solution[cell] == digit ? SolveOutcome.SOLVED : SolveOutcome.UNSOLVABLE;
+            } else if (status != SolveOutcome.UNSOLVABLE) {
+                status = null;
+            }
+        }
+        if (duplicates > 0) status = SolveOutcome.INVALID;
+        if (status != SolveOutcome.SOLVED) solution = null;
+    }
+
+    /**
+     * Clears a cell, same as setting it to 0.
+     * @param rowIndex 0-indexed row index
+     * @param columnIndex 0-indexed column index
+     */
+    public void clear(int rowIndex, int columnIndex) {
+        set(rowIndex, columnIndex, 0);
+    }
+
+    /**
+     * Undoes the last edit.
+     * @return {@code false} when there was no edit left to undo
+     */
+    public boolean undo() {
+        Edit edit = edits.poll();
+        if (edit == null) return false;
+        if (values[edit.cell] != 0) write(edit.cell, 0);
+        if (edit.previousDigit != 0) write(edit.cell, edit.previousDigit);
+        status = edit.previousStatus;
+        solution = edit.previousSolution;
+        return true;
+    }
+
+    /**
+     * Writes a digit in an empty cell, or clears a filled one, updating the unit counts and the peer candidates.
+     */
+    private void write(int cell, int digit) {
+        int previous = values[cell];
+        values[cell] = digit;
+        int changedDigit = digit != 0 ? digit : previous;
+        int delta = digit != 0 ? 1 : -1;
+        for (int unit : CELL_UNITS[cell]) {
+            int index = unit * SIZE + changedDigit - 1;
+            int count = digitCounts[index] + delta;
+            digitCounts[index] = count;
+            if (delta > 0 && count == 2 || delta < 0 && count == 1) duplicates += delta;
+            if (count == 0) {
+                unitMasks[unit] &= ~(1 << (changedDigit - 1));
+            } else {
+                unitMasks[unit] |= 1 << (changedDigit - 1);
+            }
+        }
+        updateCandidates(cell);
+        for (int peer : PEERS[cell]) {
+            updateCandidates(peer);
+        }
+    }
+
+    private void updateCandidates(int cell) {
+        if (values[cell] != 0) {
+            candidates[cell] = 0;
+            return;
+        }
+        int[] units = CELL_UNITS[cell];
+        candidates[cell] = ALL_DIGITS & ~(unitMasks[units[0]] | unitMasks[units[1]] | unitMasks[units[2]]);
+    }
+
+    /**
+     * @return the status of the current grid: {@link SolveOutcome#SOLVED} when it has a unique solution,
+     * {@link SolveOutcome#MULTIPLE_SOLUTIONS}, {@link SolveOutcome#UNSOLVABLE}, or {@link SolveOutcome#INVALID} when a
+     * digit is placed twice in a unit
+     */
+    public SolveOutcome getStatus() {
+        if (status == null) search();
+        return status;
+    }
+
+    private void search() {
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (values[cell] == 0 && candidates[cell] == 0) {
+                status = SolveOutcome.UNSOLVABLE;
+                return;
+            }
+        }
+        SudokuSolverBacktracking solver = new SudokuSolverBacktracking(BoardGeometry.toGrid(values));
+        long solutions = solver.countSolutions(2);
+        status = solutions == 0 ? SolveOutcome.UNSOLVABLE
+                : solutions == 1 ? SolveOutcome.SOLVED : SolveOutcome.MULTIPLE_SOLUTIONS;
+        solution = solutions == 1 ? BoardGeometry.toCells(solver.getFirstSolution()) : null;
+    }
+
+    /**
+     * @return the unique solution of the current grid, or {@code null} when it doesn't have one
+     */
+    public int[][] getSolution() {
+        return getStatus() == SolveOutcome.SOLVED ? BoardGeometry.toGrid(solution) : null;
+    }
+
+    /**
+     * @return the digit of a cell, 0 when it's empty
+     */
+    public int get(int rowIndex, int columnIndex) {
+        return values[cellOf(rowIndex, columnIndex)];
+    }
+
+    /**
+     * @return the digits none of the cell's peers holds, in increasing order, or an empty array for a filled cell
+     */
+    public int[] getCandidates(int rowIndex, int columnIndex) {
+        int mask = candidates[cellOf(rowIndex, columnIndex)];
+        int[] digits = new int[Integer.bitCount(mask)];
+        for (int index = 0; mask != 0; index += 1, mask &= mask - 1) {
+            digits[index] = Integer.numberOfTrailingZeros(mask) + 1;
+        }
+        return digits;
+    }
+
+    /**
+     * @return a copy of the current grid
+     */
+    public int[][] getGrid() {
+        return BoardGeometry.toGrid(values);
+    }
+
+    private static int cellOf(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= SIZE || columnIndex < 0 || columnIndex >= SIZE) {
+            throw new IllegalArgumentException("The position (" + rowIndex + ", " + columnIndex + ") is outside of " +
+                    "the grid.");
+        }
+        return rowIndex * SIZE + columnIndex;
+    }
+}
@@ -0,0 +1,58 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SudokuSessionTest {
+
+    @Test
+    public void testStatusFollowsEdits() {
+        SudokuSession session = new SudokuSession(PuzzleText.parse(TestPuzzles.HARD_PUZZLE));
+        int[][] solution = SudokuEngine.BACKTRACKING.solve(PuzzleText.parse(TestPuzzles.HARD_PUZZLE));
+        assertEquals(SolveOutcome.SOLVED, session.getStatus());
+        assertArrayEquals(solution, session.getSolution());
+
+        session.set(0, 0, solution[0][0]);
+        assertEquals(SolveOutcome.SOLVED, session.getStatus());
+        int[] candidates = session.getCandidates(0, 4);
+        int wrongDigit = candidates[0] == solution[0][4] ? candidates[1] : candidates[0];
+        session.set(0, 4, wrongDigit);
+        assertEquals(SolveOutcome.UNSOLVABLE, session.getStatus());
+        assertNull(session.getSolution());
+
+        session.set(0, 4, 6);
+        assertEquals(SolveOutcome.INVALID, session.getStatus());
+        session.clear(0, 4);
+        assertEquals(SolveOutcome.SOLVED, session.getStatus());
+
+        session.clear(0, 2);
+        session.clear(0, 3);
+        session.clear(0, 8);
+        session.clear(1, 1);
+        session.clear(1, 4);
+        assertEquals(SolveOutcome.MULTIPLE_SOLUTIONS, session.getStatus());
+        while (session.undo()) {
+            // back to the starting puzzle
+        }
+        assertArrayEquals(PuzzleText.parse(TestPuzzles.HARD_PUZZLE), session.getGrid());
+        assertEquals(SolveOutcome.SOLVED, session.getStatus());
+    }
+
+    @Test
+    public void testCandidatesFollowEdits() {
+        SudokuSession session = new SudokuSession(PuzzleText.parse(TestPuzzles.HARD_PUZZLE));
+        assertArrayEquals(new int[] {3, 5, 7, 9}, session.getCandidates(0, 0));
+        session.set(0, 1, 5);
+        assertArrayEquals(new int[] {3, 7, 9}, session.getCandidates(0, 0));
+        assertArrayEquals(new int[0], session.getCandidates(0, 1));
+        session.clear(0, 1);
+        assertArrayEquals(new int[] {3, 5, 7, 9}, session.getCandidates(0, 0));
+        assertEquals(0, session.get(0, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfRangeDigitIsRejected() {
+        new SudokuSession(new int[9][9]).set(0, 0, 10);
+    }
+}
@@ -55,6 +55,8 @@ import java.util.Optional;
  */
 public class SudokuSolver {
 
+    static final String ENGINE_NAME = "object-model";
+
     private final Puzzle puzzle;
 
     private enum GivensInPuzzle {
@@ -84,6 +86,7 @@ public class SudokuSolver {
     private final int[] allPossibilities = { 1, 2, 3, 4, 5, 6, 7, 8, 9 };
 
     public SudokuSolver(int[][] grid) throws IllegalArgumentException {
+        PuzzleValidator.validate(grid);
         try {
             this.puzzle = new Puzzle(grid);
         } catch (Exception exception) {
@@ -93,24 +96,16 @@ public class SudokuSolver {
     }
 
     /**
-     * This method checks when the puzzle board has more than 9 rows or if any of its rows has
-     * more than 9 elements on it and, at last it verifies if there is any invalid element on puzzle (e.g. an element
-     * that is not a digit between 1 and 9).
+     * This method checks if the puzzle has at least 17 givens. The shape of the grid, the range of its elements and
+     * duplicated digits in a row, column or quadrant are already checked by {@link PuzzleValidator} when the solver
+     * is built.
      *
-     * @throws IllegalArgumentException when any aforementioned conditions are found
+     * @throws IllegalArgumentException when the puzzle has less than 17 givens
      */
     private void startValidatingPuzzle() throws IllegalArgumentException {
         if (puzzle.size != 9) throw new IllegalArgumentException("It's not a 9x9 grid.");
         if (puzzle.zerosInPuzzle > MAX_UNKNOWN_POSITIONS_IN_PUZZLE) throw new IllegalArgumentException("Invalid puzzle. The " +
                 "minimum of givens required to create an unique (with no multiple solutions) sudoku game is 17.");
-        for (int rowIndex = 0; rowIndex < puzzle.size; rowIndex += 1) {
-            if (puzzle.getRowFromRowIndex(rowIndex).size() != 9) throw new IllegalArgumentException("The row at " + rowIndex +
-                    " index has an invalid length.");
-            for (int element : puzzle.getRowAsArray(rowIndex)) {
-                if (element != 0 && (element < 1 || element > 9)) throw new IllegalArgumentException("At least one " +
-                        "element is not a valid digit. Only digits from 1 to 9 are allowed.");
-            }
-        }
     }
 
     /**
@@ -609,12 +604,24 @@ public class SudokuSolver {
 
     public int[][] solve() {
         if (this.puzzle == null) throw new IllegalArgumentException("Puzzle cannot be null.");
+        SolverEvents.Solve event = new SolverEvents.Solve();
+        event.begin();
         puzzle.setInitialZerosInPuzzle();
-        startValidatingPuzzle();
-        while (puzzle.zerosInPuzzle > 0) {
-            applyMethodsToSolvePuzzle();
+        int givens = BoardGeometry.CELLS - puzzle.zerosInPuzzle;
+        SolveOutcome outcome = SolveOutcome.ERROR;
+        try {
+            startValidatingPuzzle();
+            while (puzzle.zerosInPuzzle > 0) {
+                applyMethodsToSolvePuzzle();
+            }
+            outcome = SolveOutcome.SOLVED;
+            return puzzle.convertToGrid();
+        } catch (IllegalArgumentException e) {
+            outcome = SolveOutcome.of(e);
+            throw e;
+        } finally {
+            SolverEvents.commitSolve(event, ENGINE_NAME, givens, outcome, 0);
         }
-        return puzzle.convertToGrid();
     }
 }
 
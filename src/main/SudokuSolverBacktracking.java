@@ -0,0 +1,788 @@
+package main;
+
+import static main.BoardGeometry.ALL_DIGITS;
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.PEERS;
+import static main.BoardGeometry.SIZE;
+import static main.BoardGeometry.UNITS;
+import static main.BoardGeometry.UNIT_CELLS;
+
+import java.util.SplittableRandom;
+
+/**
+ * A constraint propagation and depth-first search engine working on primitive candidate masks.
+ * <p>
+ * Propagation applies naked singles and hidden singles until nothing changes. When it gets stuck the search branches
+ * on the empty cell with the fewest candidates. Every change is recorded on a trail, so backtracking undoes the
+ * changes instead of copying the board. The candidates are also kept per digit in {@link DigitBitboards}, so hidden
+ * singles are found with an AND and a popcount per unit and digit.
+ * </p>
+ * <p>
+ * Every elimination and placement remembers its reason: the set of decision levels it depends on (a 64 bits mask,
+ * one bit per level). When a branch fails, the reasons of the contradiction tell which decisions actually caused it.
+ * The search uses that to jump back over decisions that didn't take part in the failure, and stores the
+ * responsible decisions as a nogood in a {@link NogoodStore}. Other branches that are about to complete a stored
+ * nogood are pruned without being explored again.
+ * </p>
+ * <p>
+ * Optionally, the board also keeps a Zobrist hash of its placements, and every state proven to have no solution is
+ * recorded in a {@link TranspositionTable}. Different guess orders reaching the same partial board then stop right
+ * away, which pays off when counting solutions or proving uniqueness, where the same subproblems come up many times.
+ * </p>
+ * <p>
+ * The cell to guess and the order of its digits come from a {@link BranchingHeuristic}, set with
+ * {@link #setBranchingHeuristic(BranchingHeuristic)}: the search cost of a puzzle can vary by orders of magnitude with
+ * it. The frequency digit order is fed by the per digit backtrack counters of the solver's {@link SolverMetrics},
+ * which every search reports to, so it learns across solves; without metrics it only knows the current search.
+ * </p>
+ * <p>
+ * A {@link SolveTrace} can be attached to record every placement, elimination, backtrack and prune, in order.
+ * </p>
+ * <p>
+ * With {@link #setRandomRestarts(long)}, ties between cells are broken at random, digits are tried in random order
+ * and the search restarts from the root whenever it spends more than a Luby sequence of node budgets without finding
+ * a solution. Learned nogoods and the transposition table are kept across restarts. Once a solution is found the
+ * search runs to completion, so solution counts stay exact. A {@link CancellationToken} makes the search give up when
+ * another engine was faster.
+ * </p>
+ * <p>
+ * The solver also emits {@link SolverEvents} to Java Flight Recorder: a solve event, slow propagation passes and
+ * sampled search milestones.
+ * </p>
+ */
+public class SudokuSolverBacktracking {
+
+    static final String ENGINE_NAME = "backtracking";
+
+    private static final long ALL_LEVELS = -1L;
+
+    /**
+     * The cancellation token is checked once every this many nodes (a power of two).
+     */
+    private static final int CANCELLATION_CHECK_NODES = 64;
+
+    private static final long RESTART_NODES = 256;
+
+    /**
+     * Decision levels from this one on share the last bit of the reason masks, so their reasons are kept but never
+     * used to jump back or to learn nogoods.
+     */
+    private static final int SHARED_LEVEL = 64;
+
+    private final int[] givens;
+
+    private final int[] values = new int[CELLS];
+
+    private final int[] candidates = new int[CELLS];
+
+    private final DigitBitboards bitboards = new DigitBitboards();
+
+    private final long[] eliminationReasons = new long[CELLS * SIZE];
+
+    private final long[] assignmentReasons = new long[CELLS];
+
+    private int emptyCells;
+
+    private final int[] trail = new int[CELLS * (SIZE + 1)];
+
+    private int trailSize;
+
+    private final int[] propagationQueue = new int[CELLS];
+
+    private int queueHead;
+
+    private int queueTail;
+
+    private long conflictReason;
+
+    private final int[] decisionCells = new int[CELLS + 1];
+
+    private final int[] decisionDigits = new int[CELLS + 1];
+
+    private final int[][] digitOrders = new int[CELLS + 1][SIZE];
+
+    private final NogoodStore nogoods;
+
+    private final TranspositionTable transpositionTable;
+
+    private final SolverMetrics metrics;
+
+    private long stateHash;
+
+    private SolveTrace trace;
+
+    private int currentLevel;
+
+    private CancellationToken cancellationToken;
+
+    private SplittableRandom random;
+
+    private BranchingHeuristic branching = BranchingHeuristic.DEFAULT;
+
+    /**
+     * The backtracks of the current search per guessed digit, indexed by digit.
+     */
+    private final long[] digitBacktracks = new long[SIZE + 1];
+
+    /**
+     * The backtracks per guessed digit of the searches reported to the metrics before this one, indexed by digit.
+     */
+    private final long[] reportedDigitBacktracks = new long[SIZE + 1];
+
+    /**
+     * The scores the digits of a branching cell are sorted by, indexed by digit.
+     */
+    private final long[] digitScores = new long[SIZE + 1];
+
+    private long restartBudget;
+
+    private boolean restarting;
+
+    private int restarts;
+
+    private final int[] nogoodLiterals = new int[NogoodStore.MAX_LITERALS];
+
+    private long solutionLimit;
+
+    private long solutionsFound;
+
+    private final int[] firstSolution = new int[CELLS];
+
+    private long nodes;
+
+    private long backtracks;
+
+    private long nogoodPrunes;
+
+    private long transpositionHits;
+
+    private long eliminations;
+
+    private long nakedSingles;
+
+    private long hiddenSingles;
+
+    private long guesses;
+
+    private long transpositionProbes;
+
+    public SudokuSolverBacktracking(int[][] grid) throws IllegalArgumentException {
+        this(grid, true);
+    }
+
+    /**
+     * @param grid the puzzle grid
+     * @param learnNogoods whether failed branches are recorded as nogoods and used to prune other branches
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle
+     */
+    public SudokuSolverBacktracking(int[][] grid, boolean learnNogoods) throws IllegalArgumentException {
+        this(grid, learnNogoods, null);
+    }
+
+    /**
+     * @param grid the puzzle grid
+     * @param learnNogoods whether failed branches are recorded as nogoods and used to prune other branches
+     * @param transpositionTable the table of states without solution, which can be shared with other solvers of the
+     * same puzzle, or {@code null} to disable it
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle
+     */
+    public SudokuSolverBacktracking(int[][] grid, boolean learnNogoods, TranspositionTable transpositionTable)
+            throws IllegalArgumentException {
+        this(grid, learnNogoods, transpositionTable, null);
+    }
+
+    /**
+     * @param grid the puzzle grid
+     * @param learnNogoods whether failed branches are recorded as nogoods and used to prune other branches
+     * @param transpositionTable the table of states without solution, which can be shared with other solvers of the
+     * same puzzle, or {@code null} to disable it
+     * @param metrics the metrics every search reports its technique and transposition table counters to, or
+     * {@code null} to report nothing, e.g. for searches that aren't solves of the service
+     * @throws IllegalArgumentException when the grid isn't a valid puzzle
+     */
+    public SudokuSolverBacktracking(int[][] grid, boolean learnNogoods, TranspositionTable transpositionTable,
+                                    SolverMetrics metrics) throws IllegalArgumentException {
+        PuzzleValidator.validate(grid);
+        this.givens = BoardGeometry.toCells(grid);
+        this.nogoods = learnNogoods ? new NogoodStore(NogoodStore.DEFAULT_CAPACITY) : null;
+        this.transpositionTable = transpositionTable;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Solves the puzzle and proves its solution is unique.
+     * @return the solved grid
+     * @throws IllegalArgumentException when the puzzle is unsolvable or has multiple solutions
+     */
+    public int[][] solve() throws IllegalArgumentException {
+        SolverEvents.Solve event = new SolverEvents.Solve();
+        event.begin();
+        long solutions = countSolutions(2);
+        if (solutions == 0) {
+            SolverEvents.commitSolve(event, ENGINE_NAME, countGivens(), SolveOutcome.UNSOLVABLE, nodes);
+            throw NoUniqueSolutionException.unsolvable();
+        }
+        if (solutions > 1) {
+            SolverEvents.commitSolve(event, ENGINE_NAME, countGivens(), SolveOutcome.MULTIPLE_SOLUTIONS, nodes);
+            throw NoUniqueSolutionException.multipleSolutions();
+        }
+        SolverEvents.commitSolve(event, ENGINE_NAME, countGivens(), SolveOutcome.SOLVED, nodes);
+        return BoardGeometry.toGrid(firstSolution);
+    }
+
+    /**
+     * Counts the solutions of the puzzle, stopping as soon as {@code limit} solutions were found.
+     * @param limit the maximum number of solutions to look for
+     * @return the number of solutions found, at most {@code limit}
+     */
+    public long countSolutions(long limit) {
+        solutionLimit = limit;
+        solutionsFound = 0;
+        reset();
+        if (placeGivens() && propagate()) {
+            restartBudget = random == null ? Long.MAX_VALUE : RESTART_NODES * CdclSolver.luby(0);
+            while (true) {
+                restarting = false;
+                search(1);
+                if (!restarting) break;
+                restarts += 1;
+                restartBudget = nodes + RESTART_NODES * CdclSolver.luby(restarts);
+            }
+        }
+        if (metrics != null) reportMetrics();
+        return solutionsFound;
+    }
+
+    /**
+     * Places the givens and propagates them, without searching.
+     * @return the candidates of every cell (a single digit for the placed cells), or {@code null} when propagation
+     * ran into a contradiction
+     */
+    int[] propagatedCandidates() {
+        reset();
+        if (!placeGivens() || !propagate()) return null;
+        return candidates.clone();
+    }
+
+    private void reportMetrics() {
+        metrics.recordTechnique(SolvingTechnique.PEER_ELIMINATION, eliminations);
+        metrics.recordTechnique(SolvingTechnique.NAKED_SINGLE, nakedSingles);
+        metrics.recordTechnique(SolvingTechnique.HIDDEN_SINGLE, hiddenSingles);
+        metrics.recordTechnique(SolvingTechnique.GUESS, guesses);
+        metrics.recordTechnique(SolvingTechnique.NOGOOD, nogoodPrunes);
+        metrics.recordTechnique(SolvingTechnique.TRANSPOSITION, transpositionHits);
+        metrics.recordCacheLookups(transpositionProbes, transpositionHits);
+        for (int digit = 1; digit <= SIZE; digit += 1) {
+            metrics.recordDigitBacktracks(digit, digitBacktracks[digit]);
+        }
+    }
+
+    /**
+     * @return the first solution found by the last search, or {@code null} when there was none
+     */
+    public int[][] getFirstSolution() {
+        return solutionsFound == 0 ? null : BoardGeometry.toGrid(firstSolution);
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    public long getNogoodPrunes() {
+        return nogoodPrunes;
+    }
+
+    public long getNogoodsLearned() {
+        return nogoods == null ? 0 : nogoods.getStored();
+    }
+
+    /**
+     * @return the number of candidates removed from the peers of placed digits by the last search
+     */
+    public long getEliminations() {
+        return eliminations;
+    }
+
+    /**
+     * @return the number of digits placed as naked singles by the last search
+     */
+    public long getNakedSingles() {
+        return nakedSingles;
+    }
+
+    /**
+     * @return the number of digits placed as hidden singles by the last search
+     */
+    public long getHiddenSingles() {
+        return hiddenSingles;
+    }
+
+    /**
+     * @return the number of restarts of the last search
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Makes the next searches give up with a {@link SolveCancelledException} once the token is cancelled.
+     * @param cancellationToken the token, or {@code null} to never give up
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * Randomizes the branching order of the next searches and makes them restart on a Luby schedule until a
+     * solution is found.
+     * @param seed the seed of the random branching order
+     */
+    public void setRandomRestarts(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Sets how the next searches pick the cell to guess and the order they try its digits in. With
+     * {@link #setRandomRestarts(long)}, the heuristic still decides and the random order only breaks the remaining
+     * ties.
+     * @param branching the heuristic, {@link BranchingHeuristic#DEFAULT} until set
+     * @throws IllegalArgumentException when the heuristic is {@code null}
+     */
+    public void setBranchingHeuristic(BranchingHeuristic branching) throws IllegalArgumentException {
+        if (branching == null) throw new IllegalArgumentException("A branching heuristic is required.");
+        this.branching = branching;
+    }
+
+    /**
+     * Attaches a trace that records the next searches, or detaches it.
+     * @param trace the trace, or {@code null} to disable tracing
+     */
+    public void setTrace(SolveTrace trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * @return the number of search states found in the transposition table by the last search
+     */
+    public long getTranspositionHits() {
+        return transpositionHits;
+    }
+
+    private void reset() {
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            values[cell] = 0;
+            candidates[cell] = ALL_DIGITS;
+        }
+        bitboards.fill();
+        emptyCells = CELLS;
+        stateHash = 0L;
+        currentLevel = 0;
+        trailSize = 0;
+        nodes = 0;
+        backtracks = 0;
+        nogoodPrunes = 0;
+        transpositionHits = 0;
+        eliminations = 0;
+        nakedSingles = 0;
+        hiddenSingles = 0;
+        guesses = 0;
+        transpositionProbes = 0;
+        restarts = 0;
+        boolean frequency = branching.getDigitOrder() == BranchingHeuristic.DigitOrder.FREQUENCY;
+        for (int digit = 1; digit <= SIZE; digit += 1) {
+            digitBacktracks[digit] = 0;
+            reportedDigitBacktracks[digit] = frequency && metrics != null ? metrics.getDigitBacktracks(digit) : 0;
+        }
+    }
+
+    private int countGivens() {
+        int count = 0;
+        for (int given : givens) {
+            if (given != 0) count += 1;
+        }
+        return count;
+    }
+
+    private boolean placeGivens() {
+        queueHead = 0;
+        queueTail = 0;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (givens[cell] != 0 && !assign(cell, givens[cell], 0L, SolvingTechnique.GIVEN)) return false;
+        }
+        return true;
+    }
+
+    private static long levelBit(int level) {
+        return level < SHARED_LEVEL ? 1L << (level - 1) : 1L << (SHARED_LEVEL - 1);
+    }
+
+    private void record(int cell) {
+        trail[trailSize++] = cell | candidates[cell] << 7 | values[cell] << 16;
+    }
+
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            int entry = trail[--trailSize];
+            int cell = entry & 0x7F;
+            int oldValue = entry >>> 16;
+            if (oldValue == 0 && values[cell] != 0) {
+                emptyCells += 1;
+                stateHash ^= TranspositionTable.key(cell, values[cell]);
+            }
+            int restored = (entry >>> 7) & ALL_DIGITS;
+            bitboards.add(cell, restored & ~candidates[cell]);
+            candidates[cell] = restored;
+            values[cell] = oldValue;
+        }
+    }
+
+    /**
+     * Places a digit in a cell and queues the cell so its peers lose that candidate.
+     * @return {@code false} on a contradiction, whose reason is left in {@link #conflictReason}
+     */
+    private boolean assign(int cell, int digit, long reason, SolvingTechnique technique) {
+        int bit = 1 << (digit - 1);
+        if (values[cell] != 0) {
+            if (values[cell] == digit) return true;
+            conflictReason = reason | assignmentReasons[cell];
+            return false;
+        }
+        if ((candidates[cell] & bit) == 0) {
+            conflictReason = reason | eliminationReasons[cell * SIZE + digit - 1];
+            return false;
+        }
+        record(cell);
+        values[cell] = digit;
+        bitboards.remove(cell, candidates[cell] & ~bit);
+        candidates[cell] = bit;
+        assignmentReasons[cell] = reason;
+        emptyCells -= 1;
+        stateHash ^= TranspositionTable.key(cell, digit);
+        propagationQueue[queueTail++] = cell;
+        if (technique == SolvingTechnique.NAKED_SINGLE) {
+            nakedSingles += 1;
+        } else if (technique == SolvingTechnique.HIDDEN_SINGLE) {
+            hiddenSingles += 1;
+        } else if (technique == SolvingTechnique.GUESS) {
+            guesses += 1;
+        }
+        if (trace != null) trace.record(SolveTrace.EventType.PLACEMENT, technique, cell, digit, currentLevel);
+        return true;
+    }
+
+    /**
+     * Removes a candidate from a cell, placing the last candidate left (naked single).
+     * @return {@code false} on a contradiction, whose reason is left in {@link #conflictReason}
+     */
+    private boolean eliminate(int cell, int digit, long reason) {
+        int bit = 1 << (digit - 1);
+        if ((candidates[cell] & bit) == 0) return true;
+        if (values[cell] != 0) {
+            conflictReason = reason | assignmentReasons[cell];
+            return false;
+        }
+        record(cell);
+        int remaining = candidates[cell] & ~bit;
+        candidates[cell] = remaining;
+        bitboards.remove(cell, bit);
+        eliminationReasons[cell * SIZE + digit - 1] = reason;
+        eliminations += 1;
+        if (trace != null) {
+            trace.record(SolveTrace.EventType.ELIMINATION, SolvingTechnique.PEER_ELIMINATION, cell, digit,
+                    currentLevel);
+        }
+        if (remaining == 0) {
+            conflictReason = eliminatedDigitsReason(cell, 0);
+            return false;
+        }
+        if ((remaining & (remaining - 1)) == 0) {
+            return assign(cell, Integer.numberOfTrailingZeros(remaining) + 1, eliminatedDigitsReason(cell, remaining),
+                    SolvingTechnique.NAKED_SINGLE);
+        }
+        return true;
+    }
+
+    /**
+     * @return the union of the reasons why every digit that isn't in {@code keptDigits} was removed from the cell
+     */
+    private long eliminatedDigitsReason(int cell, int keptDigits) {
+        long reason = 0L;
+        for (int removed = ALL_DIGITS & ~keptDigits; removed != 0; removed &= removed - 1) {
+            reason |= eliminationReasons[cell * SIZE + Integer.numberOfTrailingZeros(removed)];
+        }
+        return reason;
+    }
+
+    /**
+     * @return the union of the reasons why none of the unit cells but {@code exceptCell} can hold the digit
+     */
+    private long unitReason(int unit, int digit, int exceptCell) {
+        long reason = 0L;
+        for (int cell : UNIT_CELLS[unit]) {
+            if (cell == exceptCell) continue;
+            reason |= values[cell] != 0 ? assignmentReasons[cell] : eliminationReasons[cell * SIZE + digit - 1];
+        }
+        return reason;
+    }
+
+    /**
+     * Applies naked singles and hidden singles until nothing changes.
+     * @return {@code false} on a contradiction, whose reason is left in {@link #conflictReason}
+     */
+    private boolean propagate() {
+        SolverEvents.PropagationPass event = new SolverEvents.PropagationPass();
+        event.begin();
+        long eliminationsBefore = eliminations;
+        long nakedSinglesBefore = nakedSingles;
+        long hiddenSinglesBefore = hiddenSingles;
+        boolean consistent = propagateSingles();
+        event.end();
+        if (event.shouldCommit()) {
+            event.engine = ENGINE_NAME;
+            event.eliminations = (int) (eliminations - eliminationsBefore);
+            event.nakedSingles = (int) (nakedSingles - nakedSinglesBefore);
+            event.hiddenSingles = (int) (hiddenSingles - hiddenSinglesBefore);
+            event.consistent = consistent;
+            event.commit();
+        }
+        return consistent;
+    }
+
+    private boolean propagateSingles() {
+        while (true) {
+            while (queueHead < queueTail) {
+                int cell = propagationQueue[queueHead++];
+                int digit = values[cell];
+                long reason = assignmentReasons[cell];
+                for (int peer : PEERS[cell]) {
+                    if (!eliminate(peer, digit, reason)) return failPropagation();
+                }
+            }
+            if (!placeHiddenSingles()) return failPropagation();
+            if (queueHead == queueTail) return true;
+        }
+    }
+
+    private boolean failPropagation() {
+        queueHead = 0;
+        queueTail = 0;
+        return false;
+    }
+
+    private boolean placeHiddenSingles() {
+        for (int unit = 0; unit < UNITS; unit += 1) {
+            for (int digit = 1; digit <= SIZE; digit += 1) {
+                int count = bitboards.countInUnit(digit, unit);
+                if (count == 0) {
+                    conflictReason = unitReason(unit, digit, -1);
+                    return false;
+                }
+                if (count == 1) {
+                    int cell = bitboards.firstCellInUnit(digit, unit);
+                    if (values[cell] == 0
+                            && !assign(cell, digit, unitReason(unit, digit, cell), SolvingTechnique.HIDDEN_SINGLE)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the empty cell with the fewest candidates, ties broken by the branching heuristic
+     */
+    private int selectCell() {
+        boolean breakTies = branching.getCellSelection() != BranchingHeuristic.CellSelection.MINIMUM_REMAINING_VALUES;
+        int bestCell = -1;
+        int bestCount = SIZE + 1;
+        int bestTieBreak = -1;
+        int start = random == null ? 0 : random.nextInt(CELLS);
+        for (int offset = 0; offset < CELLS; offset += 1) {
+            int cell = start + offset;
+            if (cell >= CELLS) cell -= CELLS;
+            if (values[cell] != 0) continue;
+            int count = Integer.bitCount(candidates[cell]);
+            if (count > bestCount || count == bestCount && !breakTies) continue;
+            int tieBreak = breakTies ? tieBreak(cell) : 0;
+            if (count < bestCount || tieBreak > bestTieBreak) {
+                bestCell = cell;
+                bestCount = count;
+                bestTieBreak = tieBreak;
+                if (count == 2 && !breakTies) break;
+            }
+        }
+        return bestCell;
+    }
+
+    /**
+     * @return the number of empty peers of the cell, or of its bivalue peers with the bivalue cell selection
+     */
+    private int tieBreak(int cell) {
+        boolean bivalue = branching.getCellSelection() == BranchingHeuristic.CellSelection.BIVALUE;
+        int score = 0;
+        for (int peer : PEERS[cell]) {
+            if (values[peer] != 0) continue;
+            if (!bivalue || Integer.bitCount(candidates[peer]) == 2) score += 1;
+        }
+        return score;
+    }
+
+    /**
+     * Sorts the digits of the branching cell by the digit order of the branching heuristic, keeping the current order
+     * of equal digits.
+     */
+    private void orderDigits(int cell, int[] digits, int count) {
+        if (branching.getDigitOrder() == BranchingHeuristic.DigitOrder.LEAST_CONSTRAINING) {
+            for (int index = 0; index < count; index += 1) {
+                digitScores[digits[index]] = 0;
+            }
+            for (int peer : PEERS[cell]) {
+                if (values[peer] != 0) continue;
+                for (int shared = candidates[peer] & candidates[cell]; shared != 0; shared &= shared - 1) {
+                    digitScores[Integer.numberOfTrailingZeros(shared) + 1] += 1;
+                }
+            }
+        } else {
+            for (int index = 0; index < count; index += 1) {
+                digitScores[digits[index]] = reportedDigitBacktracks[digits[index]] + digitBacktracks[digits[index]];
+            }
+        }
+        for (int index = 1; index < count; index += 1) {
+            int digit = digits[index];
+            int position = index;
+            while (position > 0 && digitScores[digits[position - 1]] > digitScores[digit]) {
+                digits[position] = digits[position - 1];
+                position -= 1;
+            }
+            digits[position] = digit;
+        }
+    }
+
+    /**
+     * Explores the subtree of the current (propagated) board.
+     * @param level the decision level of the branches made here, starting at 1
+     * @return the decisions responsible for the subtree having no solution, as a mask of decision levels, or
+     * {@link #ALL_LEVELS} when a solution was found in it
+     */
+    private long search(int level) {
+        nodes += 1;
+        if ((nodes & (CANCELLATION_CHECK_NODES - 1)) == 0) {
+            if (cancellationToken != null) cancellationToken.throwIfCancelled();
+            if ((nodes & (SolverEvents.MILESTONE_NODES - 1)) == 0) {
+                SolverEvents.searchMilestone(ENGINE_NAME, nodes, level, backtracks);
+            }
+        }
+        if (emptyCells == 0) {
+            if (solutionsFound == 0) System.arraycopy(values, 0, firstSolution, 0, CELLS);
+            solutionsFound += 1;
+            return ALL_LEVELS;
+        }
+        if (nodes >= restartBudget && solutionsFound == 0) {
+            restarting = true;
+            return ALL_LEVELS;
+        }
+        if (transpositionTable != null) transpositionProbes += 1;
+        if (transpositionTable != null && transpositionTable.contains(stateHash)) {
+            transpositionHits += 1;
+            // a hit at the root has no decision to blame, e.g. when another solver of the same puzzle filled the table
+            if (trace != null && level > 1) {
+                trace.record(SolveTrace.EventType.PRUNE, SolvingTechnique.TRANSPOSITION, decisionCells[level - 1],
+                        decisionDigits[level - 1], level - 1);
+            }
+            return level < SHARED_LEVEL ? levelBit(level) - 1 : ALL_LEVELS;
+        }
+        int cell = selectCell();
+        int digits = candidates[cell];
+        long levelBit = levelBit(level);
+        long conflict = eliminatedDigitsReason(cell, digits);
+        long solutionsBefore = solutionsFound;
+        int[] digitOrder = digitOrders[level];
+        int digitCount = 0;
+        for (int remaining = digits; remaining != 0; remaining &= remaining - 1) {
+            digitOrder[digitCount++] = Integer.numberOfTrailingZeros(remaining) + 1;
+        }
+        if (random != null) shuffle(digitOrder, digitCount);
+        if (branching.getDigitOrder() != BranchingHeuristic.DigitOrder.ASCENDING) {
+            orderDigits(cell, digitOrder, digitCount);
+        }
+        for (int index = 0; index < digitCount; index += 1) {
+            int digit = digitOrder[index];
+            long childConflict;
+            int[] nogood = nogoods == null ? null : nogoods.findCompletedBy(cell * SIZE + digit - 1, values);
+            if (nogood != null) {
+                nogoodPrunes += 1;
+                if (trace != null) {
+                    trace.record(SolveTrace.EventType.PRUNE, SolvingTechnique.NOGOOD, cell, digit, level);
+                }
+                childConflict = levelBit;
+                for (int literal : nogood) {
+                    if (literal / SIZE != cell) childConflict |= assignmentReasons[literal / SIZE];
+                }
+            } else {
+                decisionCells[level] = cell;
+                decisionDigits[level] = digit;
+                long solutionsBeforeChild = solutionsFound;
+                int mark = trailSize;
+                queueHead = 0;
+                queueTail = 0;
+                currentLevel = level;
+                if (assign(cell, digit, levelBit, SolvingTechnique.GUESS) && propagate()) {
+                    childConflict = search(level + 1);
+                } else {
+                    childConflict = conflictReason;
+                }
+                undo(mark);
+                currentLevel = level - 1;
+                if (trace != null) {
+                    trace.record(SolveTrace.EventType.BACKTRACK, SolvingTechnique.GUESS, cell, digit, level);
+                }
+                if (restarting || solutionsFound >= solutionLimit) return ALL_LEVELS;
+                if (solutionsFound > solutionsBeforeChild) continue;
+            }
+            backtracks += 1;
+            digitBacktracks[digit] += 1;
+            if (childConflict < 0 && level < SHARED_LEVEL) {
+                // the failure depends on decisions past the shared level, which are already undone
+                childConflict = levelBit | (levelBit - 1);
+            }
+            if ((childConflict & levelBit) == 0 && solutionsFound == solutionsBefore) {
+                if (transpositionTable != null) transpositionTable.add(stateHash);
+                return childConflict;
+            }
+            conflict |= childConflict;
+        }
+        if (solutionsFound > solutionsBefore) return ALL_LEVELS;
+        if (transpositionTable != null) transpositionTable.add(stateHash);
+        if (level < SHARED_LEVEL) {
+            conflict &= ~levelBit;
+            learnNogood(conflict);
+        }
+        return conflict;
+    }
+
+    private void shuffle(int[] digits, int count) {
+        for (int index = count - 1; index > 0; index -= 1) {
+            int other = random.nextInt(index + 1);
+            int digit = digits[index];
+            digits[index] = digits[other];
+            digits[other] = digit;
+        }
+    }
+
+    private void learnNogood(long conflict) {
+        if (nogoods == null || conflict == 0 || conflict < 0 || Long.bitCount(conflict) > NogoodStore.MAX_LITERALS) {
+            return;
+        }
+        int size = 0;
+        for (long levels = conflict; levels != 0; levels &= levels - 1) {
+            int level = Long.numberOfTrailingZeros(levels) + 1;
+            nogoodLiterals[size++] = decisionCells[level] * SIZE + decisionDigits[level] - 1;
+        }
+        nogoods.add(nogoodLiterals, size);
+    }
+}
@@ -0,0 +1,152 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SudokuSolverBacktrackingTest {
+
+    private final int[][] hardPuzzle = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+
+    private final int[][] hardPuzzleSolution = PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION);
+
+    private final String escargot =
+            "1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3..";
+
+    @Test
+    public void testSolvesHardPuzzle() {
+        assertArrayEquals(hardPuzzleSolution, new SudokuSolverBacktracking(hardPuzzle).solve());
+    }
+
+    @Test
+    public void testNogoodLearningKeepsTheSameSolution() {
+        int[][] withoutNogoods = new SudokuSolverBacktracking(PuzzleText.parse(escargot), false).solve();
+        SudokuSolverBacktracking solver = new SudokuSolverBacktracking(PuzzleText.parse(escargot), true);
+        assertArrayEquals(withoutNogoods, solver.solve());
+        assertTrue(solver.getNogoodsLearned() > 0);
+    }
+
+    @Test
+    public void testCountSolutionsStopsAtLimit() {
+        int[][] sparsePuzzle = PuzzleText.parse(
+                "12.......34.......5..............................................................");
+        assertEquals(10, new SudokuSolverBacktracking(sparsePuzzle).countSolutions(10));
+        assertEquals(1, new SudokuSolverBacktracking(hardPuzzle).countSolutions(10));
+    }
+
+    @Test
+    public void testSharedTranspositionTableSkipsKnownDeadEnds() {
+        TranspositionTable table = new TranspositionTable();
+        SudokuSolverBacktracking first = new SudokuSolverBacktracking(PuzzleText.parse(escargot), false, table);
+        assertEquals(1, first.countSolutions(2));
+        SudokuSolverBacktracking second = new SudokuSolverBacktracking(PuzzleText.parse(escargot), false, table);
+        assertEquals(1, second.countSolutions(2));
+        assertTrue(second.getTranspositionHits() > 0);
+        assertTrue(second.getNodes() < first.getNodes());
+    }
+
+    @Test
+    public void testTranspositionHitAtTheRootBlamesNoDecision() {
+        // escargot with a wrong 2 that only the search refutes
+        String unsolvable = "12...7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3..";
+        TranspositionTable table = new TranspositionTable();
+        assertEquals(0, new SudokuSolverBacktracking(PuzzleText.parse(unsolvable), false, table).countSolutions(2));
+        SudokuSolverBacktracking solver = new SudokuSolverBacktracking(PuzzleText.parse(unsolvable), false, table);
+        SolveTrace trace = new SolveTrace();
+        solver.setTrace(trace);
+        assertEquals(0, solver.countSolutions(2));
+        assertEquals(1, solver.getTranspositionHits());
+        for (SolveTrace.Event event : trace.events()) {
+            assertFalse(event.toString(), event.getType() == SolveTrace.EventType.PRUNE);
+        }
+    }
+
+    @Test
+    public void testTraceRecordsGivensThenDeductions() {
+        SudokuSolverBacktracking solver = new SudokuSolverBacktracking(hardPuzzle);
+        SolveTrace trace = new SolveTrace();
+        solver.setTrace(trace);
+        solver.solve();
+        SolveTrace.Event first = trace.get(0);
+        assertEquals(SolveTrace.EventType.PLACEMENT, first.getType());
+        assertEquals(SolvingTechnique.GIVEN, first.getTechnique());
+        assertEquals(6, first.getDigit());
+        assertEquals(0, first.getRowIndex());
+        assertEquals(2, first.getColumnIndex());
+        assertTrue(trace.events().stream().anyMatch(event -> event.getTechnique() == SolvingTechnique.GUESS));
+        assertFalse(trace.isTruncated());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsolvablePuzzleIsRejected() {
+        new SudokuSolverBacktracking(PuzzleText.parse(
+                "12345678.........9...............................................................")).solve();
+    }
+
+    @Test
+    public void testEveryBranchingHeuristicFindsTheSameSolutions() {
+        int[][] sparsePuzzle = PuzzleText.parse(
+                "12.......34.......5..............................................................");
+        for (BranchingHeuristic.CellSelection cellSelection : BranchingHeuristic.CellSelection.values()) {
+            for (BranchingHeuristic.DigitOrder digitOrder : BranchingHeuristic.DigitOrder.values()) {
+                BranchingHeuristic branching = new BranchingHeuristic(cellSelection, digitOrder);
+                SudokuSolverBacktracking solver = new SudokuSolverBacktracking(PuzzleText.parse(escargot));
+                solver.setBranchingHeuristic(branching);
+                assertEquals(1, solver.countSolutions(2));
+                assertArrayEquals(new SudokuSolverBacktracking(PuzzleText.parse(escargot)).solve(),
+                        solver.getFirstSolution());
+                assertArrayEquals(hardPuzzleSolution, SudokuEngine.backtracking(branching, null).solve(hardPuzzle));
+                SudokuSolverBacktracking counter = new SudokuSolverBacktracking(sparsePuzzle);
+                counter.setBranchingHeuristic(branching);
+                counter.setRandomRestarts(42);
+                assertEquals(100, counter.countSolutions(100));
+            }
+        }
+    }
+
+    @Test
+    public void testFrequencyOrderLearnsFromTheMetricsAcrossSolves() {
+        BranchingHeuristic frequency = new BranchingHeuristic(BranchingHeuristic.CellSelection.MINIMUM_REMAINING_VALUES,
+                BranchingHeuristic.DigitOrder.FREQUENCY);
+        SolverMetrics metrics = new SolverMetrics();
+        SolveTrace.Event untrained = firstGuess(frequency, metrics);
+        assertEquals(firstGuess(BranchingHeuristic.DEFAULT, null).toString(), untrained.toString());
+        metrics.recordDigitBacktracks(untrained.getDigit(), 1000);
+        SolveTrace.Event trained = firstGuess(frequency, metrics);
+        assertEquals(untrained.getRowIndex(), trained.getRowIndex());
+        assertEquals(untrained.getColumnIndex(), trained.getColumnIndex());
+        assertTrue(trained.toString(), trained.getDigit() != untrained.getDigit());
+        long backtracks = 0;
+        for (int digit = 1; digit <= 9; digit += 1) {
+            backtracks += metrics.getDigitBacktracks(digit);
+        }
+        assertTrue(backtracks > 1000);
+    }
+
+    private SolveTrace.Event firstGuess(BranchingHeuristic branching, SolverMetrics metrics) {
+        SudokuSolverBacktracking solver = new SudokuSolverBacktracking(PuzzleText.parse(escargot), true, null, metrics);
+        solver.setBranchingHeuristic(branching);
+        SolveTrace trace = new SolveTrace();
+        solver.setTrace(trace);
+        solver.solve();
+        return trace.events().stream().filter(event -> event.getType() == SolveTrace.EventType.PLACEMENT
+                && event.getTechnique() == SolvingTechnique.GUESS).findFirst().orElseThrow();
+    }
+
+    @Test
+    public void testBranchingHeuristicsParseTheirNames() {
+        BranchingHeuristic branching = BranchingHeuristic.parse(" bivalue/least-constraining ");
+        assertEquals(BranchingHeuristic.CellSelection.BIVALUE, branching.getCellSelection());
+        assertEquals(BranchingHeuristic.DigitOrder.LEAST_CONSTRAINING, branching.getDigitOrder());
+        assertEquals("bivalue/least-constraining", branching.toString());
+        assertEquals(BranchingHeuristic.DEFAULT, BranchingHeuristic.parse(BranchingHeuristic.DEFAULT.toString()));
+        for (String invalid : new String[] {"degree", "degree/", "mrv/ascending", "degree/ascending/frequency"}) {
+            try {
+                BranchingHeuristic.parse(invalid);
+                fail("Expected '" + invalid + "' to be rejected.");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Invalid branching heuristic '" + invalid + "'.", e.getMessage());
+            }
+        }
+    }
+}
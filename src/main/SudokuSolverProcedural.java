@@ -1,5 +1,15 @@
 package main;
 
+import static main.BoardGeometry.ALL_DIGITS;
+import static main.BoardGeometry.CELLS;
+import static main.BoardGeometry.COLUMN_OF;
+import static main.BoardGeometry.PEERS;
+import static main.BoardGeometry.QUADRANT_OF;
+import static main.BoardGeometry.ROW_OF;
+import static main.BoardGeometry.SIZE;
+import static main.BoardGeometry.UNITS;
+import static main.BoardGeometry.UNIT_CELLS;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -50,16 +60,52 @@ import java.util.Optional;
  * "naked triples," and "hidden triples" to fill in more cells. These deductions involve analyzing the possible
  * values for cells in a row, column, or box to identify patterns and eliminate possibilities.</i>
  * </p>
+ * <p>
+ * The solving methods work on primitive masks only: one candidate mask per cell (bit {@code digit - 1}) and one mask
+ * of placed digits per row, column and quadrant, so the hot path allocates nothing and never touches a {@link List}
+ * or a stream. Easy puzzles take naked singles, medium ones naked and hidden singles, hard ones naked and hidden
+ * pairs and digit templates on top of that, and very hard ones (or any puzzle the logical methods get stuck on) a depth-first search
+ * that branches on the cell with the fewest candidates, propagates singles after every guess and counts up to two
+ * solutions to prove uniqueness. Candidate recomputation and the per-unit digit counts go through the
+ * {@link CandidateKernel} selected at startup.
+ * </p>
  * <a href="https://github.com/Gretgor/HardSudokuSolver/blob/main/SudokuProblem.py">This is a sample of a Hard Sudoku
  * Solver using back track strategy.</a>
  */
 public class SudokuSolverProcedural {
 
+    static final String ENGINE_NAME = "procedural";
+
+    private static final CandidateKernel KERNEL = CandidateKernels.ACTIVE;
+
     private final int[][] puzzle;
 
     private int zerosInPuzzle = 0;
 
-    private final int[][][] puzzlePossibilities;
+    /**
+     * The candidates of every empty cell as a mask (bit {@code digit - 1}), indexed by {@code row * 9 + column}. Filled
+     * cells have no candidates.
+     */
+    private final int[] candidates = new int[CELLS];
+
+    private final int[] rowMasks = new int[SIZE];
+
+    private final int[] columnMasks = new int[SIZE];
+
+    private final int[] quadrantMasks = new int[SIZE];
+
+    private final int[] digitPositions = new int[SIZE];
+
+    /**
+     * The search state saved before every guess: candidates, placed digits per unit, zeros count and cell values.
+     */
+    private static final int STATE_SIZE = CELLS + 3 * SIZE + 1 + CELLS;
+
+    private int[][] savedStates;
+
+    private int solutionsFound;
+
+    private final int[] firstSolution = new int[CELLS];
 
     private enum GivensInPuzzle {
         VERY_HARD(28),
@@ -88,44 +134,41 @@ public class SudokuSolverProcedural {
     private final int[] allPossibilities = { 1, 2, 3, 4, 5, 6, 7, 8, 9 };
 
     public SudokuSolverProcedural(int[][] grid) throws IllegalArgumentException {
-        try {
-            this.puzzle = grid;
-            puzzlePossibilities = new int[grid.length][grid.length][grid.length];
-        } catch (Exception exception) {
-            throw new IllegalArgumentException("Invalid grid puzzle. The grid must be an int[][] type.\nMessage: " +
-                    exception.getMessage());
-        }
+        PuzzleValidator.validate(grid);
+        this.puzzle = grid;
+        initializeCandidates();
     }
 
-    private void countZerosInPuzzle() {
-        for (int[] row : puzzle) {
-            for (int element : row) {
-                if (element == 0) {
-                    zerosInPuzzle += 1;
-                }
+    /**
+     * This method counts the empty cells and builds the masks of placed digits and the candidates of every cell.
+     */
+    private void initializeCandidates() {
+        zerosInPuzzle = 0;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            int value = valueOf(cell);
+            if (value == 0) {
+                zerosInPuzzle += 1;
+            } else {
+                int bit = 1 << (value - 1);
+                rowMasks[ROW_OF[cell]] |= bit;
+                columnMasks[COLUMN_OF[cell]] |= bit;
+                quadrantMasks[QUADRANT_OF[cell]] |= bit;
             }
         }
+        KERNEL.recomputeCandidates(BoardGeometry.toCells(puzzle), candidates);
     }
 
     /**
-     * This method checks when the puzzle board has more than 9 rows or if any of its rows has
-     * more than 9 elements on it and, at last it verifies if there is any invalid element on puzzle (e.g. an element
-     * that is not a digit between 1 and 9).
+     * This method checks if the puzzle has at least 17 givens. The shape of the grid, the range of its elements and
+     * duplicated digits in a row, column or quadrant are already checked by {@link PuzzleValidator} when the solver
+     * is built.
      *
-     * @throws IllegalArgumentException when any aforementioned conditions are found
+     * @throws IllegalArgumentException when the puzzle has less than 17 givens
      */
     private void startValidatingPuzzle() {
         if (puzzle.length != 9) throw new IllegalArgumentException("It's not a 9x9 grid.");
         if (zerosInPuzzle > MAX_UNKNOWN_POSITIONS_IN_PUZZLE) throw new IllegalArgumentException("Invalid puzzle. The " +
                 "minimum of givens required to create an unique (with no multiple solutions) sudoku game is 17.");
-        for (int rowIndex = 0; rowIndex < puzzle.length; rowIndex += 1) {
-            if (puzzle[rowIndex].length != 9) throw new IllegalArgumentException("The row at " + rowIndex +
-                    " index has an invalid length.");
-            for (int element : puzzle[rowIndex]) {
-                if (element != 0 && (element < 1 || element > 9)) throw new IllegalArgumentException("At least one " +
-                        "element is not a valid digit. Only digits from 1 to 9 are allowed.");
-            }
-        }
     }
 
     /**
@@ -290,335 +333,321 @@ public class SudokuSolverProcedural {
         return optionalValue.get();
     }
 
+    private int valueOf(int cell) {
+        return puzzle[ROW_OF[cell]][COLUMN_OF[cell]];
+    }
+
     /**
-     * This method generates all candidates for a specific position and create an array wit all possible numbers
-     * for that position. This array is set into a 3x3 matrix that contains all possible numbers for all puzzle's
-     * positions.
-     *
-     * @param position the data related to current position such as rowIndex, columnIndex, row, column and quadrant
+     * @return the digits not placed yet in the row, column and quadrant of the cell, as a mask
      */
-    private void generateCandidatesFor(PositionDataProcedural position) {
-        int[] possibilitiesForRow = symmetricDifference(position.row);
-        int[] possibilitiesForColumn = symmetricDifference(position.column);
-        int[] possibilitiesForQuadrant = symmetricDifference(position.quadrant);
-
-        int[] possibleNumbersForCurrentPosition = getIntersection(
-                possibilitiesForRow, possibilitiesForColumn, possibilitiesForQuadrant
-        );
+    private int freeDigits(int cell) {
+        return ALL_DIGITS & ~(rowMasks[ROW_OF[cell]] | columnMasks[COLUMN_OF[cell]] | quadrantMasks[QUADRANT_OF[cell]]);
+    }
 
-        puzzlePossibilities[position.rowIndex][position.columnIndex] = possibleNumbersForCurrentPosition;
+    /**
+     * @return the digits placed in the unit, as a mask
+     */
+    private int placedDigits(int unit) {
+        if (unit < SIZE) return rowMasks[unit];
+        return unit < 2 * SIZE ? columnMasks[unit - SIZE] : quadrantMasks[unit - 2 * SIZE];
     }
 
     /**
-     * This method builds a {@link PositionDataProcedural PositionData} for the current position.
-     * @param rowIndex current row index
-     * @param columnIndex current column index
-     * @return a {@link PositionDataProcedural PositionData} that contains all info related to the current position
+     * This method places a digit that is a candidate of the cell and removes it from the candidates of its peers.
      */
-    private PositionDataProcedural generatePositionDataFor(int rowIndex, int columnIndex) {
-        int[] currentRow = getCurrentRow(rowIndex);
-        int[] currentColumn = getCurrentColumn(columnIndex);
-        int[] currentQuadrant = getCurrentQuadrant(rowIndex, columnIndex);
-        return new PositionDataProcedural(rowIndex, columnIndex, currentRow, currentColumn, currentQuadrant);
+    private void place(int cell, int digit) {
+        int bit = 1 << (digit - 1);
+        puzzle[ROW_OF[cell]][COLUMN_OF[cell]] = digit;
+        rowMasks[ROW_OF[cell]] |= bit;
+        columnMasks[COLUMN_OF[cell]] |= bit;
+        quadrantMasks[QUADRANT_OF[cell]] |= bit;
+        candidates[cell] = 0;
+        zerosInPuzzle -= 1;
+        for (int peer : PEERS[cell]) {
+            candidates[peer] &= ~bit;
+        }
     }
 
     /**
-     * This method checks all possible numbers for a specific position on puzzle.
+     * This method checks all possible numbers for a specific position on puzzle, and places the number when it's
+     * the only one left.
      *
      * @param rowIndex    current row index
      * @param columnIndex current column index
      */
     public void checkCurrentPosition(int rowIndex, int columnIndex) {
-        PositionDataProcedural positionDataProcedural = generatePositionDataFor(rowIndex, columnIndex);
-        generateCandidatesFor(positionDataProcedural);
-        if (puzzlePossibilities[rowIndex][columnIndex].length == 1
-                && Arrays.stream(puzzlePossibilities[rowIndex][columnIndex]).findFirst().isPresent()) {
-            zerosInPuzzle -= 1;
-
-            puzzle[rowIndex][columnIndex] =
-                    Arrays.stream(puzzlePossibilities[rowIndex][columnIndex]).findFirst().getAsInt();
-            puzzlePossibilities[rowIndex][columnIndex] = new int[] { };
-        }
-//        searchHiddenSinglesForRow(positionData);
-//        searchHiddenSingleForColumn(positionData);
-//        searchHiddenSingleForQuadrant(positionData);
+        int cell = rowIndex * SIZE + columnIndex;
+        if (puzzle[rowIndex][columnIndex] != 0) return;
+        int mask = candidates[cell] & freeDigits(cell);
+        candidates[cell] = mask;
+        if (mask != 0 && (mask & (mask - 1)) == 0) place(cell, Integer.numberOfTrailingZeros(mask) + 1);
     }
 
     /**
-     * This is an auxiliary method to check if some position is still an empty cell (it has 0 as its value).
-     * @param position {@link PositionDataProcedural PositionData} with current position info
-     * @return {@code true} if the current positions has an empty value (e.g. it has zero as its value) or {@code false} otherwise
+     * This method places every naked single: an empty cell with a single candidate left.
+     * @return the number of placed digits, or -1 when an empty cell has no candidate left
      */
-    private boolean isPositionEmpty(PositionDataProcedural position) {
-        return puzzle[position.rowIndex][position.columnIndex] == 0;
-    }
-
-    private boolean contains(int[] set, int element) {
-        if (set.length == 0) return false;
-        int index = 0;
-        while (index < set.length) {
-            if (set[index] == element) return true;
-            index += 1;
+    private int placeNakedSingles() {
+        int placed = 0;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (valueOf(cell) != 0) continue;
+            int mask = candidates[cell];
+            if (mask == 0) return -1;
+            if ((mask & (mask - 1)) == 0) {
+                place(cell, Integer.numberOfTrailingZeros(mask) + 1);
+                placed += 1;
+            }
         }
-        return false;
+        return placed;
     }
 
-    private int[] truthTable() {
-        return new int[] { 0, 0, 0, 0, 0, 0, 0, 0, 0 };
-    }
-
-    private int findUniqueOccurrenceBetweenSets(int[][] setsOfCandidates) {
-        int[] truthTable = truthTable();
-        for (int[] set : setsOfCandidates) {
-            for (int element : set) {
-                if (element != 0) truthTable[element - 1] += 1;
+    /**
+     * This method places every hidden single: a digit that has a single cell left in a row, column or quadrant.
+     * @return the number of placed digits, or -1 when a digit has no cell left in some unit
+     */
+    private int placeHiddenSingles() {
+        int placed = 0;
+        for (int unit = 0; unit < UNITS; unit += 1) {
+            long counts = KERNEL.countDigits(candidates, unit);
+            if ((KERNEL.digitsWithCount(counts, 0) & ~placedDigits(unit)) != 0) return -1;
+            for (int hidden = KERNEL.digitsWithCount(counts, 1); hidden != 0; hidden &= hidden - 1) {
+                int bit = hidden & -hidden;
+                int hiddenCell = -1;
+                for (int cell : UNIT_CELLS[unit]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        hiddenCell = cell;
+                        break;
+                    }
+                }
+                // a previous hidden single of this unit may have taken the only cell of this digit
+                if (hiddenCell < 0) return -1;
+                place(hiddenCell, Integer.numberOfTrailingZeros(bit) + 1);
+                placed += 1;
             }
         }
+        return placed;
+    }
 
-        for (int index = 0; index < truthTable.length; index++) {
-            if (truthTable[index] == 1) return index + 1;
-        }
-        return -1;
-    }
-
-    /**
-     * @deprecated This method will be removed, since it's not actually searching for hidden singles on current
-     * row.
-     * @param position
-     */
-    @Deprecated
-    private void searchHiddenSinglesForRow(PositionDataProcedural position) {
-//        int[] row = puzzle[position.rowIndex];
-//        int[][] rowWithCandidates = puzzlePossibilities[position.rowIndex];
-//
-//        for (int rowElement : row) {
-//            if (rowElement == 0) {
-//                for (int possibleCandidate : allPossibilities) {
-//
-//                }
-//            }
-//        }
-//
-//
-//        for (int possibleCandidate : allPossibilities) {
-//
-//            int countMatchesForPossibleCandidate = 0;
-//
-//            for (int columnIndex = 0; columnIndex < puzzle.length; columnIndex += 1) {
-//
-//                int[] candidatesForPosition = puzzlePossibilities[position.rowIndex][columnIndex];
-//
-//                for (int candidate : candidatesForPosition) {
-//                    if (candidate == possibleCandidate) {
-//                        countMatchesForPossibleCandidate += 1;
-//                    }
-//                }
-//
-//                if (countMatchesForPossibleCandidate == 1 && isPositionEmpty(position)) {
-//                    zerosInPuzzle -= 1;
-//                    puzzle[position.rowIndex][position.columnIndex] = possibleCandidate;
-//                }
-//            }
-//        }
-    }
-
-    /**
-     * @deprecated This method will be removed, since it's not actually searching for hidden singles on current
-     * column.
-     * @param position
-     */
-    @Deprecated
-    private void searchHiddenSingleForColumn(PositionDataProcedural position) {
-        for (int possibleCandidate : allPossibilities) {
-
-            int countMatchesForPossibleCandidate = 0;
-
-            for (int rowIndex = 0; rowIndex < puzzle.length; rowIndex += 1) {
-
-                int[] candidatesForPosition = puzzlePossibilities[rowIndex][position.columnIndex];
-
-                for (int candidate : candidatesForPosition) {
-                    if (candidate == possibleCandidate) {
-                        countMatchesForPossibleCandidate += 1;
+    /**
+     * This method looks for hidden pairs: two digits that can only go in the same two cells of a row, column or
+     * quadrant. Those two cells can't hold any other digit, so their other candidates are removed.
+     * @return the number of removed candidates
+     */
+    private int findHiddenPairs() {
+        int removed = 0;
+        for (int unit = 0; unit < UNITS; unit += 1) {
+            // a hidden pair needs two digits with two cells each
+            if (Integer.bitCount(KERNEL.digitsWithCount(KERNEL.countDigits(candidates, unit), 2)) < 2) continue;
+            Arrays.fill(digitPositions, 0);
+            for (int index = 0; index < SIZE; index += 1) {
+                for (int mask = candidates[UNIT_CELLS[unit][index]]; mask != 0; mask &= mask - 1) {
+                    digitPositions[Integer.numberOfTrailingZeros(mask)] |= 1 << index;
+                }
+            }
+            for (int first = 0; first < SIZE; first += 1) {
+                if (Integer.bitCount(digitPositions[first]) != 2) continue;
+                for (int second = first + 1; second < SIZE; second += 1) {
+                    if (digitPositions[second] != digitPositions[first]) continue;
+                    int pair = 1 << first | 1 << second;
+                    for (int positions = digitPositions[first]; positions != 0; positions &= positions - 1) {
+                        int cell = UNIT_CELLS[unit][Integer.numberOfTrailingZeros(positions)];
+                        removed += Integer.bitCount(candidates[cell] & ~pair);
+                        candidates[cell] &= pair;
                     }
                 }
+            }
+        }
+        return removed;
+    }
 
-                if (countMatchesForPossibleCandidate == 1 && isPositionEmpty(position)) {
-                    zerosInPuzzle -= 1;
-                    puzzle[position.rowIndex][position.columnIndex] = possibleCandidate;
+    /**
+     * This method looks for naked pairs: two cells of a row, column or quadrant with the same two candidates. Those
+     * two digits must go in those two cells, so they are removed from the other cells of the unit.
+     * @return the number of removed candidates
+     */
+    private int findNakedPairs() {
+        int removed = 0;
+        for (int unit = 0; unit < UNITS; unit += 1) {
+            int[] cells = UNIT_CELLS[unit];
+            for (int first = 0; first < SIZE; first += 1) {
+                int pair = candidates[cells[first]];
+                if (Integer.bitCount(pair) != 2) continue;
+                for (int second = first + 1; second < SIZE; second += 1) {
+                    if (candidates[cells[second]] != pair) continue;
+                    for (int other = 0; other < SIZE; other += 1) {
+                        if (other == first || other == second) continue;
+                        removed += Integer.bitCount(candidates[cells[other]] & pair);
+                        candidates[cells[other]] &= ~pair;
+                    }
                 }
             }
         }
+        return removed;
     }
 
     /**
-     * @deprecated This method will be removed, since it's not actually searching for hidden singles on current
-     * quadrant.
-     * @param position
+     * @throws IllegalArgumentException when a solving method ran into a contradiction
      */
-    @Deprecated
-    private void searchHiddenSingleForQuadrant(PositionDataProcedural position) {
-        for (int possibleCandidate : allPossibilities) {
-
-            int countMatchesForPossibleCandidate = 0;
+    private static int requireConsistent(int placed) {
+        if (placed < 0) throw NoUniqueSolutionException.unsolvable();
+        return placed;
+    }
 
-            int rowQuadrant = getRowQuadrant(position.rowIndex);
-            int columnQuadrant = getColumnQuadrant(position.rowIndex, position.columnIndex);
-            int currentQuadrantFirstRowPosition = getCurrentQuadrantFirstRowIndex(rowQuadrant);
-            int currentQuadrantFirstColumnPosition = getCurrentQuadrantFirstColumnIndex(columnQuadrant, position.rowIndex);
+    /**
+     * This method solves easy sudoku puzzles by placing naked singles.
+     */
+    public void solveEasyMethod() {
+        requireConsistent(placeNakedSingles());
+    }
 
-            for (int i = 0; i < Math.sqrt(puzzle.length); i += 1) {
-                for (int j = 0; j < Math.sqrt(puzzle[getCurrentQuadrantFirstRowIndex(rowQuadrant) + i].length); j += 1) {
+    /**
+     * This method solves medium sudoku puzzles by placing naked singles and hidden singles.
+     */
+    public void solveMediumMethod() {
+        requireConsistent(placeNakedSingles());
+        requireConsistent(placeHiddenSingles());
+    }
 
-                    var candidates = puzzlePossibilities[currentQuadrantFirstRowPosition + i][currentQuadrantFirstColumnPosition + j];
+    /**
+     * This method applies the {@link DigitTemplates} deductions of every digit.
+     * @return the number of removed candidates
+     */
+    private int applyTemplates() {
+        return requireConsistent(DigitTemplates.apply(BoardGeometry.toCells(puzzle), candidates));
+    }
 
-                    for (int candidate : candidates) {
-                        if (candidate == possibleCandidate) {
-                            countMatchesForPossibleCandidate += 1;
-                        }
-                    }
+    /**
+     * This method solves hard sudoku puzzles: it places singles and removes candidates with naked and hidden pairs,
+     * then with digit templates, until nothing changes, then searches for what's left.
+     */
+    public void solveHardMethod() {
+        applyHardMethods();
+        if (zerosInPuzzle > 0) solveVeryHardMethod();
+    }
 
-                    if (countMatchesForPossibleCandidate == 1 && isPositionEmpty(position)) {
-                        zerosInPuzzle -= 1;
-                        puzzle[position.rowIndex][position.columnIndex] = possibleCandidate;
-                    }
-                }
-            }
+    /**
+     * This method places singles and removes candidates with pairs and templates until nothing changes.
+     */
+    private void applyHardMethods() {
+        while (zerosInPuzzle > 0) {
+            int placed = requireConsistent(placeNakedSingles()) + requireConsistent(placeHiddenSingles());
+            if (placed > 0 || findNakedPairs() + findHiddenPairs() > 0) continue;
+            if (applyTemplates() == 0) break;
         }
     }
 
     /**
-     * This method was implemented with Chat-GPT help. It provided the following pseudocode as an example.
-     * function findHiddenPairs(grid):
-     *     for each row in grid:
-     *         countOccurrences = initialize empty dictionary
-     *         for each cell in row:
-     *             if cell is empty:
-     *                 for each possibility in cell.possibilities:
-     *                     countOccurrences[possibility] += 1
-     *         hiddenPairs = find keys in countOccurrences with a value of 2
-     *         if length of hiddenPairs is greater than or equal to 2:
-     *             for each hiddenPair in hiddenPairs:
-     *                 for each cell in row:
-     *                     if cell is empty and hiddenPair is in cell.possibilities:
-     *                         remove other possibilities from cell.possibilities except hiddenPair
-     *     repeat the above steps for each column and each box
-     *     return grid
-     */
-    private void findHiddenPairs() {
-        for (int rowIndex = 0; rowIndex < puzzle.length; rowIndex += 1) {
-            int[] row = puzzle[rowIndex];
-            int[] countOccurrences = new int[puzzle.length];
-            for (int columnIndex = 0; columnIndex < puzzle.length; columnIndex += 1) {
-                if (puzzle[rowIndex][columnIndex] == 0) {
-                    for (int possibility : puzzlePossibilities[rowIndex][columnIndex]) {
-                        countOccurrences[possibility - 1] += 1;
-                    }
-                }
-            }
-            int[] hiddenPairs = Arrays.stream(countOccurrences).filter(element -> element == 2).toArray();
-            if (hiddenPairs.length >= 2) {
-
-            }
+     * This method rates the puzzle by the first tier of methods that solves it without guessing, trying the easy,
+     * medium and hard methods in turn, but no tier harder than the ceiling. Like the solving methods, it fills the grid
+     * in place.
+     *
+     * @param ceiling the hardest tier worth trying
+     * @return the difficulty of the puzzle, or the difficulty right above the ceiling when it's harder than that
+     * @throws IllegalArgumentException when a method ran into a contradiction
+     */
+    Difficulty rateDifficulty(Difficulty ceiling) {
+        while (zerosInPuzzle > 0 && requireConsistent(placeNakedSingles()) > 0) {
+            // keep placing naked singles
+        }
+        if (zerosInPuzzle == 0) return Difficulty.EASY;
+        if (ceiling == Difficulty.EASY) return Difficulty.MEDIUM;
+        while (zerosInPuzzle > 0
+                && requireConsistent(placeNakedSingles()) + requireConsistent(placeHiddenSingles()) > 0) {
+            // keep placing singles
         }
+        if (zerosInPuzzle == 0) return Difficulty.MEDIUM;
+        if (ceiling == Difficulty.MEDIUM) return Difficulty.HARD;
+        applyHardMethods();
+        return zerosInPuzzle == 0 ? Difficulty.HARD : Difficulty.VERY_HARD;
     }
 
-
-
-
     /**
-     * This method solves easy sudoku puzzles via brute force strategy.
+     * This method solves very hard sudoku puzzles with a depth-first search, which also proves the solution is unique.
+     *
+     * @throws IllegalArgumentException when the puzzle is unsolvable or has multiple solutions
      */
-    public void solveEasyMethod() {
-        for (int rowIndex = 0; rowIndex < puzzle.length; rowIndex += 1) {
-            for (int columnIndex = 0; columnIndex < puzzle[rowIndex].length; columnIndex += 1) {
-                if (puzzle[rowIndex][columnIndex] == 0) {
-                    checkCurrentPosition(rowIndex, columnIndex);
+    public void solveVeryHardMethod() {
+        if (savedStates == null) savedStates = new int[CELLS + 1][STATE_SIZE];
+        solutionsFound = 0;
+        if (propagate() && DigitTemplates.apply(BoardGeometry.toCells(puzzle), candidates) >= 0) search(0);
+        if (solutionsFound == 0) throw NoUniqueSolutionException.unsolvable();
+        if (solutionsFound > 1) throw NoUniqueSolutionException.multipleSolutions();
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (valueOf(cell) == 0) place(cell, firstSolution[cell]);
+        }
+    }
+
+    private boolean propagate() {
+        while (true) {
+            int nakedSingles = placeNakedSingles();
+            if (nakedSingles < 0) return false;
+            int hiddenSingles = placeHiddenSingles();
+            if (hiddenSingles < 0) return false;
+            if (nakedSingles + hiddenSingles == 0) return true;
+        }
+    }
+
+    private void search(int depth) {
+        if (!propagate()) return;
+        if (zerosInPuzzle == 0) {
+            if (solutionsFound == 0) {
+                for (int cell = 0; cell < CELLS; cell += 1) {
+                    firstSolution[cell] = valueOf(cell);
                 }
             }
+            solutionsFound += 1;
+            return;
+        }
+        int cell = selectCell();
+        saveState(depth);
+        for (int digits = candidates[cell]; digits != 0; digits &= digits - 1) {
+            place(cell, Integer.numberOfTrailingZeros(digits) + 1);
+            search(depth + 1);
+            restoreState(depth);
+            if (solutionsFound > 1) return;
         }
     }
 
     /**
-     * @deprecated This method isn't doing what it's supposed to do. It's making some erroneous calculation for
-     * some edge cases.
+     * @return the empty cell with the fewest candidates
      */
-    @Deprecated
-    public void solveMediumMethod() {
-        for (int rowIndex = 0; rowIndex < puzzle.length; rowIndex += 1) {
-            for (int columnIndex = 0; columnIndex < puzzle[rowIndex].length; columnIndex += 1) {
-                if (puzzle[rowIndex][columnIndex] == 0) {
-                    checkCurrentPosition(rowIndex, columnIndex);
-                    if (puzzle[rowIndex][columnIndex] == 0) {
-                        int[][] currentRowCandidates = puzzlePossibilities[rowIndex];
-                        int[][] currentColumnCandidates = new int[puzzle.length][puzzle.length];
-                        for (int i = 0; i < puzzle.length; i += 1) {
-                            currentColumnCandidates[i] = puzzlePossibilities[i][columnIndex];
-                        }
-                        int[][] currentQuadrantCandidates = new int[puzzle.length][puzzle.length];
-                        int rowQuadrant = getRowQuadrant(rowIndex);
-                        int columnQuadrant = getColumnQuadrant(rowIndex, columnIndex);
-                        int quadrantFirstRowIndex = getCurrentQuadrantFirstRowIndex(rowQuadrant);
-                        int quadrantFirstColumnIndex = getCurrentQuadrantFirstColumnIndex(columnQuadrant, rowIndex);
-                        List<int[]> auxQuadrantNumbers = new ArrayList<>();
-                        for (int i = 0; i < Math.sqrt(puzzle.length); i += 1) {
-                            for (int j = 0; j < Math.sqrt(puzzle.length); j += 1) {
-                                var elements = puzzlePossibilities[quadrantFirstRowIndex + i][quadrantFirstColumnIndex + j];
-                                auxQuadrantNumbers.add(elements);
-                            }
-                        }
-                        for (int i = 0; i < puzzle.length; i += 1) {
-                            currentQuadrantCandidates[i] = auxQuadrantNumbers.get(i);
-                        }
-
-                        int uniqueForRow = findUniqueOccurrenceBetweenSets(currentRowCandidates);
-                        if (uniqueForRow > 0) {
-
-                            for (int j = 0; j < puzzle.length; j += 1) {
-                                if (contains(puzzlePossibilities[rowIndex][j], uniqueForRow)) {
-                                    puzzle[rowIndex][j] = uniqueForRow;
-                                    puzzlePossibilities[rowIndex][j] = new int[] { uniqueForRow };
-                                    zerosInPuzzle -= 1;
-                                }
-                            }
-
-                        }
-
-                        int uniqueForColumn = findUniqueOccurrenceBetweenSets(currentColumnCandidates);
-                        if (uniqueForColumn > 0) {
-                            for (int i = 0; i < puzzle.length; i += 1) {
-                                if (contains(puzzlePossibilities[i][columnIndex], uniqueForRow)) {
-                                    puzzle[i][columnIndex] = uniqueForRow;
-                                    puzzlePossibilities[i][columnIndex] = new int[] { uniqueForRow };
-                                    zerosInPuzzle -= 1;
-                                }
-                            }
-                        }
-
-                        int uniqueForQuadrant = findUniqueOccurrenceBetweenSets(currentQuadrantCandidates);
-                        if (uniqueForQuadrant > 0) {
-                            for (int i = 0; i < Math.sqrt(puzzle.length); i += 1) {
-                                for (int j = 0; j < Math.sqrt(puzzle.length); j += 1) {
-                                    if (contains(puzzlePossibilities[quadrantFirstRowIndex + i][quadrantFirstColumnIndex + j], uniqueForQuadrant)) {
-                                        puzzle[quadrantFirstRowIndex + i][quadrantFirstColumnIndex + j] = uniqueForQuadrant;
-                                        puzzlePossibilities[quadrantFirstRowIndex + i][quadrantFirstColumnIndex + j] = new int[] { uniqueForQuadrant };
-                                        zerosInPuzzle -= 1;
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
+    private int selectCell() {
+        int bestCell = -1;
+        int bestCount = SIZE + 1;
+        for (int cell = 0; cell < CELLS; cell += 1) {
+            if (valueOf(cell) != 0) continue;
+            int count = Integer.bitCount(candidates[cell]);
+            if (count < bestCount) {
+                bestCell = cell;
+                bestCount = count;
+                if (count == 2) break;
             }
         }
+        return bestCell;
     }
 
-    public void solveHardMethod() {
-
+    private void saveState(int depth) {
+        int[] state = savedStates[depth];
+        System.arraycopy(candidates, 0, state, 0, CELLS);
+        System.arraycopy(rowMasks, 0, state, CELLS, SIZE);
+        System.arraycopy(columnMasks, 0, state, CELLS + SIZE, SIZE);
+        System.arraycopy(quadrantMasks, 0, state, CELLS + 2 * SIZE, SIZE);
+        state[CELLS + 3 * SIZE] = zerosInPuzzle;
+        for (int rowIndex = 0; rowIndex < SIZE; rowIndex += 1) {
+            System.arraycopy(puzzle[rowIndex], 0, state, CELLS + 3 * SIZE + 1 + rowIndex * SIZE, SIZE);
+        }
     }
 
-    public void solveVeryHardMethod() {
-
+    private void restoreState(int depth) {
+        int[] state = savedStates[depth];
+        System.arraycopy(state, 0, candidates, 0, CELLS);
+        System.arraycopy(state, CELLS, rowMasks, 0, SIZE);
+        System.arraycopy(state, CELLS + SIZE, columnMasks, 0, SIZE);
+        System.arraycopy(state, CELLS + 2 * SIZE, quadrantMasks, 0, SIZE);
+        zerosInPuzzle = state[CELLS + 3 * SIZE];
+        for (int rowIndex = 0; rowIndex < SIZE; rowIndex += 1) {
+            System.arraycopy(state, CELLS + 3 * SIZE + 1 + rowIndex * SIZE, puzzle[rowIndex], 0, SIZE);
+        }
     }
 
     private void chooseSolverMethod() {
@@ -633,13 +662,32 @@ public class SudokuSolverProcedural {
         }
     }
 
+    /**
+     * This method solves the puzzle in place.
+     * @return the solved grid, which is the grid given to the constructor
+     * @throws IllegalArgumentException when the puzzle is unsolvable or has multiple solutions
+     */
     public int[][] solve() {
-        countZerosInPuzzle();
+        SolverEvents.Solve event = new SolverEvents.Solve();
+        event.begin();
         startValidatingPuzzle();
-        while (zerosInPuzzle > 0) {
-            chooseSolverMethod();
+        int givens = CELLS - zerosInPuzzle;
+        SolveOutcome outcome = SolveOutcome.ERROR;
+        try {
+            while (zerosInPuzzle > 0) {
+                int zerosBefore = zerosInPuzzle;
+                chooseSolverMethod();
+                // the easy and medium methods got stuck, search for what's left
+                if (zerosInPuzzle == zerosBefore) solveVeryHardMethod();
+            }
+            outcome = SolveOutcome.SOLVED;
+            return puzzle;
+        } catch (IllegalArgumentException e) {
+            outcome = SolveOutcome.of(e);
+            throw e;
+        } finally {
+            SolverEvents.commitSolve(event, ENGINE_NAME, givens, outcome, 0);
         }
-        return puzzle;
     }
 }
 
@@ -0,0 +1,78 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SudokuSolverProceduralTest {
+
+    private final int[][] solution = PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION);
+
+    @Test
+    public void testEasyPuzzle() {
+        int[][] easyPuzzle = {
+                {0, 4, 0, 1, 0, 7, 9, 5, 0},
+                {0, 8, 0, 6, 0, 0, 1, 0, 0},
+                {2, 0, 9, 0, 0, 0, 4, 0, 7},
+                {0, 6, 0, 5, 0, 1, 0, 7, 0},
+                {0, 0, 1, 0, 7, 0, 0, 0, 0},
+                {0, 5, 0, 9, 0, 6, 0, 0, 0},
+                {5, 0, 0, 0, 1, 0, 0, 2, 6},
+                {6, 0, 0, 0, 5, 0, 3, 0, 1},
+                {0, 7, 0, 8, 0, 0, 0, 9, 0}};
+        assertArrayEquals(solution, new SudokuSolverProcedural(easyPuzzle).solve());
+    }
+
+    @Test
+    public void testMediumPuzzleThatNeedsHiddenSingles() {
+        int[][] mediumPuzzle = {
+                {0, 4, 0, 1, 0, 7, 9, 5, 0},
+                {0, 8, 0, 6, 0, 0, 1, 0, 0},
+                {2, 0, 9, 0, 0, 0, 4, 0, 7},
+                {0, 6, 0, 5, 0, 1, 0, 7, 0},
+                {0, 0, 1, 0, 7, 0, 0, 0, 0},
+                {0, 5, 0, 9, 0, 6, 0, 0, 0},
+                {5, 0, 0, 0, 1, 0, 0, 0, 6},
+                {6, 0, 0, 0, 5, 0, 3, 0, 1},
+                {0, 7, 0, 8, 0, 0, 0, 9, 0}};
+        assertArrayEquals(solution, new SudokuSolverProcedural(mediumPuzzle).solve());
+    }
+
+    @Test
+    public void testHardPuzzle() {
+        int[][] hardPuzzle = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+        assertArrayEquals(solution, new SudokuSolverProcedural(hardPuzzle).solve());
+    }
+
+    @Test
+    public void testVeryHardPuzzle() {
+        int[][] veryHardPuzzle = PuzzleText.parse(
+                "400000805030000000000700000020000060000080400000010000000603070500200000104000000");
+        int[][] expected = new SudokuSolverSat(veryHardPuzzle).solve();
+        assertArrayEquals(expected, new SudokuSolverProcedural(veryHardPuzzle).solve());
+    }
+
+    @Test
+    public void testPuzzleWithMultipleSolutionsIsRejected() {
+        int[][] puzzle = PuzzleText.parse(
+                "123456789456789123789123456000000000000000000000000000000000000000000000000000000");
+        try {
+            new SudokuSolverProcedural(puzzle).solve();
+            fail("Expected the puzzle to be rejected.");
+        } catch (IllegalArgumentException e) {
+            assertEquals(SolveOutcome.MULTIPLE_SOLUTIONS_MESSAGE, e.getMessage());
+        }
+    }
+
+    @Test
+    public void testUnsolvablePuzzleIsRejected() {
+        int[][] puzzle = PuzzleText.parse(
+                "12345678.........9............912.........9122........9.........3................");
+        try {
+            new SudokuSolverProcedural(puzzle).solve();
+            fail("Expected the puzzle to be rejected.");
+        } catch (IllegalArgumentException e) {
+            assertEquals(SolveOutcome.UNSOLVABLE_MESSAGE, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * A third engine, next to {@link SudokuSolver} and {@link SudokuSolverProcedural}, that encodes the puzzle as a
+ * boolean satisfiability problem and solves it with the embedded {@link CdclSolver}.
+ * <p>
+ * There is one variable per (row, column, digit), 729 in total, and the usual CNF encoding: every cell takes at least
+ * one and at most one digit, every row, column and quadrant has every digit at least once and at most once, and
+ * every given is a unit clause. Clause learning makes this engine resilient on the adversarial minimal puzzles where
+ * plain backtracking thrashes, and other constraints (e.g. sudoku variants) are just extra clauses.
+ * </p>
+ * <p>
+ * Once a model is found it is blocked with an extra clause and the search runs again: a second model means the
+ * puzzle has multiple solutions.
+ * </p>
+ */
+public class SudokuSolverSat {
+
+    static final String ENGINE_NAME = "sat";
+
+    private static final int SIZE = 9;
+
+    private static final int VARIABLES = SIZE * SIZE * SIZE;
+
+    private final int[][] puzzle;
+
+    private long conflicts;
+
+    private long decisions;
+
+    private CancellationToken cancellationToken;
+
+    public SudokuSolverSat(int[][] grid) throws IllegalArgumentException {
+        PuzzleValidator.validate(grid);
+        this.puzzle = new int[SIZE][];
+        for (int rowIndex = 0; rowIndex < SIZE; rowIndex += 1) {
+            this.puzzle[rowIndex] = grid[rowIndex].clone();
+        }
+    }
+
+    /**
+     * @param rowIndex 0-indexed row index
+     * @param columnIndex 0-indexed column index
+     * @param digit a digit from 1 to 9
+     * @return the SAT variable meaning "the cell at (rowIndex, columnIndex) holds digit", from 1 to 729
+     */
+    static int variable(int rowIndex, int columnIndex, int digit) {
+        return rowIndex * SIZE * SIZE + columnIndex * SIZE + digit;
+    }
+
+    private CdclSolver buildFormula() {
+        CdclSolver solver = new CdclSolver(VARIABLES);
+        int[] unit = new int[SIZE];
+        for (int first = 0; first < SIZE; first += 1) {
+            for (int second = 0; second < SIZE; second += 1) {
+                // every cell (first, second) holds exactly one digit
+                for (int digit = 1; digit <= SIZE; digit += 1) {
+                    unit[digit - 1] = variable(first, second, digit);
+                }
+                addExactlyOne(solver, unit);
+                int digit = second + 1;
+                // every row, column and quadrant (first) holds the digit exactly once
+                for (int index = 0; index < SIZE; index += 1) {
+                    unit[index] = variable(first, index, digit);
+                }
+                addExactlyOne(solver, unit);
+                for (int index = 0; index < SIZE; index += 1) {
+                    unit[index] = variable(index, first, digit);
+                }
+                addExactlyOne(solver, unit);
+                for (int index = 0; index < SIZE; index += 1) {
+                    unit[index] = variable(first / 3 * 3 + index / 3, first % 3 * 3 + index % 3, digit);
+                }
+                addExactlyOne(solver, unit);
+            }
+        }
+        for (int rowIndex = 0; rowIndex < SIZE; rowIndex += 1) {
+            for (int columnIndex = 0; columnIndex < SIZE; columnIndex += 1) {
+                int given = puzzle[rowIndex][columnIndex];
+                if (given != 0) solver.addClause(CdclSolver.literal(variable(rowIndex, columnIndex, given), true));
+            }
+        }
+        return solver;
+    }
+
+    private static void addExactlyOne(CdclSolver solver, int[] variables) {
+        int[] atLeastOne = new int[variables.length];
+        for (int index = 0; index < variables.length; index += 1) {
+            atLeastOne[index] = CdclSolver.literal(variables[index], true);
+        }
+        solver.addClause(atLeastOne);
+        for (int first = 0; first < variables.length; first += 1) {
+            for (int second = first + 1; second < variables.length; second += 1) {
+                solver.addClause(CdclSolver.literal(variables[first], false),
+                        CdclSolver.literal(variables[second], false));
+            }
+        }
+    }
+
+    private int[][] readModel(CdclSolver solver) {
+        int[][] solution = new int[SIZE][SIZE];
+        for (int rowIndex = 0; rowIndex < SIZE; rowIndex += 1) {
+            for (int columnIndex = 0; columnIndex < SIZE; columnIndex += 1) {
+                for (int digit = 1; digit <= SIZE; digit += 1) {
+                    if (solver.isTrue(variable(rowIndex, columnIndex, digit))) {
+                        solution[rowIndex][columnIndex] = digit;
+                        break;
+                    }
+                }
+            }
+        }
+        return solution;
+    }
+
+    /**
+     * A clause that is false only for the given solution: at least one of the cells that weren't given must hold a
+     * different digit.
+     */
+    private int[] blockingClause(int[][] solution) {
+        int[] clause = new int[SIZE * SIZE];
+        int size = 0;
+        for (int rowIndex = 0; rowIndex < SIZE; rowIndex += 1) {
+            for (int columnIndex = 0; columnIndex < SIZE; columnIndex += 1) {
+                if (puzzle[rowIndex][columnIndex] != 0) continue;
+                clause[size++] = CdclSolver.literal(variable(rowIndex, columnIndex, solution[rowIndex][columnIndex]),
+                        false);
+            }
+        }
+        return Arrays.copyOf(clause, size);
+    }
+
+    /**
+     * Solves the puzzle and proves its solution is unique.
+     * @return the solved grid
+     * @throws IllegalArgumentException when the puzzle is unsolvable or has multiple solutions
+     * @throws SolveCancelledException when the cancellation token was cancelled before the end
+     */
+    public int[][] solve() throws IllegalArgumentException {
+        SolverEvents.Solve event = new SolverEvents.Solve();
+        event.begin();
+        CdclSolver solver = buildFormula();
+        solver.setCancellationToken(cancellationToken);
+        SolveOutcome outcome = SolveOutcome.CANCELLED;
+        try {
+            if (!solver.solve()) {
+                outcome = SolveOutcome.UNSOLVABLE;
+                throw NoUniqueSolutionException.unsolvable();
+            }
+            int[][] solution = readModel(solver);
+            int[] blockingClause = blockingClause(solution);
+            if (blockingClause.length != 0) {
+                solver.addClause(blockingClause);
+                if (solver.solve()) {
+                    outcome = SolveOutcome.MULTIPLE_SOLUTIONS;
+                    throw NoUniqueSolutionException.multipleSolutions();
+                }
+            }
+            outcome = SolveOutcome.SOLVED;
+            return solution;
+        } finally {
+            conflicts = solver.getConflicts();
+            decisions = solver.getDecisions();
+            SolverEvents.commitSolve(event, ENGINE_NAME, SolverEvents.countGivens(puzzle), outcome, decisions);
+        }
+    }
+
+    /**
+     * Makes the next solves give up with a {@link SolveCancelledException} once the token is cancelled.
+     * @param cancellationToken the token, or {@code null} to never give up
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * @return the number of conflicts of the last {@link #solve()}, including the uniqueness proof
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * @return the number of decisions of the last {@link #solve()}, including the uniqueness proof
+     */
+    public long getDecisions() {
+        return decisions;
+    }
+}
@@ -0,0 +1,40 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SudokuSolverSatTest {
+
+    private final int[][] hardPuzzle = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+
+    private final int[][] hardPuzzleSolution = PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION);
+
+    @Test
+    public void testSolvesHardPuzzle() {
+        assertArrayEquals(hardPuzzleSolution, new SudokuSolverSat(hardPuzzle).solve());
+    }
+
+    @Test
+    public void testSolvesMinimalPuzzle() {
+        String puzzle = "000000010400000000020000000000050407008000300001090000300400200050100000000806000";
+        int[][] solution = new SudokuSolverSat(PuzzleText.parse(puzzle)).solve();
+        assertTrue(PuzzleValidator.isValid(solution));
+        for (int cell = 0; cell < 81; cell += 1) {
+            int given = puzzle.charAt(cell) - '0';
+            assertTrue(solution[cell / 9][cell % 9] != 0 && (given == 0 || given == solution[cell / 9][cell % 9]));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultipleSolutionsAreRejected() {
+        new SudokuSolverSat(PuzzleText.parse(
+                "12.......34.......5..............................................................")).solve();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsolvablePuzzleIsRejected() {
+        new SudokuSolverSat(PuzzleText.parse(
+                "12345678.........9...............................................................")).solve();
+    }
+}
@@ -200,6 +200,28 @@ public class SudokuSolverTest {
     }
 
 
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicatedDigitInQuadrantIsRejected() {
+        int[][] invalidPuzzle = new int[9][];
+        for (int rowIndex = 0; rowIndex < 9; rowIndex += 1) {
+            invalidPuzzle[rowIndex] = baseSamplePuzzle[rowIndex].clone();
+        }
+        invalidPuzzle[1][0] = 6;
+        new main.SudokuSolver(invalidPuzzle);
+    }
+
+    @Test
+    public void testPuzzleValidator() {
+        assertTrue(PuzzleValidator.isValid(baseSamplePuzzle));
+        assertFalse(PuzzleValidator.isValid(new int[9][8]));
+        int[][] duplicatedInColumn = new int[9][9];
+        duplicatedInColumn[0][4] = 7;
+        duplicatedInColumn[8][4] = 7;
+        assertEquals("Invalid puzzle. The digit 7 appears more than once in column 4.",
+                PuzzleValidator.findProblem(duplicatedInColumn));
+    }
+
+
     int[][][] puzzlePossibilitiesSample = {
             {
                 { 2, 3, 6 }, { 4 }, { 3, 5 }, { 1 }, { 2, 3, 8 }, { 7 }, { 9 }, { 5 }, { 2, 3, 6, 8 }
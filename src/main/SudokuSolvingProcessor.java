@@ -0,0 +1,161 @@
+package main;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link Flow.Processor} that receives puzzles and publishes one {@link SolveResult} per puzzle, solving them on a
+ * {@link SudokuAsyncSolver}'s executor.
+ * <p>
+ * Backpressure is demand driven: the processor only requests puzzles from upstream while its subscriber has
+ * outstanding demand, and never keeps more than {@code maxInFlight} puzzles requested or being solved at once. A
+ * burst upstream therefore waits in the publisher instead of in memory here. The puzzles it received wait for a
+ * solving thread when the solver's queue is full, they aren't rejected. Results are published in completion order,
+ * each one carries the puzzle it belongs to.
+ * </p>
+ * <p>
+ * A puzzle that fails to solve is published as a failed {@link SolveResult}, it doesn't terminate the stream.
+ * </p>
+ */
+public class SudokuSolvingProcessor implements Flow.Processor<int[][], SolveResult> {
+
+    private final SudokuAsyncSolver solver;
+
+    private final int maxInFlight;
+
+    private Flow.Subscription upstream;
+
+    private Flow.Subscriber<? super SolveResult> subscriber;
+
+    private long demand;
+
+    private int requested;
+
+    private int solving;
+
+    private boolean upstreamDone;
+
+    private Throwable upstreamError;
+
+    private boolean terminated;
+
+    SudokuSolvingProcessor(SudokuAsyncSolver solver, int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("At least one puzzle must be allowed in flight.");
+        this.solver = solver;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public synchronized void subscribe(Flow.Subscriber<? super SolveResult> subscriber) {
+        if (this.subscriber != null) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("This processor accepts a single subscriber."));
+            return;
+        }
+        this.subscriber = subscriber;
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                onDownstreamRequest(n);
+            }
+
+            @Override
+            public void cancel() {
+                onDownstreamCancel();
+            }
+        });
+        completeIfDone();
+    }
+
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        requestUpstream();
+    }
+
+    @Override
+    public void onNext(int[][] grid) {
+        synchronized (this) {
+            if (terminated) return;
+            requested -= 1;
+            solving += 1;
+        }
+        solver.solveQueued(grid).thenAccept(this::publish);
+    }
+
+    @Override
+    public synchronized void onError(Throwable throwable) {
+        upstreamDone = true;
+        upstreamError = throwable;
+        completeIfDone();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        upstreamDone = true;
+        completeIfDone();
+    }
+
+    private synchronized void publish(SolveResult result) {
+        solving -= 1;
+        if (terminated) return;
+        demand -= 1;
+        subscriber.onNext(result);
+        requestUpstream();
+        completeIfDone();
+    }
+
+    private synchronized void onDownstreamRequest(long n) {
+        if (terminated) return;
+        if (n <= 0) {
+            terminated = true;
+            cancelUpstream();
+            subscriber.onError(new IllegalArgumentException("The requested amount must be positive (rule 3.9)."));
+            return;
+        }
+        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        requestUpstream();
+    }
+
+    private synchronized void onDownstreamCancel() {
+        terminated = true;
+        cancelUpstream();
+    }
+
+    /**
+     * Requests from upstream as many puzzles as the subscriber still wants, without going over the in flight limit.
+     */
+    private void requestUpstream() {
+        if (upstream == null || upstreamDone || terminated) return;
+        long wanted = Math.min(demand, maxInFlight) - requested - solving;
+        if (wanted > 0) {
+            requested += (int) wanted;
+            upstream.request(wanted);
+        }
+    }
+
+    private void cancelUpstream() {
+        if (upstream != null) upstream.cancel();
+    }
+
+    private void completeIfDone() {
+        if (terminated || subscriber == null || !upstreamDone || solving > 0) return;
+        terminated = true;
+        if (upstreamError != null) {
+            subscriber.onError(upstreamError);
+        } else {
+            subscriber.onComplete();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package main;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class SudokuSolvingProcessorTest {
+
+    private final int[][] hardPuzzle = PuzzleText.parse(TestPuzzles.HARD_PUZZLE);
+
+    private final int[][] hardPuzzleSolution = PuzzleText.parse(TestPuzzles.HARD_PUZZLE_SOLUTION);
+
+    @Test
+    public void testBurstLargerThanTheExecutorIsSolved() throws InterruptedException {
+        try (SudokuAsyncSolver solver = new SudokuAsyncSolver(SudokuEngine.BACKTRACKING, 1, 1)) {
+            SubmissionPublisher<int[][]> publisher = new SubmissionPublisher<>();
+            SudokuSolvingProcessor processor = solver.newProcessor(16);
+            RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+            processor.subscribe(subscriber);
+            publisher.subscribe(processor);
+            for (int index = 0; index < 200; index += 1) {
+                publisher.submit(hardPuzzle);
+            }
+            publisher.close();
+            assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+            assertNull(subscriber.error);
+            assertEquals(200, subscriber.results.size());
+            for (SolveResult result : subscriber.results) {
+                assertTrue(String.valueOf(result.getError()), result.isSolved());
+                assertArrayEquals(hardPuzzleSolution, result.getSolution());
+            }
+        }
+    }
+
+    @Test
+    public void testRequestsNoMoreThanTheSubscriberWantsOrMaxInFlight() {
+        try (SudokuAsyncSolver solver = new SudokuAsyncSolver(SudokuEngine.BACKTRACKING, 1, 1)) {
+            SudokuSolvingProcessor processor = solver.newProcessor(4);
+            RecordingSubscriber subscriber = new RecordingSubscriber(0);
+            processor.subscribe(subscriber);
+            RecordingSubscription upstream = new RecordingSubscription();
+            processor.onSubscribe(upstream);
+            assertEquals(0, upstream.requested);
+            subscriber.subscription.request(2);
+            assertEquals(2, upstream.requested);
+            subscriber.subscription.request(100);
+            assertEquals(4, upstream.requested);
+        }
+    }
+
+    @Test
+    public void testAcceptsASingleSubscriber() {
+        try (SudokuAsyncSolver solver = new SudokuAsyncSolver(SudokuEngine.BACKTRACKING, 1, 1)) {
+            SudokuSolvingProcessor processor = solver.newProcessor(4);
+            processor.subscribe(new RecordingSubscriber(1));
+            RecordingSubscriber second = new RecordingSubscriber(1);
+            processor.subscribe(second);
+            assertNotNull(second.subscription);
+            assertTrue(second.error instanceof IllegalStateException);
+            assertEquals(0, second.done.getCount());
+        }
+    }
+
+    @Test
+    public void testNonPositiveRequestIsAnError() {
+        for (long n : new long[] {0, -1}) {
+            try (SudokuAsyncSolver solver = new SudokuAsyncSolver(SudokuEngine.BACKTRACKING, 1, 1)) {
+                SudokuSolvingProcessor processor = solver.newProcessor(4);
+                RecordingSubscriber subscriber = new RecordingSubscriber(0);
+                processor.subscribe(subscriber);
+                RecordingSubscription upstream = new RecordingSubscription();
+                processor.onSubscribe(upstream);
+                subscriber.subscription.request(n);
+                assertTrue(subscriber.error instanceof IllegalArgumentException);
+                assertTrue(upstream.cancelled);
+            }
+        }
+    }
+
+    @Test
+    public void testCancelStopsTheStream() throws InterruptedException {
+        try (SudokuAsyncSolver solver = new SudokuAsyncSolver(SudokuEngine.BACKTRACKING, 1, 1)) {
+            SudokuSolvingProcessor processor = solver.newProcessor(4);
+            RecordingSubscriber subscriber = new RecordingSubscriber(1);
+            processor.subscribe(subscriber);
+            RecordingSubscription upstream = new RecordingSubscription();
+            processor.onSubscribe(upstream);
+            subscriber.subscription.cancel();
+            assertTrue(upstream.cancelled);
+            processor.onNext(hardPuzzle);
+            processor.onComplete();
+            assertFalse(subscriber.done.await(100, TimeUnit.MILLISECONDS));
+            assertTrue(subscriber.results.isEmpty());
+        }
+    }
+
+    @Test
+    public void testCompletesAfterTheSolvesInFlight() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        SudokuEngine blocking = grid -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return SudokuEngine.BACKTRACKING.solve(grid);
+        };
+        try (SudokuAsyncSolver solver = new SudokuAsyncSolver(blocking, 1, 1)) {
+            SudokuSolvingProcessor processor = solver.newProcessor(4);
+            RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+            processor.subscribe(subscriber);
+            processor.onSubscribe(new RecordingSubscription());
+            processor.onNext(hardPuzzle);
+            processor.onNext(hardPuzzle);
+            processor.onComplete();
+            assertFalse(subscriber.done.await(100, TimeUnit.MILLISECONDS));
+            release.countDown();
+            assertTrue(subscriber.done.await(30, TimeUnit.SECONDS));
+            assertNull(subscriber.error);
+            assertEquals(2, subscriber.results.size());
+        }
+    }
+
+    private static final class RecordingSubscription implements Flow.Subscription {
+
+        private long requested;
+
+        private boolean cancelled;
+
+        @Override
+        public void request(long n) {
+            requested += n;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<SolveResult> {
+
+        private final long initialRequest;
+
+        private final List<SolveResult> results = new ArrayList<>();
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private Flow.Subscription subscription;
+
+        private volatile Throwable error;
+
+        private RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) subscription.request(initialRequest);
+        }
+
+        @Override
+        public synchronized void onNext(SolveResult result) {
+            results.add(result);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package main;
+
+/**
+ * The puzzles the tests share, as 81 characters lines (see {@link PuzzleText}).
+ */
+final class TestPuzzles {
+
+    /**
+     * A hard puzzle with a unique solution, that needs a search.
+     */
+    static final String HARD_PUZZLE =
+            "006100008080090030200005400400001800030070040007900003008400006020050080100002500";
+
+    static final String HARD_PUZZLE_SOLUTION =
+            "346127958785694132219385467462531879931278645857946213598413726624759381173862594";
+
+    private TestPuzzles() {
+    }
+}
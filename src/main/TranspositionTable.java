@@ -0,0 +1,105 @@
+package main;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, lock-free set of Zobrist hashes of search states that were proven to have no solution.
+ * <p>
+ * The hash of a state is the XOR of one random key per {@code (cell, digit)} placement, so the search updates it
+ * incrementally when it places or removes a digit. In {@link SudokuSolverBacktracking} every elimination comes from a
+ * placement, so two boards with the same placements are the same search state, whatever order the guesses were
+ * made in.
+ * </p>
+ * <p>
+ * Entries live in an {@link AtomicLongArray} and are written with compare-and-set, so one table can be shared by
+ * several solver threads (e.g. when counting solutions in parallel). When the probed slots are all taken the first one
+ * is overwritten: the table may forget states, but it never reports a state it wasn't told about, apart from the
+ * negligible chance of a 64 bits hash collision.
+ * </p>
+ */
+public final class TranspositionTable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final int PROBES = 4;
+
+    private static final long[] KEYS = new long[BoardGeometry.CELLS * BoardGeometry.SIZE];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_5D0CL);
+        for (int index = 0; index < KEYS.length; index += 1) {
+            KEYS[index] = random.nextLong();
+        }
+    }
+
+    private final AtomicLongArray entries;
+
+    private final int mask;
+
+    /**
+     * @param capacity the number of entries, rounded up to a power of two
+     */
+    public TranspositionTable(int capacity) {
+        if (capacity < PROBES) throw new IllegalArgumentException("The capacity must be at least " + PROBES + ".");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.entries = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    public TranspositionTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param cell a cell from 0 to 80
+     * @param digit a digit from 1 to 9
+     * @return the Zobrist key of placing the digit in the cell
+     */
+    static long key(int cell, int digit) {
+        return KEYS[cell * BoardGeometry.SIZE + digit - 1];
+    }
+
+    /**
+     * @param hash a state hash
+     * @return {@code true} if the state was recorded as having no solution
+     */
+    public boolean contains(long hash) {
+        long entry = nonZero(hash);
+        int slot = slotOf(entry);
+        for (int probe = 0; probe < PROBES; probe += 1) {
+            long current = entries.get((slot + probe) & mask);
+            if (current == entry) return true;
+            if (current == 0L) return false;
+        }
+        return false;
+    }
+
+    /**
+     * Records a state as having no solution.
+     * @param hash the state hash
+     */
+    public void add(long hash) {
+        long entry = nonZero(hash);
+        int slot = slotOf(entry);
+        for (int probe = 0; probe < PROBES; probe += 1) {
+            int index = (slot + probe) & mask;
+            long current = entries.get(index);
+            if (current == entry) return;
+            if (current == 0L && entries.compareAndSet(index, 0L, entry)) return;
+        }
+        entries.set(slot, entry);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    private static long nonZero(long hash) {
+        return hash == 0L ? 1L : hash;
+    }
+
+    private int slotOf(long entry) {
+        return (int) (entry ^ (entry >>> 32)) & mask;
+    }
+}